@@ -0,0 +1,32 @@
+package de.mlux1.swarmsim.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         Entry class of the benchmark jar. Takes the usual JMH command line, e.g. a benchmark name pattern or
+ *         "-p size=1000", and adds the gc profiler, so that the allocation rate is reported next to the throughput.
+ */
+public class BenchmarkRunner
+{
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException
+    {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+        if (commandLine.getProfilers().isEmpty())
+        {
+            options.addProfiler(GCProfiler.class);
+        }
+        new Runner(options.build()).run();
+    }
+
+}
@@ -0,0 +1,66 @@
+package de.mlux1.swarmsim.benchmark;
+
+import de.mlux1.swarmsim.logic.Direction;
+import de.mlux1.swarmsim.logic.strategy.escape.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         Escape direction of one individual per operation, for every escape strategy. Only individuals near the
+ *         predator escape, which in the clustered layout is one of the clusters.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EscapeStrategyBenchmark
+{
+
+    /**
+     * The swarm together with the strategy under test.
+     */
+    @State(Scope.Benchmark)
+    public static class EscapeState extends SwarmBenchmarkState
+    {
+
+        @Param({"PotentialField", "RightAngle", "PredictiveRightAngle", "Explosion", "PredatorDirection", "None"})
+        public String strategy;
+
+        private EscapeStrategy escapeStrategy;
+        private final Direction direction = new Direction();
+
+        @Setup(Level.Trial)
+        public void setUpStrategy()
+        {
+            if ("PotentialField".equals(strategy))
+                escapeStrategy = new PotentialFieldEscapeStrategy(0.5);
+            else if ("RightAngle".equals(strategy))
+                escapeStrategy = new RightAngleEscapeStrategy();
+            else if ("PredictiveRightAngle".equals(strategy))
+                escapeStrategy = new PredictiveRightAngleEscapeStrategy();
+            else if ("Explosion".equals(strategy))
+                escapeStrategy = new ExplosionEscapeStrategy();
+            else if ("PredatorDirection".equals(strategy))
+                escapeStrategy = new PredatorDirectionEscapeStrategy();
+            else if ("None".equals(strategy))
+                escapeStrategy = new NoEscapeStrategy();
+            else
+                throw new IllegalArgumentException("Unknown escape strategy " + strategy);
+            //directions are held from the first tick on for the whole run
+            escapeStrategy.beginTick(getSwarm(), 0);
+        }
+    }
+
+    @Benchmark
+    public Direction escape(EscapeState state)
+    {
+        state.escapeStrategy.calculateSteeringAngle(state.getSwarm(), state.nextSlot(), state.direction);
+        return state.direction;
+    }
+
+}
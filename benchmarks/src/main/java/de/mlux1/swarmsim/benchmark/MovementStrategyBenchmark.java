@@ -0,0 +1,43 @@
+package de.mlux1.swarmsim.benchmark;
+
+import de.mlux1.swarmsim.logic.Direction;
+import de.mlux1.swarmsim.logic.strategy.MovementStrategy;
+import de.mlux1.swarmsim.logic.strategy.SwarmMovementStrategy;
+import de.mlux1.swarmsim.logic.strategy.TargetMovementStrategy;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         Steering of one individual per operation by the swarm and the target movement strategy.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MovementStrategyBenchmark
+{
+
+    private final MovementStrategy swarmMovementStrategy = new SwarmMovementStrategy();
+    private final MovementStrategy targetMovementStrategy = new TargetMovementStrategy();
+    private final Direction direction = new Direction();
+
+    @Benchmark
+    public Direction swarmMovement(SwarmBenchmarkState state)
+    {
+        swarmMovementStrategy.calculateSteeringAngle(state.getSwarm(), state.nextSlot(), direction);
+        return direction;
+    }
+
+    @Benchmark
+    public Direction targetMovement(SwarmBenchmarkState state)
+    {
+        targetMovementStrategy.calculateSteeringAngle(state.getSwarm(), state.nextSlot(), direction);
+        return direction;
+    }
+
+}
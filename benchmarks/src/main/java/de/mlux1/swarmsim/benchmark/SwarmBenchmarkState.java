@@ -0,0 +1,136 @@
+package de.mlux1.swarmsim.benchmark;
+
+import de.mlux1.swarmsim.logic.AppState;
+import de.mlux1.swarmsim.logic.Config;
+import de.mlux1.swarmsim.logic.Individual;
+import de.mlux1.swarmsim.logic.SwarmState;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         Swarm of the application state, laid out for a benchmark. The individuals are either spread uniformly over
+ *         the field or packed into a few dense clusters, one of them around the predator, which is active but not
+ *         lethal. The neighbour index is built for the layout, so single individuals can be computed without a tick.
+ *         <p/>
+ *         The field has a fixed size, so larger swarms are denser and every individual has more neighbours.
+ */
+@State(Scope.Benchmark)
+public class SwarmBenchmarkState
+{
+
+    public static final String UNIFORM = "uniform";
+    public static final String CLUSTERED = "clustered";
+
+    private static final long SEED = 42;
+    private static final int CLUSTERS = 16;
+    private static final double CLUSTER_SIGMA = 20; //standard deviation of the positions around a cluster center
+
+    @Param({"100", "1000", "10000", "100000"})
+    public int size;
+
+    @Param({UNIFORM, CLUSTERED})
+    public String layout;
+
+    protected AppState appState;
+    protected SwarmState swarm;
+    private int nextSlot;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        appState = AppState.getInstance();
+        appState.restart(SEED);
+        appState.setSwarmSize(size);
+        appState.setPredatorActive(true);
+        appState.setPredatorLethal(false);
+        configure();
+        appState.tick(); //places the individuals and applies the configuration
+        swarm = appState.getSwarm();
+        layOut();
+    }
+
+    /**
+     * Called before the first tick, for benchmarks that change further settings of the simulation.
+     */
+    protected void configure()
+    {
+    }
+
+    /**
+     * Places all individuals according to the layout and rebuilds the neighbour index.
+     */
+    protected void layOut()
+    {
+        Random random = new Random(SEED);
+        double[] xs = swarm.getX();
+        double[] ys = swarm.getY();
+
+        Individual predator = appState.getPredator();
+        double[] centerX = new double[CLUSTERS];
+        double[] centerY = new double[CLUSTERS];
+        centerX[0] = predator.getX();
+        centerY[0] = predator.getY();
+        for (int c = 1; c < CLUSTERS; c++)
+        {
+            centerX[c] = Config.FIELD_WIDTH * (0.1 + random.nextDouble() * 0.8);
+            centerY[c] = Config.FIELD_HEIGHT * (0.1 + random.nextDouble() * 0.8);
+        }
+
+        for (int slot = 0; slot < swarm.size(); slot++)
+        {
+            if (CLUSTERED.equals(layout))
+            {
+                int c = random.nextInt(CLUSTERS);
+                xs[slot] = clamp(centerX[c] + random.nextGaussian() * CLUSTER_SIGMA, Config.FIELD_WIDTH);
+                ys[slot] = clamp(centerY[c] + random.nextGaussian() * CLUSTER_SIGMA, Config.FIELD_HEIGHT);
+            } else
+            {
+                xs[slot] = random.nextDouble() * Config.FIELD_WIDTH;
+                ys[slot] = random.nextDouble() * Config.FIELD_HEIGHT;
+            }
+        }
+        appState.getNeighborIndex().rebuild(swarm);
+    }
+
+    /**
+     * Keeps a coordinate on the field.
+     *
+     * @param value The coordinate.
+     * @param max   The size of the field in this dimension.
+     * @return The coordinate within [0, max].
+     */
+    private static double clamp(double value, double max)
+    {
+        return Math.max(0, Math.min(max, value));
+    }
+
+    /**
+     * Returns the slot to compute next. Benchmarks of single individuals go round the whole swarm, so that every
+     * operation covers one individual and the results do not depend on a particular one.
+     *
+     * @return The slot.
+     */
+    public int nextSlot()
+    {
+        int slot = nextSlot;
+        nextSlot = slot + 1 < swarm.size() ? slot + 1 : 0;
+        return slot;
+    }
+
+    /**
+     * @return The swarm.
+     */
+    public SwarmState getSwarm()
+    {
+        return swarm;
+    }
+
+}
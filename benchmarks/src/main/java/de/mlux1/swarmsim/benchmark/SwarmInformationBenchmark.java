@@ -0,0 +1,58 @@
+package de.mlux1.swarmsim.benchmark;
+
+import de.mlux1.swarmsim.logic.SwarmInformation;
+import de.mlux1.swarmsim.logic.kernel.NeighbourKernel;
+import de.mlux1.swarmsim.logic.kernel.ScalarNeighbourKernel;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         Neighbourhood statistics of one individual per operation, for every neighbour kernel. The vector kernel
+ *         needs the incubator module, which is added to the forked JVM.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class SwarmInformationBenchmark
+{
+
+    /**
+     * The swarm together with the kernel under test.
+     */
+    @State(Scope.Benchmark)
+    public static class KernelState extends SwarmBenchmarkState
+    {
+
+        @Param({"scalar", "vector"})
+        public String kernel;
+
+        @Override
+        protected void configure()
+        {
+            if ("scalar".equals(kernel))
+            {
+                appState.setNeighbourKernel(new ScalarNeighbourKernel());
+            } else if ("vector".equals(kernel))
+            {
+                NeighbourKernel vector = NeighbourKernel.createVectorKernel();
+                if (vector == null)
+                    throw new IllegalStateException("The vector kernel is not available in this JVM");
+                appState.setNeighbourKernel(vector);
+            } else
+                throw new IllegalArgumentException("Unknown kernel " + kernel);
+        }
+    }
+
+    @Benchmark
+    public SwarmInformation compute(KernelState state)
+    {
+        return SwarmInformation.compute(state.getSwarm(), state.nextSlot());
+    }
+
+}
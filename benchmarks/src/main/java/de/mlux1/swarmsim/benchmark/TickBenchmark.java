@@ -0,0 +1,50 @@
+package de.mlux1.swarmsim.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         One full tick of the application state per operation: index rebuild, steering and movement of the whole
+ *         swarm and the frame for the renderer. The swarm is laid out anew for every iteration, since ticks change it.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TickBenchmark
+{
+
+    /**
+     * The swarm together with the number of threads of a tick and what the individuals steer.
+     */
+    @State(Scope.Benchmark)
+    public static class TickState extends SwarmBenchmarkState
+    {
+
+        @Param({"1", "4"})
+        public int threads;
+
+        @Param({"vector", "angle"})
+        public String headings;
+
+        @Setup(Level.Iteration)
+        public void setUpIteration()
+        {
+            appState.setTickThreads(threads);
+            appState.setVectorHeadings("vector".equals(headings));
+            layOut();
+        }
+    }
+
+    @Benchmark
+    public void tick(TickState state)
+    {
+        state.appState.tick();
+    }
+
+}
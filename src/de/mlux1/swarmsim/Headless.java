@@ -0,0 +1,562 @@
+package de.mlux1.swarmsim;
+
+import de.mlux1.swarmsim.logic.AppState;
+import de.mlux1.swarmsim.logic.Checkpointer;
+import de.mlux1.swarmsim.logic.Config;
+import de.mlux1.swarmsim.logic.ConfigWatcher;
+import de.mlux1.swarmsim.logic.Interaction;
+import de.mlux1.swarmsim.logic.RuntimeConfig;
+import de.mlux1.swarmsim.logic.JvmStatistics;
+import de.mlux1.swarmsim.logic.Species;
+import de.mlux1.swarmsim.logic.SwarmInformation;
+import de.mlux1.swarmsim.logic.SwarmState;
+import de.mlux1.swarmsim.logic.TrajectoryRecorder;
+import de.mlux1.swarmsim.logic.index.AdaptiveNeighborIndex;
+import de.mlux1.swarmsim.logic.index.BruteForceNeighborIndex;
+import de.mlux1.swarmsim.logic.index.GridNeighborIndex;
+import de.mlux1.swarmsim.logic.index.NeighborIndex;
+import de.mlux1.swarmsim.logic.index.QuadtreeNeighborIndex;
+import de.mlux1.swarmsim.logic.jmx.SimulationControl;
+import de.mlux1.swarmsim.logic.kernel.NeighbourKernel;
+import de.mlux1.swarmsim.logic.kernel.ScalarNeighbourKernel;
+import de.mlux1.swarmsim.logic.strategy.escape.*;
+
+import javax.management.JMException;
+import java.io.File;
+import java.io.IOException;
+import java.util.Properties;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         Entry class for running the simulation without a user interface, e.g. on machines without a display.
+ *         Runs a number of ticks, or for a duration, as fast as possible and prints the throughput and the state of the
+ *         swarm at the end. Nothing of AWT or Swing is loaded.
+ *         <p/>
+ *         On JVMs that count allocations per thread, it also prints the bytes allocated per tick by all threads, which
+ *         is 0 in steady state as long as no individual escapes with a timed escape strategy.
+ */
+public class Headless
+{
+
+    private static final String USAGE =
+            "Usage: Headless [options]\n" +
+                    "  --ticks N            number of ticks to run (default 1000)\n" +
+                    "  --duration S         run for S seconds instead of a number of ticks\n" +
+                    "  --warmup N           ticks to run before measuring (default 100)\n" +
+                    "  --size N             swarm size (default " + Config.DEFAULT_NUM_INDIVIDUALS + ")\n" +
+                    "  --species N          split the swarm into N species with the same parameters (default 1)\n" +
+                    "  --interaction NAME   ignore, avoid or school, how different species react to each other\n" +
+                    "                       (default " + Config.DEFAULT_INTERACTION.name().toLowerCase() + ")\n" +
+                    "  --speed N            speed of the individuals, at most " + Config.MAX_SPEED + " (default " + Config.DEFAULT_SPEED + ")\n" +
+                    "  --alignment N        alignment priority (default " + Config.DEFAULT_ALIGNMENT_PRIORITY + ")\n" +
+                    "  --separation N       separation priority (default " + Config.DEFAULT_SEPARATION_PRIORITY + ")\n" +
+                    "  --cohesion N         cohesion priority (default " + Config.DEFAULT_COHESION_PRIORITY + ")\n" +
+                    "  --predator           activate the predators\n" +
+                    "  --lethal             let the predators kill individuals\n" +
+                    "  --predator-speed N   speed of the predators, at most " + Config.MAX_PREDATOR_SPEED + " (default " + Config.DEFAULT_PREDATOR_SPEED + ")\n" +
+                    "  --predators N        number of predators, at most " + Config.MAX_PREDATOR_COUNT + " (default " + Config.DEFAULT_PREDATOR_COUNT + ")\n" +
+                    "  --escape NAME        potential-field[:beta], right-angle, predictive-right-angle, explosion,\n" +
+                    "                       predator-direction or none (default potential-field:0.5)\n" +
+                    "  --index NAME         adaptive, grid, quadtree or brute-force (default adaptive)\n" +
+                    "  --kernel NAME        scalar or vector, which needs --add-modules jdk.incubator.vector (default scalar)\n" +
+                    "  --headings NAME      vector or angle, what the individuals steer (default " + (Config.DEFAULT_VECTOR_HEADINGS ? "vector" : "angle") + ")\n" +
+                    "  --threads N          threads per tick (default " + Config.DEFAULT_TICK_THREADS + ")\n" +
+                    "  --seed N             seed of all random numbers, the same seed gives the same run for any number of\n" +
+                    "                       threads\n" +
+                    "  --record FILE        record every tick, including the warmup, for a replay in the window\n" +
+                    "  --restore FILE       continue from a checkpoint instead of starting anew; the swarm, species, predators\n" +
+                    "                       and seed are taken from it, index, kernel and threads from the options; index\n" +
+                    "                       and kernel must be the same as before for the run to continue exactly\n" +
+                    "  --checkpoint FILE    save a checkpoint at the end of the run\n" +
+                    "  --checkpoint-every N also save one every N ticks in the background\n" +
+                    "  --config FILE        read the radii, tick rate and other settings from a properties file and\n" +
+                    "                       reload it whenever it changes\n" +
+                    "  --set KEY=VALUE      a setting of the config file, replaces the one of the file";
+
+    private long ticks = 1000;
+    private double duration = 0; //seconds, 0 to run a number of ticks
+    private long warmup = 100;
+    private int size = Config.DEFAULT_NUM_INDIVIDUALS;
+    private int speciesCount = 1;
+    private Interaction interaction = Config.DEFAULT_INTERACTION;
+    private int speed = Config.DEFAULT_SPEED;
+    private int alignmentPriority = Config.DEFAULT_ALIGNMENT_PRIORITY;
+    private int separationPriority = Config.DEFAULT_SEPARATION_PRIORITY;
+    private int cohesionPriority = Config.DEFAULT_COHESION_PRIORITY;
+    private boolean predatorActive = false;
+    private boolean predatorLethal = false;
+    private int predatorSpeed = Config.DEFAULT_PREDATOR_SPEED;
+    private int predatorCount = Config.DEFAULT_PREDATOR_COUNT;
+    private EscapeStrategy escapeStrategy = new PotentialFieldEscapeStrategy(EscapeStrategies.DEFAULT_BETA);
+    private NeighborIndex neighborIndex = new AdaptiveNeighborIndex(SwarmInformation.QUERY_RADIUS, Config.FIELD_WIDTH, Config.FIELD_HEIGHT);
+    private NeighbourKernel neighbourKernel = new ScalarNeighbourKernel();
+    private boolean vectorHeadings = Config.DEFAULT_VECTOR_HEADINGS;
+    private int threads = Config.DEFAULT_TICK_THREADS;
+    private long seed = System.nanoTime();
+    private File recordFile; //null to record nothing
+    private File restoreFile; //null to start anew
+    private File checkpointFile; //null to save no checkpoint
+    private long checkpointInterval = 0; //ticks between background checkpoints, 0 for none
+    private File configFile; //null to watch no config file
+    private final Properties settings = new Properties(); //settings of the command line, replace the ones of the file
+    private RuntimeConfig config = RuntimeConfig.DEFAULTS;
+
+    public static void main(String[] args)
+    {
+        Headless headless = new Headless();
+        try
+        {
+            headless.parse(args);
+        } catch (IllegalArgumentException e)
+        {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        headless.run();
+    }
+
+    /**
+     * Reads the options from the command line.
+     *
+     * @param args The command line arguments.
+     * @throws IllegalArgumentException If an option is unknown or has an invalid value.
+     */
+    private void parse(String[] args)
+    {
+        for (int i = 0; i < args.length; i++)
+        {
+            String option = args[i];
+            if ("--predator".equals(option))
+            {
+                predatorActive = true;
+            } else if ("--lethal".equals(option))
+            {
+                predatorActive = true;
+                predatorLethal = true;
+            } else if ("--help".equals(option))
+            {
+                System.out.println(USAGE);
+                System.exit(0);
+            } else
+            {
+                if (i + 1 >= args.length)
+                {
+                    throw new IllegalArgumentException("Missing value for " + option);
+                }
+                String value = args[++i];
+                try
+                {
+                    if ("--ticks".equals(option))
+                        ticks = (long) positive(option, Long.parseLong(value));
+                    else if ("--duration".equals(option))
+                        duration = positive(option, Double.parseDouble(value));
+                    else if ("--warmup".equals(option))
+                        warmup = Math.max(Long.parseLong(value), 0);
+                    else if ("--size".equals(option))
+                        size = (int) positive(option, Integer.parseInt(value));
+                    else if ("--species".equals(option))
+                        speciesCount = (int) positive(option, Integer.parseInt(value));
+                    else if ("--interaction".equals(option))
+                        interaction = parseInteraction(value);
+                    else if ("--speed".equals(option))
+                        speed = (int) atMost(option, positive(option, Integer.parseInt(value)), Config.MAX_SPEED);
+                    else if ("--alignment".equals(option))
+                        alignmentPriority = Integer.parseInt(value);
+                    else if ("--separation".equals(option))
+                        separationPriority = Integer.parseInt(value);
+                    else if ("--cohesion".equals(option))
+                        cohesionPriority = Integer.parseInt(value);
+                    else if ("--predator-speed".equals(option))
+                        predatorSpeed = (int) atMost(option, positive(option, Integer.parseInt(value)), Config.MAX_PREDATOR_SPEED);
+                    else if ("--predators".equals(option))
+                        predatorCount = (int) atMost(option, positive(option, Integer.parseInt(value)), Config.MAX_PREDATOR_COUNT);
+                    else if ("--escape".equals(option))
+                        escapeStrategy = EscapeStrategies.forName(value);
+                    else if ("--index".equals(option))
+                        neighborIndex = parseNeighborIndex(value);
+                    else if ("--kernel".equals(option))
+                        neighbourKernel = parseNeighbourKernel(value);
+                    else if ("--headings".equals(option))
+                        vectorHeadings = parseHeadings(value);
+                    else if ("--threads".equals(option))
+                        threads = (int) positive(option, Integer.parseInt(value));
+                    else if ("--seed".equals(option))
+                        seed = Long.parseLong(value);
+                    else if ("--record".equals(option))
+                        recordFile = new File(value);
+                    else if ("--restore".equals(option))
+                        restoreFile = new File(value);
+                    else if ("--checkpoint".equals(option))
+                        checkpointFile = new File(value);
+                    else if ("--checkpoint-every".equals(option))
+                        checkpointInterval = (long) positive(option, Long.parseLong(value));
+                    else if ("--config".equals(option))
+                        configFile = new File(value);
+                    else if ("--set".equals(option))
+                        RuntimeConfig.parseSetting(value, settings);
+                    else
+                        throw new IllegalArgumentException("Unknown option " + option);
+                } catch (NumberFormatException e)
+                {
+                    throw new IllegalArgumentException("Invalid number for " + option + ": " + value);
+                }
+            }
+        }
+        if (checkpointInterval > 0 && checkpointFile == null)
+        {
+            throw new IllegalArgumentException("--checkpoint-every needs --checkpoint FILE");
+        }
+        try
+        {
+            config = RuntimeConfig.load(configFile, settings);
+        } catch (IOException e)
+        {
+            throw new IllegalArgumentException("Cannot read " + configFile + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Checks that the value of an option is positive.
+     *
+     * @param option The option.
+     * @param value  The value.
+     * @return The value.
+     * @throws IllegalArgumentException If the value is not positive.
+     */
+    private static double positive(String option, double value)
+    {
+        if (value <= 0)
+        {
+            throw new IllegalArgumentException(option + " must be positive");
+        }
+        return value;
+    }
+
+    /**
+     * Checks that the value of an option does not exceed a maximum.
+     *
+     * @param option  The option.
+     * @param value   The value.
+     * @param maximum The largest allowed value.
+     * @return The value.
+     * @throws IllegalArgumentException If the value is larger than the maximum.
+     */
+    private static double atMost(String option, double value, double maximum)
+    {
+        if (value > maximum)
+        {
+            throw new IllegalArgumentException(option + " must be at most " + (long) maximum);
+        }
+        return value;
+    }
+
+    /**
+     * Creates the neighbour index of the given name.
+     *
+     * @param name The name.
+     * @return The index.
+     * @throws IllegalArgumentException If there is no index of this name.
+     */
+    private static NeighborIndex parseNeighborIndex(String name)
+    {
+        if ("adaptive".equals(name))
+        {
+            return new AdaptiveNeighborIndex(SwarmInformation.QUERY_RADIUS, Config.FIELD_WIDTH, Config.FIELD_HEIGHT);
+        } else if ("grid".equals(name))
+        {
+            return new GridNeighborIndex(SwarmInformation.QUERY_RADIUS, Config.FIELD_WIDTH, Config.FIELD_HEIGHT);
+        } else if ("quadtree".equals(name))
+        {
+            return new QuadtreeNeighborIndex();
+        } else if ("brute-force".equals(name))
+        {
+            return new BruteForceNeighborIndex();
+        }
+        throw new IllegalArgumentException("Unknown neighbour index " + name);
+    }
+
+    /**
+     * Parses how different species react to each other.
+     *
+     * @param name ignore, avoid or school.
+     * @return The interaction.
+     * @throws IllegalArgumentException If there is no interaction of this name.
+     */
+    private static Interaction parseInteraction(String name)
+    {
+        for (Interaction interaction : Interaction.values())
+        {
+            if (interaction.name().equalsIgnoreCase(name))
+                return interaction;
+        }
+        throw new IllegalArgumentException("Unknown interaction " + name);
+    }
+
+    /**
+     * Parses what the individuals steer.
+     *
+     * @param name vector or angle.
+     * @return True for vector headings.
+     * @throws IllegalArgumentException If the name is neither.
+     */
+    private static boolean parseHeadings(String name)
+    {
+        if ("vector".equals(name))
+            return true;
+        if ("angle".equals(name))
+            return false;
+        throw new IllegalArgumentException("Unknown headings " + name);
+    }
+
+    /**
+     * Creates the neighbour kernel of the given name.
+     *
+     * @param name The name.
+     * @return The kernel.
+     * @throws IllegalArgumentException If there is no kernel of this name or it is not available.
+     */
+    private static NeighbourKernel parseNeighbourKernel(String name)
+    {
+        if ("scalar".equals(name))
+        {
+            return new ScalarNeighbourKernel();
+        } else if ("vector".equals(name))
+        {
+            NeighbourKernel kernel = NeighbourKernel.createVectorKernel();
+            if (kernel == null)
+            {
+                throw new IllegalArgumentException("The vector kernel needs a JVM started with --add-modules jdk.incubator.vector");
+            }
+            return kernel;
+        }
+        throw new IllegalArgumentException("Unknown neighbour kernel " + name);
+    }
+
+    /**
+     * Sets up the simulation, runs it and prints the results.
+     */
+    private void run()
+    {
+        AppState appState = AppState.getInstance();
+        appState.setConfig(config);
+        appState.restart(seed);
+        appState.setSwarmSize(size / speciesCount + size % speciesCount);
+        appState.setSpeed(speed);
+        appState.setAlignmentPriority(alignmentPriority);
+        appState.setSeparationPriority(separationPriority);
+        appState.setCohesionPriority(cohesionPriority);
+        for (int i = 1; i < speciesCount; i++)
+        {
+            Species species = new Species("Species " + (i + 1));
+            species.setSize(size / speciesCount);
+            species.setSpeed(speed);
+            species.setAlignmentPriority(alignmentPriority);
+            species.setSeparationPriority(separationPriority);
+            species.setCohesionPriority(cohesionPriority);
+            species.setEscapeStrategy(escapeStrategy);
+            appState.addSpecies(species);
+        }
+        for (int s = 0; s < speciesCount; s++)
+        {
+            for (int other = 0; other < speciesCount; other++)
+            {
+                if (s != other)
+                    appState.setInteraction(s, other, interaction);
+            }
+        }
+        appState.setPredatorActive(predatorActive);
+        appState.setPredatorLethal(predatorLethal);
+        appState.setPredatorSpeed(predatorSpeed);
+        appState.setPredatorCount(predatorCount);
+        appState.setEscapeStrategy(escapeStrategy);
+        appState.setNeighborIndex(neighborIndex);
+        appState.setNeighbourKernel(neighbourKernel);
+        appState.setVectorHeadings(vectorHeadings);
+        appState.setTickThreads(threads);
+
+        System.out.printf("swarm size %d in %d species (%s), escape strategy %s, neighbour index %s, %s kernel, %s headings, %d thread(s), seed %d%n",
+                size, speciesCount, interaction.name().toLowerCase(), escapeStrategy, neighborIndex, neighbourKernel, vectorHeadings ? "vector" : "angle", threads, seed);
+        if (configFile != null || !settings.isEmpty())
+        {
+            System.out.println("config: " + config);
+        }
+
+        ConfigWatcher configWatcher = null;
+        if (configFile != null)
+        {
+            try
+            {
+                configWatcher = new ConfigWatcher(configFile, settings, appState);
+            } catch (IOException e)
+            {
+                System.err.println("Cannot watch " + configFile + ": " + e.getMessage());
+            }
+        }
+
+        //the checkpoint replaces what the options set, except for how the ticks are computed
+        if (restoreFile != null)
+        {
+            long start = System.nanoTime();
+            try
+            {
+                Checkpointer.restore(appState, restoreFile);
+            } catch (IOException e)
+            {
+                System.err.println("Cannot restore " + restoreFile + ": " + e.getMessage());
+                System.exit(1);
+            }
+            System.out.printf("restored:            %s at tick %d, %d individuals, seed %d in %.3f s%n", restoreFile,
+                    appState.getTickCount(), appState.getSwarm().size(), appState.getSeed(), (System.nanoTime() - start) / 1e9);
+        }
+
+        Checkpointer checkpointer = null;
+        if (checkpointInterval > 0)
+        {
+            checkpointer = new Checkpointer(checkpointFile, checkpointInterval);
+            appState.setCheckpointer(checkpointer);
+        }
+
+        TrajectoryRecorder recorder = null;
+        if (recordFile != null)
+        {
+            try
+            {
+                recorder = new TrajectoryRecorder(recordFile, Config.RECORD_KEYFRAME_INTERVAL);
+            } catch (IOException e)
+            {
+                System.err.println("Cannot record to " + recordFile + ": " + e.getMessage());
+                System.exit(1);
+            }
+            appState.setRecorder(recorder);
+        }
+
+        try
+        {
+            SimulationControl.register(appState);
+        } catch (JMException e)
+        {
+            System.err.println("Cannot register the simulation for JMX: " + e.getMessage());
+        }
+
+        for (long i = 0; i < warmup; i++)
+        {
+            appState.tick();
+        }
+
+        long measured = 0;
+        long agentUpdates = 0;
+        long allocatedBefore = JvmStatistics.getAllocatedBytes();
+        long start = System.nanoTime();
+        long end = start + (long) (duration * 1e9);
+        while (duration > 0 ? System.nanoTime() - end < 0 : measured < ticks)
+        {
+            agentUpdates += appState.getSwarm().size();
+            appState.tick();
+            measured++;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long allocated = JvmStatistics.getAllocatedBytes() - allocatedBefore;
+
+        System.out.printf("ticks:               %d in %.3f s%n", measured, seconds);
+        System.out.printf("ticks/s:             %.1f%n", measured / seconds);
+        System.out.printf("agent-updates/s:     %.0f%n", agentUpdates / seconds);
+        if (allocatedBefore >= 0 && allocated >= 0)
+        {
+            System.out.printf("allocated/tick:      %.1f bytes%n", (double) allocated / measured);
+        }
+        printStatistics(appState);
+
+        if (configWatcher != null)
+        {
+            try
+            {
+                configWatcher.close();
+            } catch (IOException e)
+            {
+                System.err.println("Cannot stop watching " + configFile + ": " + e.getMessage());
+            }
+            System.out.printf("config reloads:      %d%n", configWatcher.getReloads());
+        }
+
+        if (checkpointer != null)
+        {
+            appState.setCheckpointer(null);
+            try
+            {
+                checkpointer.close();
+            } catch (IOException e)
+            {
+                System.err.println("Cannot write a checkpoint: " + e.getMessage());
+            }
+            System.out.printf("checkpoints:         %d written, %d skipped%n", checkpointer.getWrittenCheckpoints(),
+                    checkpointer.getSkippedCheckpoints());
+        }
+        if (checkpointFile != null)
+        {
+            try
+            {
+                Checkpointer.save(appState, checkpointFile);
+                System.out.printf("checkpoint:          %s at tick %d, %d bytes%n", checkpointFile, appState.getTickCount(),
+                        checkpointFile.length());
+            } catch (IOException e)
+            {
+                System.err.println("Cannot save the checkpoint: " + e.getMessage());
+            }
+        }
+
+        if (recorder != null)
+        {
+            appState.setRecorder(null);
+            try
+            {
+                recorder.close();
+                System.out.printf("recorded:            %s, %d bytes, %d tick(s) left out%n", recordFile,
+                        recordFile.length(), recorder.getDroppedTicks());
+            } catch (IOException e)
+            {
+                System.err.println("Cannot finish the recording: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Prints the state of the swarm at the end of the run.
+     *
+     * @param appState The application state.
+     */
+    private static void printStatistics(AppState appState)
+    {
+        SwarmState swarm = appState.getSwarm();
+        int n = swarm.size();
+        double sumX = 0, sumY = 0, sumDx = 0, sumDy = 0;
+        for (int slot = 0; slot < n; slot++)
+        {
+            sumX += swarm.getX()[slot];
+            sumY += swarm.getY()[slot];
+            sumDx += swarm.getDx()[slot];
+            sumDy += swarm.getDy()[slot];
+        }
+        double centerX = n > 0 ? sumX / n : 0;
+        double centerY = n > 0 ? sumY / n : 0;
+
+        double spread = 0;
+        for (int slot = 0; slot < n; slot++)
+        {
+            double dx = swarm.getX()[slot] - centerX;
+            double dy = swarm.getY()[slot] - centerY;
+            spread += Math.sqrt(dx * dx + dy * dy);
+        }
+
+        System.out.printf("total ticks:         %d%n", appState.getTickCount());
+        System.out.printf("individuals:         %d%n", n);
+        System.out.printf("killed:              %d%n", appState.getKillCount());
+        System.out.printf("center:              (%.1f, %.1f)%n", centerX, centerY);
+        System.out.printf("mean distance:       %.1f%n", n > 0 ? spread / n : 0);
+        //1 if all individuals head the same way, near 0 if the headings are spread evenly
+        System.out.printf("polarization:        %.3f%n", n > 0 ? Math.sqrt(sumDx * sumDx + sumDy * sumDy) / n : 0);
+    }
+
+}
@@ -1,9 +1,23 @@
 package de.mlux1.swarmsim;
 
 import de.mlux1.swarmsim.logic.AppState;
+import de.mlux1.swarmsim.logic.Checkpointer;
+import de.mlux1.swarmsim.logic.Config;
+import de.mlux1.swarmsim.logic.ConfigWatcher;
+import de.mlux1.swarmsim.logic.RuntimeConfig;
+import de.mlux1.swarmsim.logic.TrajectoryRecorder;
+import de.mlux1.swarmsim.logic.TrajectoryReplay;
+import de.mlux1.swarmsim.logic.jmx.SimulationControl;
 import de.mlux1.swarmsim.ui.MainWindow;
+import de.mlux1.swarmsim.ui.ReplayPlayer;
+import de.mlux1.swarmsim.ui.ReplayWindow;
 import de.mlux1.swarmsim.ui.UIController;
 
+import javax.management.JMException;
+import java.io.File;
+import java.io.IOException;
+import java.util.Properties;
+
 /**
  * @author mlux
  *         Date: 02.08.11
@@ -19,9 +33,218 @@ public class Main
     {
         UIController controller = UIController.getInstance();
 
+        //--active renders the field on a thread of its own instead of letting Swing repaint it
+        //--seed N makes the run reproducible
+        //--record FILE records every tick, --replay FILE plays such a recording back instead of simulating
+        //--restore FILE continues from a checkpoint, --checkpoint FILE saves one every minute of simulated time
+        //--config FILE reads the settings of RuntimeConfig and reloads them on change, --set KEY=VALUE replaces one
+        boolean activeRendering = false;
+        String recordFile = null;
+        String replayFile = null;
+        String restoreFile = null;
+        String checkpointFile = null;
+        String configFile = null;
+        Properties settings = new Properties();
+        for (int i = 0; i < args.length; i++)
+        {
+            if ("--active".equals(args[i]))
+            {
+                activeRendering = true;
+            } else if ("--seed".equals(args[i]) && i + 1 < args.length)
+            {
+                try
+                {
+                    AppState.getInstance().restart(Long.parseLong(args[++i]));
+                } catch (NumberFormatException e)
+                {
+                    System.err.println("Invalid seed " + args[i] + ", using a random one.");
+                }
+            } else if ("--record".equals(args[i]) && i + 1 < args.length)
+            {
+                recordFile = args[++i];
+            } else if ("--replay".equals(args[i]) && i + 1 < args.length)
+            {
+                replayFile = args[++i];
+            } else if ("--restore".equals(args[i]) && i + 1 < args.length)
+            {
+                restoreFile = args[++i];
+            } else if ("--checkpoint".equals(args[i]) && i + 1 < args.length)
+            {
+                checkpointFile = args[++i];
+            } else if ("--config".equals(args[i]) && i + 1 < args.length)
+            {
+                configFile = args[++i];
+            } else if ("--set".equals(args[i]) && i + 1 < args.length)
+            {
+                try
+                {
+                    RuntimeConfig.parseSetting(args[++i], settings);
+                } catch (IllegalArgumentException e)
+                {
+                    System.err.println(e.getMessage());
+                }
+            } else
+            {
+                System.err.println("Unknown option " + args[i] + ", only --active, --seed N, --record FILE, --replay FILE, "
+                        + "--restore FILE, --checkpoint FILE, --config FILE and --set KEY=VALUE are supported.");
+            }
+        }
+
+        //before everything else, the window and the recording read the configuration
+        configure(configFile == null ? null : new File(configFile), settings);
+
+        if (replayFile != null)
+        {
+            replay(new File(replayFile));
+            return;
+        }
+        if (restoreFile != null)
+        {
+            try
+            {
+                Checkpointer.restore(AppState.getInstance(), new File(restoreFile));
+            } catch (IOException e)
+            {
+                System.err.println("Cannot restore " + restoreFile + ": " + e.getMessage());
+                System.exit(1);
+            }
+        }
+        if (recordFile != null)
+        {
+            record(new File(recordFile));
+        }
+        if (checkpointFile != null)
+        {
+            checkpoint(new File(checkpointFile));
+        }
+
+        controller.subscribe(AppState.getInstance());
         AppState.getInstance().simulate();
+        try
+        {
+            SimulationControl.register(AppState.getInstance());
+        } catch (JMException e)
+        {
+            System.err.println("Cannot register the simulation for JMX: " + e.getMessage());
+        }
+
+        window = new MainWindow(controller, activeRendering);
+    }
+
+    /**
+     * Reads the configuration and watches its file for changes until the application exits. Exits if the
+     * configuration cannot be read or is invalid.
+     *
+     * @param file     The configuration file, null for none.
+     * @param settings The settings of the command line, they replace the ones of the file.
+     */
+    private static void configure(File file, Properties settings)
+    {
+        try
+        {
+            AppState.getInstance().setConfig(RuntimeConfig.load(file, settings));
+        } catch (IOException e)
+        {
+            System.err.println("Cannot read " + file + ": " + e.getMessage());
+            System.exit(1);
+        } catch (IllegalArgumentException e)
+        {
+            System.err.println("Invalid configuration: " + e.getMessage());
+            System.exit(1);
+        }
+
+        if (file != null)
+        {
+            try
+            {
+                new ConfigWatcher(file, settings, AppState.getInstance());
+            } catch (IOException e)
+            {
+                System.err.println("Cannot watch " + file + ": " + e.getMessage());
+            }
+        }
+    }
 
-        window = new MainWindow(controller);
+    /**
+     * Records every tick of the simulation until the application exits.
+     *
+     * @param file The file to record to.
+     */
+    private static void record(File file)
+    {
+        final TrajectoryRecorder recorder;
+        try
+        {
+            recorder = new TrajectoryRecorder(file, Config.RECORD_KEYFRAME_INTERVAL);
+        } catch (IOException e)
+        {
+            System.err.println("Cannot record to " + file + ": " + e.getMessage());
+            return;
+        }
+        AppState.getInstance().setRecorder(recorder);
+
+        //the window exits the application, the index of the recording is written on the way out
+        Runtime.getRuntime().addShutdownHook(new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                AppState.getInstance().setRecorder(null);
+                try
+                {
+                    recorder.close();
+                } catch (IOException e)
+                {
+                    System.err.println("Cannot finish the recording: " + e.getMessage());
+                }
+            }
+        }));
+    }
+
+    /**
+     * Saves a checkpoint of the simulation every {@link Config#CHECKPOINT_INTERVAL_TICKS} ticks until the application
+     * exits.
+     *
+     * @param file The file to save to.
+     */
+    private static void checkpoint(File file)
+    {
+        final Checkpointer checkpointer = new Checkpointer(file, Config.CHECKPOINT_INTERVAL_TICKS);
+        AppState.getInstance().setCheckpointer(checkpointer);
+
+        //a checkpoint being written on the way out is finished, so that the file is not left behind half replaced
+        Runtime.getRuntime().addShutdownHook(new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                AppState.getInstance().setCheckpointer(null);
+                try
+                {
+                    checkpointer.close();
+                } catch (IOException e)
+                {
+                    System.err.println("Cannot write the checkpoint: " + e.getMessage());
+                }
+            }
+        }));
+    }
+
+    /**
+     * Plays a recording back in a window of its own.
+     *
+     * @param file The recording.
+     */
+    private static void replay(File file)
+    {
+        try
+        {
+            new ReplayWindow(new ReplayPlayer(new TrajectoryReplay(file)));
+        } catch (IOException e)
+        {
+            System.err.println("Cannot replay " + file + ": " + e.getMessage());
+            System.exit(1);
+        }
     }
 
     public static MainWindow getWindow()
@@ -1,48 +1,130 @@
 package de.mlux1.swarmsim.logic;
 
+import de.mlux1.swarmsim.logic.event.*;
+import de.mlux1.swarmsim.logic.event.ParametersChangedEvent.Parameter;
+import de.mlux1.swarmsim.logic.index.AdaptiveNeighborIndex;
+import de.mlux1.swarmsim.logic.index.CandidateRanges;
+import de.mlux1.swarmsim.logic.index.NeighborIndex;
+import de.mlux1.swarmsim.logic.jfr.TickEvent;
+import de.mlux1.swarmsim.logic.jfr.TickPhaseEvent;
+import de.mlux1.swarmsim.logic.kernel.NeighbourKernel;
+import de.mlux1.swarmsim.logic.kernel.ScalarNeighbourKernel;
 import de.mlux1.swarmsim.logic.strategy.MovementStrategy;
 import de.mlux1.swarmsim.logic.strategy.SwarmMovementStrategy;
 import de.mlux1.swarmsim.logic.strategy.TargetMovementStrategy;
 import de.mlux1.swarmsim.logic.strategy.escape.EscapeStrategy;
-import de.mlux1.swarmsim.logic.strategy.escape.PotentialFieldEscapeStrategy;
-import de.mlux1.swarmsim.ui.CanvasPanel;
-import de.mlux1.swarmsim.ui.UIController;
 
+import java.io.IOException;
 import java.util.*;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * @author mlux
  *         Date: 02.08.11
  *         <p/>
  *         The logical representation of the application state.
+ *         <p/>
+ *         It does not depend on the user interface: what happens in the simulation is published on an {@link EventBus},
+ *         see {@link #getEvents()}. Subscribers are called on their own executors, so they cannot slow down the ticks.
+ *         <p/>
+ *         The swarm can consist of several species, each with its own parameters, see {@link Species}. How the species
+ *         react to each other is set by {@link #setInteraction(int, int, Interaction)}. The first species always exists,
+ *         the parameter setters of this class apply to it.
+ *         <p/>
+ *         There can be several predators, see {@link #setPredatorCount(int)}. Individuals flee from the nearest one.
  */
-public class AppState extends Observable
+public class AppState
 {
 
     private static final AppState instance; //singleton
 
+    private static final int STEERING_CHUNK_SIZE = 256; //individuals handed to a worker at once
+
     /* variables */
 
-    private final List<Individual> individuals = new ArrayList<Individual>(); //all individuals
+    private final SwarmState swarm = new SwarmState(Config.DEFAULT_NUM_INDIVIDUALS); //all individuals, grouped by species
+    private final List<Species> species = new CopyOnWriteArrayList<Species>(); //only grows, the first is the default species
+    private volatile Interaction[][] interactions = {{Interaction.SCHOOL}}; //how each species reacts to each other, replaced on change
+    private Interaction[][] tickInteractions = interactions; //the interactions of the current tick
+    private int[] appliedSpeeds = new int[0]; //speed each species currently has, only touched by the simulation thread
+    private EscapeStrategy[] escapeStrategies = new EscapeStrategy[0]; //escape strategy of each species in the current tick
 
-    private final ReentrantLock swarmSizeLock = new ReentrantLock(); //lock for resizing the swarm
-    private int currentSpeed = Config.DEFAULT_SPEED; //speed of all individuals
-    private int alignmentPriority = Config.DEFAULT_ALIGNMENT_PRIORITY;
-    private int separationPriority = Config.DEFAULT_SEPARATION_PRIORITY;
-    private int cohesionPriority = Config.DEFAULT_COHESION_PRIORITY;
+    private volatile NeighborIndex selectedNeighborIndex = new AdaptiveNeighborIndex(SwarmInformation.QUERY_RADIUS, Config.FIELD_WIDTH, Config.FIELD_HEIGHT);
+    private NeighborIndex[] neighborIndices = {selectedNeighborIndex}; //the indices of the species rebuilt for the current tick
+    private NeighborIndex indexedSelection = selectedNeighborIndex; //the selected index the current indices were created from
+    private double indexedCellSize = SwarmInformation.QUERY_RADIUS; //the cell size they were created with
+    private volatile NeighbourKernel selectedNeighbourKernel = new ScalarNeighbourKernel();
+    private NeighbourKernel neighbourKernel = selectedNeighbourKernel; //the kernel of the current tick
+    private volatile boolean selectedVectorHeadings = Config.DEFAULT_VECTOR_HEADINGS;
+    private boolean vectorHeadings = selectedVectorHeadings; //steer the heading vectors instead of the angles in the current tick
+
+    private volatile int tickThreads = Config.DEFAULT_TICK_THREADS; //1 updates the swarm on the simulation thread
+    private WorkerPool workerPool; //pool of the parallel ticks, only touched by the simulation thread
 
     private double targetX, targetY; //the current target to move to
     private boolean isManualTargetControl = false; //indicates manual target control
 
-    private Individual predator;
-    private boolean isPredatorActive = false;
-    private boolean isPredatorLethal = false;
-    private long lastPredatorKillTime = 1l;
+    private final SwarmState predators = new SwarmState(Config.MAX_PREDATOR_COUNT); //only changed by the simulation thread
+    private Individual predator; //view on the first predator
+    private volatile int predatorCount = Config.DEFAULT_PREDATOR_COUNT; //requested number of predators
+    private volatile int predatorSpeed = Config.DEFAULT_PREDATOR_SPEED; //requested speed of the predators
+    private int appliedPredatorSpeed = Config.DEFAULT_PREDATOR_SPEED; //speed the predators currently have
+    private double[] previousPredatorX = new double[Config.MAX_PREDATOR_COUNT]; //positions before the current tick
+    private double[] previousPredatorY = new double[Config.MAX_PREDATOR_COUNT];
+    private long[] predatorKillTimes = new long[Config.MAX_PREDATOR_COUNT]; //last kill time of each predator
+    private volatile boolean isPredatorActive = false; //read by the MBean
+    private volatile boolean isPredatorLethal = false;
+    private volatile long lastPredatorKillTime = 1l;
+
+    private volatile RuntimeConfig selectedConfig = RuntimeConfig.DEFAULTS;
+    private volatile RuntimeConfig config = selectedConfig; //the configuration of the current tick, replaced between ticks
+
+    private RandomStreams randomStreams = new RandomStreams(System.nanoTime()); //all random numbers of the run
+    private long tickCount; //number of ticks simulated so far
+    private long killCount; //number of individuals killed so far
+    private long tickDueTime; //System.nanoTime() at which the current tick is due
+    private volatile long droppedTicks; //ticks skipped because the simulation could not catch up
+    private final FrameExchange frames = new FrameExchange(); //hands the frames to the renderer
+    private volatile TrajectoryRecorder recorder; //gets the frame of every tick, null if nothing is recorded
+    private volatile Checkpointer checkpointer; //is offered every tick for a checkpoint, null if none are taken
+    private final EventBus events = new EventBus();
+    private double publishedTargetX = Double.NaN, publishedTargetY = Double.NaN; //target position of the last TargetMovedEvent
+
+    private int[] killedIds = new int[16]; //ids of the individuals killed in the current tick
+    private boolean[] killedSlots = new boolean[16]; //marks the slots of these individuals during the tick
+    private final CandidateRanges killRanges = new CandidateRanges(); //reused by the kill checks of the predators
+    private final AtomicLong tickNeighbours = new AtomicLong(); //neighbour candidates visited in the current tick
+    private volatile long visitedNeighbours; //neighbour candidates visited in the last tick
+    private final LatencyHistogram tickLatencies = new LatencyHistogram(); //time each tick took
+    private final Queue<Runnable> invokedChanges = new ConcurrentLinkedQueue<Runnable>(); //run by the simulation thread before the next tick
+
+    //directions reused by the steering of each thread, so that a tick creates no garbage
+    private static final ThreadLocal<Direction[]> steeringDirections = new ThreadLocal<Direction[]>()
+    {
+        @Override
+        protected Direction[] initialValue()
+        {
+            return new Direction[]{new Direction(), new Direction()};
+        }
+    };
+
+    private final WorkerPool.RangeTask steeringTask = new WorkerPool.RangeTask()
+    {
+        @Override
+        public void run(int from, int to)
+        {
+            randomStreams.begin(tickCount, from / STEERING_CHUNK_SIZE);
+            long visited = SwarmInformation.getVisitedNeighbours();
+            steer(from, to);
+            tickNeighbours.addAndGet(SwarmInformation.getVisitedNeighbours() - visited);
+        }
+    };
 
     private final MovementStrategy targetMovementStrategy = new TargetMovementStrategy();
     private final MovementStrategy swarmMovementStrategy = new SwarmMovementStrategy();
-    private EscapeStrategy escapeStrategy = new PotentialFieldEscapeStrategy(0.5);
 
     /* singleton */
 
@@ -57,6 +139,7 @@ public class AppState extends Observable
      */
     private AppState()
     {
+        species.add(new Species("Swarm"));
     }
 
     /**
@@ -74,105 +157,538 @@ public class AppState extends Observable
      */
     private void init()
     {
+        randomStreams.begin(0, RandomStreams.SETUP);
         setSwarmSize(Config.DEFAULT_NUM_INDIVIDUALS);
+        applyRequestedChanges();
+        randomizeTarget();
+        placePredators();
+    }
 
-        //initialize timer for target movement
-        Timer targetTimer = new Timer();
-        targetTimer.schedule(new TimerTask()
+    /**
+     * Restarts the simulation from the given seed: removes all individuals, so that the next tick places the requested
+     * number anew, and places the predators and the target anew. Runs with the same seed and settings place everything
+     * the same, however many threads run the ticks. Must not be called while the simulation thread runs.
+     *
+     * @param seed The seed of all random numbers of the run.
+     */
+    public void restart(long seed)
+    {
+        randomStreams = new RandomStreams(seed);
+        randomStreams.begin(0, RandomStreams.SETUP);
+        while (swarm.size() > 0)
         {
-            @Override
-            public void run()
+            swarm.remove(swarm.size() - 1);
+        }
+        tickCount = 0;
+        killCount = 0;
+        lastPredatorKillTime = 1l;
+        Arrays.fill(predatorKillTimes, 1l);
+        randomizeTarget();
+        placePredators();
+    }
+
+    /**
+     * Writes the state of the simulation to a checkpoint: the seed and the tick, the species with their parameters and
+     * escape strategies, all individuals and predators and the target. Together with the seed and the tick, this is
+     * all the next tick depends on. How the ticks are computed is not part of it: the neighbour index, the kernel and
+     * the number of threads. A restored simulation that computes them alike continues exactly like this one.
+     * Must be called by the simulation thread, or while it does not run.
+     *
+     * @param out The checkpoint.
+     * @see #readCheckpoint(CheckpointInput)
+     */
+    public void writeCheckpoint(CheckpointOutput out)
+    {
+        out.putLong(randomStreams.getSeed());
+        out.putLong(tickCount);
+        out.putLong(killCount);
+        out.putDouble(targetX);
+        out.putDouble(targetY);
+        out.putBoolean(isManualTargetControl);
+        out.putBoolean(selectedVectorHeadings);
+        out.putBoolean(vectorHeadings);
+
+        //species may share their escape strategy, so every strategy is written once
+        List<Species> currentSpecies = new ArrayList<Species>(species);
+        Map<EscapeStrategy, Integer> strategies = new IdentityHashMap<EscapeStrategy, Integer>();
+        List<EscapeStrategy> strategyList = new ArrayList<EscapeStrategy>();
+        for (Species current : currentSpecies)
+        {
+            if (!strategies.containsKey(current.getEscapeStrategy()))
             {
-                randomizeTarget();
+                strategies.put(current.getEscapeStrategy(), strategyList.size());
+                strategyList.add(current.getEscapeStrategy());
             }
-        }, 0, Config.TARGET_TIME_REPOSITION);
+        }
+        out.putInt(strategyList.size());
+        for (EscapeStrategy strategy : strategyList)
+        {
+            out.putString(strategy.getClass().getName());
+            strategy.writeState(out);
+        }
+
+        out.putInt(currentSpecies.size());
+        for (Species current : currentSpecies)
+        {
+            out.putString(current.getName());
+            out.putInt(current.getSize());
+            out.putInt(current.getSpeed());
+            out.putInt(current.getAlignmentPriority());
+            out.putInt(current.getSeparationPriority());
+            out.putInt(current.getCohesionPriority());
+            out.putDouble(current.getCohesionRadius());
+            out.putDouble(current.getAlignmentRadius());
+            out.putDouble(current.getSeparationDistance());
+            out.putDouble(current.getAvoidDistance());
+            out.putInt(strategies.get(current.getEscapeStrategy()));
+        }
+        out.putInt(appliedSpeeds.length);
+        out.putInts(appliedSpeeds, appliedSpeeds.length);
+        Interaction[][] currentInteractions = interactions;
+        for (int s = 0; s < currentSpecies.size(); s++)
+        {
+            for (int other = 0; other < currentSpecies.size(); other++)
+            {
+                out.putInt(currentInteractions[s][other].ordinal());
+            }
+        }
+        swarm.writeTo(out);
+
+        out.putBoolean(isPredatorActive);
+        out.putBoolean(isPredatorLethal);
+        out.putInt(predatorCount);
+        out.putInt(predatorSpeed);
+        out.putInt(appliedPredatorSpeed);
+        out.putLong(lastPredatorKillTime);
+        predators.writeTo(out);
+        out.putDoubles(previousPredatorX, predators.size());
+        out.putDoubles(previousPredatorY, predators.size());
+        out.putLongs(predatorKillTimes, predators.size());
+    }
+
+    /**
+     * Replaces the state of the simulation by the one of a checkpoint written by
+     * {@link #writeCheckpoint(CheckpointOutput)}. The next tick continues from it. The whole checkpoint is read and
+     * checked before any of it is applied, so a damaged checkpoint leaves the simulation as it was. Must not be called
+     * while the simulation thread runs.
+     *
+     * @param in The checkpoint.
+     * @throws IOException If the checkpoint cannot be read or is damaged.
+     */
+    public void readCheckpoint(CheckpointInput in) throws IOException
+    {
+        long seed = in.getLong();
+        long restoredTickCount = in.getLong();
+        long restoredKillCount = in.getLong();
+        double restoredTargetX = in.getDouble();
+        double restoredTargetY = in.getDouble();
+        boolean restoredManualTargetControl = in.getBoolean();
+        boolean restoredSelectedVectorHeadings = in.getBoolean();
+        boolean restoredVectorHeadings = in.getBoolean();
+
+        EscapeStrategy[] strategies = new EscapeStrategy[in.getCount(Integer.MAX_VALUE)];
+        for (int i = 0; i < strategies.length; i++)
+        {
+            strategies[i] = createEscapeStrategy(in.getString());
+            strategies[i].readState(in);
+        }
+
+        int speciesCount = in.getCount(Integer.MAX_VALUE);
+        if (speciesCount < 1)
+        {
+            throw new IOException("The checkpoint is damaged: no species");
+        }
+        List<Species> restoredSpecies = new ArrayList<Species>(speciesCount);
+        for (int s = 0; s < speciesCount; s++)
+        {
+            Species restored = new Species(in.getString());
+            int size = in.getInt();
+            if (size < 0)
+            {
+                throw new IOException("The checkpoint is damaged: invalid size " + size);
+            }
+            restored.setSize(size);
+            restored.setSpeed(checkSpeed(in.getInt(), Config.MAX_SPEED));
+            restored.setAlignmentPriority(in.getInt());
+            restored.setSeparationPriority(in.getInt());
+            restored.setCohesionPriority(in.getInt());
+            restored.setCohesionRadius(in.getDouble());
+            restored.setAlignmentRadius(in.getDouble());
+            restored.setSeparationDistance(in.getDouble());
+            restored.setAvoidDistance(in.getDouble());
+            restored.setEscapeStrategy(strategies[in.getCount(strategies.length - 1)]);
+            restoredSpecies.add(restored);
+        }
+        int[] restoredSpeeds = new int[in.getCount(speciesCount)];
+        in.getInts(restoredSpeeds, restoredSpeeds.length);
+        Interaction[] values = Interaction.values();
+        Interaction[][] restoredInteractions = new Interaction[speciesCount][speciesCount];
+        for (int s = 0; s < speciesCount; s++)
+        {
+            for (int other = 0; other < speciesCount; other++)
+            {
+                restoredInteractions[s][other] = values[in.getCount(values.length - 1)];
+            }
+        }
+        SwarmState restoredSwarm = new SwarmState(1);
+        restoredSwarm.readFrom(in);
+        if (restoredSwarm.getSpeciesCount() > speciesCount || restoredSpeeds.length != restoredSwarm.getSpeciesCount())
+        {
+            throw new IOException("The checkpoint is damaged: the swarm does not match its species");
+        }
+
+        boolean restoredPredatorActive = in.getBoolean();
+        boolean restoredPredatorLethal = in.getBoolean();
+        int restoredPredatorCount = in.getInt();
+        if (restoredPredatorCount < Config.MIN_PREDATOR_COUNT || restoredPredatorCount > Config.MAX_PREDATOR_COUNT)
+        {
+            throw new IOException("The checkpoint is damaged: invalid number of predators " + restoredPredatorCount);
+        }
+        int restoredPredatorSpeed = checkSpeed(in.getInt(), Config.MAX_PREDATOR_SPEED);
+        int restoredAppliedPredatorSpeed = checkSpeed(in.getInt(), Config.MAX_PREDATOR_SPEED);
+        long restoredLastPredatorKillTime = in.getLong();
+        SwarmState restoredPredators = new SwarmState(Config.MAX_PREDATOR_COUNT);
+        restoredPredators.readFrom(in);
+        if (restoredPredators.size() < 1 || restoredPredators.size() > Config.MAX_PREDATOR_COUNT)
+        {
+            throw new IOException("The checkpoint is damaged: invalid number of predators " + restoredPredators.size());
+        }
+        double[] restoredPreviousPredatorX = new double[Config.MAX_PREDATOR_COUNT];
+        double[] restoredPreviousPredatorY = new double[Config.MAX_PREDATOR_COUNT];
+        long[] restoredPredatorKillTimes = new long[Config.MAX_PREDATOR_COUNT];
+        in.getDoubles(restoredPreviousPredatorX, restoredPredators.size());
+        in.getDoubles(restoredPreviousPredatorY, restoredPredators.size());
+        in.getLongs(restoredPredatorKillTimes, restoredPredators.size());
+
+        //everything is read, nothing can fail any more
+        swarm.replaceBy(restoredSwarm);
+        isPredatorActive = restoredPredatorActive;
+        isPredatorLethal = restoredPredatorLethal;
+        predatorCount = restoredPredatorCount;
+        predatorSpeed = restoredPredatorSpeed;
+        appliedPredatorSpeed = restoredAppliedPredatorSpeed;
+        lastPredatorKillTime = restoredLastPredatorKillTime;
+        predators.replaceBy(restoredPredators);
+        previousPredatorX = restoredPreviousPredatorX;
+        previousPredatorY = restoredPreviousPredatorY;
+        predatorKillTimes = restoredPredatorKillTimes;
+        predator = new Individual(predators, predators.getId(0));
+
+        randomStreams = new RandomStreams(seed);
+        tickCount = restoredTickCount;
+        killCount = restoredKillCount;
+        targetX = restoredTargetX;
+        targetY = restoredTargetY;
+        isManualTargetControl = restoredManualTargetControl;
+        selectedVectorHeadings = restoredSelectedVectorHeadings;
+        vectorHeadings = restoredVectorHeadings;
+        appliedSpeeds = restoredSpeeds;
+        synchronized (this)
+        {
+            interactions = restoredInteractions;
+            tickInteractions = restoredInteractions;
+            species.clear();
+            species.addAll(restoredSpecies);
+        }
+        publishedTargetX = Double.NaN;
+        publishedTargetY = Double.NaN;
+    }
+
+    /**
+     * Checks a speed read from a checkpoint. Larger speeds than the sliders offer would outgrow the margin of the
+     * neighbour queries, see {@link Species#getQueryRadius(boolean)}.
+     *
+     * @param speed The speed.
+     * @param max   The largest valid speed.
+     * @return The speed.
+     * @throws IOException If the speed is out of range.
+     */
+    private static int checkSpeed(int speed, int max) throws IOException
+    {
+        if (speed < Config.MIN_SPEED || speed > max)
+        {
+            throw new IOException("The checkpoint is damaged: invalid speed " + speed);
+        }
+        return speed;
+    }
+
+    /**
+     * Creates an escape strategy of a checkpoint by its no-argument constructor.
+     *
+     * @param className The name of its class.
+     * @return The strategy.
+     * @throws IOException If the class is no escape strategy that can be created.
+     */
+    private static EscapeStrategy createEscapeStrategy(String className) throws IOException
+    {
+        try
+        {
+            return Class.forName(className).asSubclass(EscapeStrategy.class).getConstructor().newInstance();
+        } catch (Exception e)
+        {
+            throw new IOException("The escape strategy " + className + " of the checkpoint cannot be created", e);
+        }
+    }
+
+    /**
+     * Replaces all predators by the requested number at random positions.
+     */
+    private void placePredators()
+    {
+        while (predators.size() > 0)
+        {
+            predators.remove(predators.size() - 1);
+        }
+        applyPredatorChanges();
+        predator = new Individual(predators, predators.getId(0));
+    }
 
-        //initialize predator
-        predator = Individual.createRandomIndividual();
-        predator.setSpeed(Config.DEFAULT_PREDATOR_SPEED);
+    /**
+     * Adds or removes predators until there are as many as requested, and applies the requested speed. New predators
+     * are placed at random positions, the last ones are removed first. Only called by the simulation thread between
+     * ticks.
+     */
+    private void applyPredatorChanges()
+    {
+        int count = predatorCount;
+        int speed = predatorSpeed;
+        while (predators.size() < count)
+        {
+            RandomStreams.Stream random = RandomStreams.current();
+            double x = random.nextDouble() * Config.FIELD_WIDTH;
+            double y = random.nextDouble() * Config.FIELD_HEIGHT;
+            double angle = random.nextDouble() * 2 * Math.PI;
+            predators.add(x, y, angle, speed);
+        }
+        while (predators.size() > count)
+        {
+            predators.remove(predators.size() - 1);
+        }
+        if (speed != appliedPredatorSpeed)
+        {
+            appliedPredatorSpeed = speed;
+            predators.setSpeed(speed);
+        }
+        if (previousPredatorX.length < count)
+        {
+            previousPredatorX = Arrays.copyOf(previousPredatorX, count);
+            previousPredatorY = Arrays.copyOf(previousPredatorY, count);
+            predatorKillTimes = Arrays.copyOf(predatorKillTimes, count);
+        }
     }
 
     /**
-     * Increases or decreases the swarm size to size.
-     * We need to lock the swarm size here to prevent iterations over a mutable list.
+     * Increases or decreases the size of the default species to size.
+     * The swarm is only changed by the simulation thread, so the new size is applied at the start of the next tick.
      * New individuals will be placed at a random position.
      *
      * @param size The new size.
      */
     public void setSwarmSize(int size)
     {
-        swarmSizeLock.lock();
-        while (individuals.size() < size)
+        getDefaultSpecies().setSize(size);
+        parameterChanged(Parameter.SWARM_SIZE, size);
+    }
+
+    /**
+     * Applies the added species and the requested sizes and speeds to the swarm. Only called by the simulation thread
+     * between ticks.
+     */
+    private void applyRequestedChanges()
+    {
+        while (swarm.getSpeciesCount() < species.size())
+        {
+            swarm.addSpecies();
+        }
+        if (appliedSpeeds.length < swarm.getSpeciesCount())
+        {
+            appliedSpeeds = Arrays.copyOf(appliedSpeeds, swarm.getSpeciesCount());
+        }
+
+        for (int s = 0; s < swarm.getSpeciesCount(); s++)
         {
-            Individual individual = Individual.createRandomIndividual();
-            individual.setSpeed(currentSpeed);
-            individuals.add(individual);
+            Species parameters = species.get(s);
+            int size = parameters.getSize();
+            int speed = parameters.getSpeed();
+            while (swarm.getSpeciesEnd(s) - swarm.getSpeciesStart(s) < size)
+            {
+                RandomStreams.Stream random = RandomStreams.current();
+                double x = random.nextDouble() * Config.FIELD_WIDTH;
+                double y = random.nextDouble() * Config.FIELD_HEIGHT;
+                double angle = random.nextDouble() * 2 * Math.PI;
+                swarm.add(s, x, y, angle, speed);
+            }
+            while (swarm.getSpeciesEnd(s) - swarm.getSpeciesStart(s) > size)
+            {
+                swarm.remove(swarm.getSpeciesEnd(s) - 1);
+            }
+
+            if (speed != appliedSpeeds[s])
+            {
+                appliedSpeeds[s] = speed;
+                swarm.setSpeed(s, speed);
+            }
         }
-        while (individuals.size() > size)
+    }
+
+    /**
+     * Adds a species to the swarm. Its individuals are placed at the start of the next tick. It schools with itself,
+     * and it and the other species react to each other by {@link Config#DEFAULT_INTERACTION} until set otherwise.
+     * Its radii and distances are set to the ones of the configuration.
+     *
+     * @param newSpecies The species.
+     * @return The number of the species.
+     */
+    public synchronized int addSpecies(Species newSpecies)
+    {
+        RuntimeConfig current = selectedConfig;
+        newSpecies.setCohesionRadius(current.getCohesionRadius());
+        newSpecies.setAlignmentRadius(current.getAlignmentRadius());
+        newSpecies.setSeparationDistance(current.getSeparationDistance());
+        newSpecies.setAvoidDistance(current.getAvoidDistance());
+
+        int count = species.size() + 1;
+        Interaction[][] grown = new Interaction[count][];
+        for (int s = 0; s < count; s++)
         {
-            individuals.remove(individuals.get(0));
+            grown[s] = new Interaction[count];
+            for (int other = 0; other < count; other++)
+            {
+                if (s < count - 1 && other < count - 1)
+                {
+                    grown[s][other] = interactions[s][other];
+                } else
+                {
+                    grown[s][other] = s == other ? Interaction.SCHOOL : Config.DEFAULT_INTERACTION;
+                }
+            }
         }
-        swarmSizeLock.unlock();
+        //publish the interactions first, so that they cover every species the simulation sees
+        interactions = grown;
+        species.add(newSpecies);
+        return count - 1;
+    }
+
+    /**
+     * Returns a species.
+     *
+     * @param number The number of the species, 0 for the default species.
+     * @return The species.
+     */
+    public Species getSpecies(int number)
+    {
+        return species.get(number);
+    }
+
+    /**
+     * Returns the number of species, including the ones added since the last tick.
+     *
+     * @return The number of species.
+     */
+    public int getSpeciesCount()
+    {
+        return species.size();
+    }
+
+    /**
+     * Returns the species that always exists and is controlled by the parameter setters of this class.
+     *
+     * @return The default species.
+     */
+    public Species getDefaultSpecies()
+    {
+        return species.get(0);
+    }
+
+    /**
+     * Sets how the individuals of one species react to those of another. Need not be symmetric. It is used from the
+     * next tick on.
+     *
+     * @param number      The number of the reacting species.
+     * @param other       The number of the species it reacts to, may be the same.
+     * @param interaction The interaction.
+     */
+    public synchronized void setInteraction(int number, int other, Interaction interaction)
+    {
+        Interaction[][] changed = interactions.clone();
+        changed[number] = changed[number].clone();
+        changed[number][other] = interaction;
+        interactions = changed;
+    }
+
+    /**
+     * Returns how the individuals of one species react to those of another in the current tick.
+     *
+     * @param number The number of the reacting species.
+     * @param other  The number of the species it reacts to.
+     * @return The interaction.
+     */
+    public Interaction getInteraction(int number, int other)
+    {
+        return tickInteractions[number][other];
     }
 
     /**
-     * Sets the cohesion priority for the swarm.
+     * Sets the alignment priority of the default species.
      *
      * @param alignmentPriority The new priority value.
      */
     public void setAlignmentPriority(int alignmentPriority)
     {
-        this.alignmentPriority = alignmentPriority;
+        getDefaultSpecies().setAlignmentPriority(alignmentPriority);
+        parameterChanged(Parameter.ALIGNMENT_PRIORITY, alignmentPriority);
     }
 
     /**
-     * Sets the cohesion priority for the swarm.
+     * Sets the separation priority of the default species.
      *
      * @param separationPriority The new priority value.
      */
     public void setSeparationPriority(int separationPriority)
     {
-        this.separationPriority = separationPriority;
+        getDefaultSpecies().setSeparationPriority(separationPriority);
+        parameterChanged(Parameter.SEPARATION_PRIORITY, separationPriority);
     }
 
     /**
-     * Sets the cohesion priority for the swarm.
+     * Sets the cohesion priority of the default species.
      *
      * @param cohesionPriority The new priority value.
      */
     public void setCohesionPriority(int cohesionPriority)
     {
-        this.cohesionPriority = cohesionPriority;
+        getDefaultSpecies().setCohesionPriority(cohesionPriority);
+        parameterChanged(Parameter.COHESION_PRIORITY, cohesionPriority);
     }
 
     /**
-     * Returns the current alignment priority.
+     * Returns the current alignment priority of the default species.
      *
      * @return The current alignment priority.
      */
     public int getAlignmentPriority()
     {
-        return alignmentPriority;
+        return getDefaultSpecies().getAlignmentPriority();
     }
 
     /**
-     * Returns the current separation priority.
+     * Returns the current separation priority of the default species.
      *
      * @return The current separation priority.
      */
     public int getSeparationPriority()
     {
-        return separationPriority;
+        return getDefaultSpecies().getSeparationPriority();
     }
 
     /**
-     * Returns the current cohesion priority.
+     * Returns the current cohesion priority of the default species.
      *
      * @return The current cohesion priority.
      */
     public int getCohesionPriority()
     {
-        return cohesionPriority;
+        return getDefaultSpecies().getCohesionPriority();
     }
 
     /**
@@ -233,6 +749,7 @@ public class AppState extends Observable
     public void setManualTargetControl(boolean manualTargetControl)
     {
         isManualTargetControl = manualTargetControl;
+        parameterChanged(Parameter.MANUAL_TARGET_CONTROL, manualTargetControl);
     }
 
     /**
@@ -243,196 +760,936 @@ public class AppState extends Observable
     public void setPredatorLethal(boolean predatorLethal)
     {
         isPredatorLethal = predatorLethal;
+        parameterChanged(Parameter.PREDATOR_LETHAL, predatorLethal);
+    }
+
+    /**
+     * Returns true if the predators kill the individuals they catch.
+     *
+     * @return True, if the predators are lethal.
+     */
+    public boolean isPredatorLethal()
+    {
+        return isPredatorLethal;
+    }
+
+    /**
+     * Returns the requested size of the default species. It is its size from the start of the next tick on.
+     *
+     * @return The swarm size.
+     */
+    public int getSwarmSize()
+    {
+        return getDefaultSpecies().getSize();
     }
 
     /**
-     * Sets the current speed of all individuals.
+     * Sets the current speed of the individuals of the default species. It is applied at the start of the next tick.
      *
      * @param speed The new speed.
      */
     public void setSpeed(int speed)
     {
-        for (Individual individual : individuals)
-        {
-            currentSpeed = speed;
-            individual.setSpeed(currentSpeed);
-        }
+        getDefaultSpecies().setSpeed(speed);
+        parameterChanged(Parameter.SPEED, speed);
     }
 
     /**
-     * Returns all individuals of the swarm.
+     * Returns the requested speed of the individuals of the default species.
      *
-     * @return All individuals of the swarm.
+     * @return The speed.
      */
-    public List<Individual> getIndividuals()
+    public int getSpeed()
     {
-        return individuals;
+        return getDefaultSpecies().getSpeed();
     }
 
     /**
-     * Positions the target on a randomized point on the field.
+     * Returns the swarm. It is changed by the simulation thread at any time, other threads should read the frames.
+     *
+     * @return The column store of all individuals.
+     * @see #getFrames()
      */
-    private void randomizeTarget()
+    public SwarmState getSwarm()
     {
-        if (!isManualTargetControl)
+        return swarm;
+    }
+
+    /**
+     * Returns views on all individuals of the swarm. Kept for compatibility, use {@link #getSwarm()} for loops.
+     * Like the swarm itself, the views are only safe to use from the simulation thread.
+     *
+     * @return All individuals of the swarm.
+     */
+    public List<Individual> getIndividuals()
+    {
+        List<Individual> individuals = new ArrayList<Individual>(swarm.size());
+        for (int slot = 0; slot < swarm.size(); slot++)
         {
-            targetX = CanvasPanel.WIDTH * 0.1 + Math.random() * CanvasPanel.WIDTH * 0.8;
-            targetY = CanvasPanel.HEIGHT * 0.1 + Math.random() * CanvasPanel.HEIGHT * 0.8;
+            individuals.add(new Individual(swarm, swarm.getId(slot)));
         }
+        return individuals;
     }
 
     /**
-     * Returns true if the predator is active.
+     * Returns the exchange that hands the frame of every tick to the renderer.
+     * Only one thread may read from it.
      *
-     * @return True, if the predator is active.
+     * @return The frame exchange.
      */
-    public boolean isPredatorActive()
+    public FrameExchange getFrames()
     {
-        return isPredatorActive;
+        return frames;
     }
 
     /**
-     * Sets the predator to active.
+     * Attaches a recorder that gets the frame of every tick from the next tick on, or detaches it.
      *
-     * @param active True if the predator should be active.
+     * @param recorder The recorder, or null to stop recording. A detached recorder is not closed.
      */
-    public void setPredatorActive(boolean active)
+    public void setRecorder(TrajectoryRecorder recorder)
     {
-        isPredatorActive = active;
+        this.recorder = recorder;
     }
 
     /**
-     * Returns the predator if active.
+     * Attaches a checkpointer that is offered the end of every tick, or detaches it.
      *
-     * @return The predator if active.
+     * @param checkpointer The checkpointer, or null to take no more checkpoints. A detached checkpointer is not closed.
      */
-    public Individual getPredator()
+    public void setCheckpointer(Checkpointer checkpointer)
     {
-        return predator;
+        this.checkpointer = checkpointer;
     }
 
     /**
-     * Returns the last kill time of the predator.
+     * Sets the number of threads that update the swarm. With one thread, the simulation thread updates all individuals,
+     * with more threads the swarm is split between them. The tick is double buffered either way: all individuals see
+     * the neighbours as they were at the end of the last tick, so a seed gives the same run for any number of threads.
+     * The change takes effect at the next tick.
      *
-     * @return The last kill time of the predator.
+     * @param threads The number of threads.
      */
-    public long getLastPredatorKillTime()
+    public void setTickThreads(int threads)
     {
-        return lastPredatorKillTime;
+        tickThreads = Math.max(threads, 1);
+        parameterChanged(Parameter.TICK_THREADS, tickThreads);
     }
 
     /**
-     * Sets the escape strategy.
+     * Returns the bus the events of the simulation are published on.
      *
-     * @param escapeStrategy The new strategy.
+     * @return The event bus.
      */
-    public void setEscapeStrategy(EscapeStrategy escapeStrategy)
+    public EventBus getEvents()
     {
-        this.escapeStrategy = escapeStrategy;
+        return events;
     }
 
     /**
-     * Start the simulation by starting the application thread.
+     * Publishes that a parameter was set, if anybody listens.
+     *
+     * @param parameter The parameter.
+     * @param value     The new value.
      */
-    public void simulate()
+    private void parameterChanged(Parameter parameter, Object value)
     {
-        Thread runner = new Thread(new Runnable()
+        if (events.hasSubscribers(ParametersChangedEvent.class))
         {
-            @Override
-            public void run()
-            {
-                List<Individual> killedIndividuals = new ArrayList<Individual>();
+            events.publish(new ParametersChangedEvent(tickCount, parameter, value));
+        }
+    }
 
-                while (true)
-                {
-                    //move the predator
-                    if (isPredatorActive)
-                    {
-                        double dx = targetX - predator.getX();
-                        double dy = targetY - predator.getY();
-                        double angle = Math.atan2(dy, dx);
+    /**
+     * Returns the number of threads that update the swarm.
+     *
+     * @return The number of threads.
+     */
+    public int getTickThreads()
+    {
+        return tickThreads;
+    }
 
-                        //if predator is at an edge, head to target
-                        if ((predator.getX() + CanvasPanel.PREDATOR_SIZE >= CanvasPanel.WIDTH || predator.getX() <= 0) ||
-                                (predator.getY() + CanvasPanel.PREDATOR_SIZE >= CanvasPanel.HEIGHT || predator.getY() <= 0))
-                        {
-                            predator.setAngle(angle);
-                        }
+    /**
+     * Returns the index of the default species for neighbour queries. It is rebuilt once per tick.
+     *
+     * @return The neighbour index of the current tick.
+     */
+    public NeighborIndex getNeighborIndex()
+    {
+        return neighborIndices[0];
+    }
 
-                        predator.update();
-                    }
+    /**
+     * Returns the index over the individuals of a species for neighbour queries. It is rebuilt once per tick.
+     *
+     * @param number The number of the species.
+     * @return The neighbour index of the species in the current tick.
+     */
+    public NeighborIndex getNeighborIndex(int number)
+    {
+        return neighborIndices[number];
+    }
 
-                    //use the swarm size lock to pause iterating when the swarm is currently been resized
-                    swarmSizeLock.lock();
+    /**
+     * Sets the neighbour index. It is used from the next tick on, every further species gets one of the same kind.
+     *
+     * @param neighborIndex The new index.
+     */
+    public void setNeighborIndex(NeighborIndex neighborIndex)
+    {
+        selectedNeighborIndex = neighborIndex;
+        parameterChanged(Parameter.NEIGHBOR_INDEX, neighborIndex);
+    }
 
-                    //for each swarm individual compute the new angle to steer to
-                    for (Individual individual : individuals)
-                    {
-                        /* check for predator collision */
-                        if (isPredatorActive && isPredatorLethal)
-                        {
-                            boolean collidesPredator = Math.pow(individual.getX() - predator.getX(), 2) + Math.pow(individual.getY() - predator.getY(), 2) < Math.pow(Config.PREDATOR_KILL_RADIUS, 2);
-                            if (collidesPredator)
-                            {
-                                //we can't just remove the individuals since are currently iterating over the list.
-                                killedIndividuals.add(individual);
-                                lastPredatorKillTime = System.currentTimeMillis();
-                                continue;
-                            }
-                        }
+    /**
+     * Returns the kernel that visits the neighbour candidates in the current tick.
+     *
+     * @return The neighbour kernel of the current tick.
+     */
+    public NeighbourKernel getNeighbourKernel()
+    {
+        return neighbourKernel;
+    }
 
-                        Direction dir;
-                        dir = targetMovementStrategy.calculateSteeringAngle(individual);
-                        dir = dir.add(swarmMovementStrategy.calculateSteeringAngle(individual));
+    /**
+     * Sets the neighbour kernel. It is used from the next tick on.
+     *
+     * @param neighbourKernel The new kernel.
+     * @see NeighbourKernel#createAvailableKernels()
+     */
+    public void setNeighbourKernel(NeighbourKernel neighbourKernel)
+    {
+        selectedNeighbourKernel = neighbourKernel;
+        parameterChanged(Parameter.NEIGHBOUR_KERNEL, neighbourKernel);
+    }
 
-                        Direction escapeDir = escapeStrategy.calculateSteeringAngle(individual);
-                        if (escapeDir != null)
-                        {
-                            dir = escapeStrategy.isRelative() ? dir.add(escapeDir) : escapeDir;
-                        }
+    /**
+     * Returns true if the individuals steer their heading vectors, see {@link SwarmState#turn(int, double, double, double)}.
+     * Otherwise they steer their heading angles, which needs trigonometric functions for every individual.
+     *
+     * @return True if the heading vectors are steered.
+     */
+    public boolean isVectorHeadings()
+    {
+        return selectedVectorHeadings;
+    }
+
+    /**
+     * Sets whether the individuals steer their heading vectors or angles. It is used from the next tick on.
+     *
+     * @param vectorHeadings True to steer the heading vectors.
+     */
+    public void setVectorHeadings(boolean vectorHeadings)
+    {
+        selectedVectorHeadings = vectorHeadings;
+        parameterChanged(Parameter.VECTOR_HEADINGS, vectorHeadings);
+    }
+
+    /**
+     * Positions the target on a randomized point on the field.
+     */
+    private void randomizeTarget()
+    {
+        if (!isManualTargetControl)
+        {
+            RandomStreams.Stream random = RandomStreams.current();
+            targetX = Config.FIELD_WIDTH * 0.1 + random.nextDouble() * Config.FIELD_WIDTH * 0.8;
+            targetY = Config.FIELD_HEIGHT * 0.1 + random.nextDouble() * Config.FIELD_HEIGHT * 0.8;
+        }
+    }
+
+    /**
+     * Returns true if the predator is active.
+     *
+     * @return True, if the predator is active.
+     */
+    public boolean isPredatorActive()
+    {
+        return isPredatorActive;
+    }
+
+    /**
+     * Sets the predator to active.
+     *
+     * @param active True if the predator should be active.
+     */
+    public void setPredatorActive(boolean active)
+    {
+        isPredatorActive = active;
+        parameterChanged(Parameter.PREDATOR_ACTIVE, active);
+    }
+
+    /**
+     * Returns the first predator. Kept for compatibility, there may be more, see {@link #getPredators()}.
+     *
+     * @return The first predator.
+     */
+    public Individual getPredator()
+    {
+        return predator;
+    }
+
+    /**
+     * Returns the predators. They are changed by the simulation thread at any time, other threads should read the
+     * frames.
+     *
+     * @return The column store of all predators.
+     */
+    public SwarmState getPredators()
+    {
+        return predators;
+    }
+
+    /**
+     * Sets the number of predators. It is applied at the start of the next tick, new predators are placed at random
+     * positions.
+     *
+     * @param count The number of predators, limited to [{@link Config#MIN_PREDATOR_COUNT}, {@link Config#MAX_PREDATOR_COUNT}].
+     */
+    public void setPredatorCount(int count)
+    {
+        predatorCount = Math.max(Config.MIN_PREDATOR_COUNT, Math.min(count, Config.MAX_PREDATOR_COUNT));
+        parameterChanged(Parameter.PREDATOR_COUNT, predatorCount);
+    }
+
+    /**
+     * Returns the requested number of predators. It is their number from the start of the next tick on.
+     *
+     * @return The number of predators.
+     */
+    public int getPredatorCount()
+    {
+        return predatorCount;
+    }
+
+    /**
+     * Sets the speed of all predators. It is applied at the start of the next tick.
+     *
+     * @param speed The new speed.
+     */
+    public void setPredatorSpeed(int speed)
+    {
+        predatorSpeed = speed;
+        parameterChanged(Parameter.PREDATOR_SPEED, speed);
+    }
+
+    /**
+     * Returns the requested speed of the predators. It is their speed from the start of the next tick on.
+     *
+     * @return The speed of the predators.
+     */
+    public int getPredatorSpeed()
+    {
+        return predatorSpeed;
+    }
+
+    /**
+     * Returns true if the predators are active and one of them is in range of the given position.
+     *
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     * @return True if a predator is in range, otherwise false.
+     */
+    public boolean isPredatorInRange(double x, double y)
+    {
+        return getNearestPredator(x, y) >= 0;
+    }
+
+    /**
+     * Returns the nearest predator in range of the given position, the one an individual there flees from.
+     *
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     * @return The slot of the predator in {@link #getPredators()}, or -1 if the predators are inactive or none is in range.
+     */
+    public int getNearestPredator(double x, double y)
+    {
+        if (!isPredatorActive)
+            return -1;
+
+        double[] predatorXs = predators.getX();
+        double[] predatorYs = predators.getY();
+        int nearest = -1;
+        double maxDistance = config.getMaxPredatorDistance();
+        double nearestDistanceSq = maxDistance * maxDistance;
+        for (int p = 0; p < predators.size(); p++)
+        {
+            double dx = predatorXs[p] - x;
+            double dy = predatorYs[p] - y;
+            double distanceSq = dx * dx + dy * dy;
+            if (distanceSq <= nearestDistanceSq)
+            {
+                nearest = p;
+                nearestDistanceSq = distanceSq;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Returns the last time any predator killed.
+     *
+     * @return The last kill time of the predators.
+     */
+    public long getLastPredatorKillTime()
+    {
+        return lastPredatorKillTime;
+    }
+
+    /**
+     * Sets the escape strategy of the default species.
+     *
+     * @param escapeStrategy The new strategy.
+     */
+    public void setEscapeStrategy(EscapeStrategy escapeStrategy)
+    {
+        getDefaultSpecies().setEscapeStrategy(escapeStrategy);
+        parameterChanged(Parameter.ESCAPE_STRATEGY, escapeStrategy);
+    }
+
+    /**
+     * Returns the escape strategy of the default species.
+     *
+     * @return The strategy.
+     */
+    public EscapeStrategy getEscapeStrategy()
+    {
+        return getDefaultSpecies().getEscapeStrategy();
+    }
+
+    /**
+     * Lets the simulation thread run a change before its next tick, e.g. to set several parameters of another thread
+     * without a tick seeing only some of them. The setters may be called from any thread, but the priorities, the
+     * escape strategy and the predator flags are read during the tick, so a tick that runs meanwhile would use the old
+     * value for some individuals and the new one for the rest. Changes run in the order they were invoked.
+     *
+     * @param change The change, calls the setters of this class.
+     */
+    public void invokeBetweenTicks(Runnable change)
+    {
+        invokedChanges.add(change);
+    }
+
+    /**
+     * Runs the changes invoked by other threads. Only called by the simulation thread between ticks.
+     */
+    private void runInvokedChanges()
+    {
+        Runnable change;
+        while ((change = invokedChanges.poll()) != null)
+        {
+            change.run();
+        }
+    }
+
+    /**
+     * Returns the seed all random numbers of the run are derived from.
+     *
+     * @return The seed.
+     * @see #restart(long)
+     */
+    public long getSeed()
+    {
+        return randomStreams.getSeed();
+    }
+
+    /**
+     * Returns the number of ticks simulated so far.
+     *
+     * @return The number of ticks.
+     */
+    public long getTickCount()
+    {
+        return tickCount;
+    }
 
-                        //calculate resulting relative angle
-                        double targetAngle = Math.atan2(dir.getDy(), dir.getDx()); //angle between current direction and target direction
-                        //since we steer slowly, we need to make adjustments to the angle to prevent pending behaviour
-                        //I got this from http://sycora.com/demos/flock/
-                        double cw = (targetAngle - individual.getAngle() + Math.PI * 4) % (Math.PI * 2);
-                        double acw = (individual.getAngle() - targetAngle + Math.PI * 4) % (Math.PI * 2);
-                        double rotation = Math.abs(cw) < Math.abs(acw) ? cw : -acw;
-                        //steer to target and don't directly head to it
-                        rotation *= Config.STEERING_DAMPER;
-
-                        //finally rotate the individual
-                        individual.rotateBy(rotation);
-                        individual.update();
+    /**
+     * Returns the number of individuals killed by the predators so far.
+     *
+     * @return The number of killed individuals.
+     */
+    public long getKillCount()
+    {
+        return killCount;
+    }
+
+    /**
+     * Returns the number of ticks that were skipped because the simulation fell too far behind its tick rate.
+     *
+     * @return The number of dropped ticks.
+     */
+    public long getDroppedTicks()
+    {
+        return droppedTicks;
+    }
+
+    /**
+     * Returns the number of neighbour candidates the steering looked at in the last tick. The candidates are the
+     * individuals the neighbour indices return around each individual, so this is the work of the neighbour search.
+     *
+     * @return The number of visited neighbours.
+     */
+    public long getVisitedNeighbours()
+    {
+        return visitedNeighbours;
+    }
+
+    /**
+     * Returns the histogram of the time the ticks took, recorded by the simulation thread.
+     *
+     * @return The tick latencies.
+     */
+    public LatencyHistogram getTickLatencies()
+    {
+        return tickLatencies;
+    }
+
+    /**
+     * Returns the configuration of the current tick.
+     *
+     * @return The configuration.
+     */
+    public RuntimeConfig getConfig()
+    {
+        return config;
+    }
+
+    /**
+     * Replaces the configuration. It is applied as a whole at the start of the next tick: the radii and distances that
+     * differ from the ones of the current configuration are set for every species, the others keep theirs.
+     *
+     * @param config The new configuration.
+     */
+    public void setConfig(RuntimeConfig config)
+    {
+        selectedConfig = config;
+    }
+
+    /**
+     * Returns the configuration set last. It is the configuration from the start of the next tick on.
+     *
+     * @return The configuration.
+     */
+    public RuntimeConfig getRequestedConfig()
+    {
+        return selectedConfig;
+    }
+
+    /**
+     * Applies the selected configuration, if it was replaced. Only called by the simulation thread between ticks.
+     */
+    private void applyConfig()
+    {
+        RuntimeConfig selected = selectedConfig;
+        RuntimeConfig previous = config;
+        if (selected == previous)
+            return;
+
+        for (Species parameters : species)
+        {
+            if (selected.getCohesionRadius() != previous.getCohesionRadius())
+                parameters.setCohesionRadius(selected.getCohesionRadius());
+            if (selected.getAlignmentRadius() != previous.getAlignmentRadius())
+                parameters.setAlignmentRadius(selected.getAlignmentRadius());
+            if (selected.getSeparationDistance() != previous.getSeparationDistance())
+                parameters.setSeparationDistance(selected.getSeparationDistance());
+            if (selected.getAvoidDistance() != previous.getAvoidDistance())
+                parameters.setAvoidDistance(selected.getAvoidDistance());
+        }
+        config = selected;
+    }
+
+    /**
+     * Start the simulation by starting the application thread.
+     * The thread runs the ticks at a fixed rate: every tick has a deadline, and the thread parks until the next one is
+     * due, so the time a tick takes does not slow down the simulation. When ticks take too long, the thread catches up
+     * by running up to {@link RuntimeConfig#getMaxCatchUpTicks()} ticks back to back and drops the remaining delay.
+     * The tick rate is the one of the configuration of the last tick, so a new rate takes effect at once.
+     */
+    public void simulate()
+    {
+        Thread runner = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                long next = System.nanoTime();
+                while (true)
+                {
+                    int ticks = 0;
+                    while (System.nanoTime() - next >= 0 && ticks < config.getMaxCatchUpTicks())
+                    {
+                        tickDueTime = next;
+                        tick();
+                        next += config.getTickDuration();
+                        ticks++;
+                    }
+
+                    long behind = System.nanoTime() - next;
+                    if (behind >= 0)
+                    {
+                        //too slow to catch up, continue from now instead of running an ever growing backlog
+                        long tickDuration = config.getTickDuration();
+                        long dropped = behind / tickDuration + 1;
+                        droppedTicks += dropped;
+                        next += dropped * tickDuration;
                     }
 
-                    //check for killed individuals and remove them if necessary
-                    individuals.removeAll(killedIndividuals);
-                    if (killedIndividuals.size() > 0)
+                    //parkNanos may return early, so check the deadline again
+                    TickPhaseEvent sleep = TickPhaseEvent.start(TickPhaseEvent.SLEEP, tickCount);
+                    long wait;
+                    while ((wait = next - System.nanoTime()) > 0)
                     {
-                        UIController.getInstance().notifyIndividualsGotKilled();
+                        LockSupport.parkNanos(wait);
                     }
-                    killedIndividuals.clear();
+                    TickPhaseEvent.finish(sleep, 0);
+                }
+
+            }
+        }, "simulation");
+        runner.start();
+    }
+
+    /**
+     * Advances the simulation by one tick: moves the predators, steers and moves all individuals and removes the
+     * ones killed by the predators. Called by the simulation thread, or directly by a runner that does not start it.
+     * The tick and each of its phases are timed by flight recorder events, see {@link TickEvent}.
+     */
+    public void tick()
+    {
+        long tickStart = System.nanoTime();
+        runInvokedChanges();
+        applyConfig();
+        int threads = tickThreads;
+        if (threads > 1 && (workerPool == null || workerPool.getThreads() != threads))
+        {
+            if (workerPool != null)
+            {
+                workerPool.shutdown();
+            }
+            workerPool = new WorkerPool(threads, "swarm-worker");
+        } else if (threads == 1 && workerPool != null)
+        {
+            workerPool.shutdown();
+            workerPool = null;
+        }
 
-                    swarmSizeLock.unlock();
+        TickEvent tickEvent = TickEvent.start(tickCount, swarm.size(), predators.size(), threads);
+        TickPhaseEvent predatorPhase = TickPhaseEvent.start(TickPhaseEvent.PREDATORS, tickCount);
 
-                    //repaint
-                    setChanged();
-                    notifyObservers();
+        //everything placed between the ticks draws from the stream of the simulation thread
+        randomStreams.begin(tickCount, RandomStreams.SIMULATION);
 
-                    try
-                    {
-                        Thread.sleep(1000 / Config.FRAME_RATE);
-                    } catch (InterruptedException e)
+        //the target moves on after a fixed number of ticks, so runs do not depend on the wall clock
+        if (tickCount % config.getTargetRepositionTicks() == 0)
+        {
+            randomizeTarget();
+        }
+
+        //move the predators
+        applyPredatorChanges();
+        double[] predatorXs = predators.getX();
+        double[] predatorYs = predators.getY();
+        for (int p = 0; p < predators.size(); p++)
+        {
+            previousPredatorX[p] = predatorXs[p];
+            previousPredatorY[p] = predatorYs[p];
+            if (isPredatorActive)
+            {
+                double dx = targetX - predatorXs[p];
+                double dy = targetY - predatorYs[p];
+                double angle = Math.atan2(dy, dx);
+
+                //if predator is at an edge, head to target
+                if ((predatorXs[p] + Config.PREDATOR_SIZE >= Config.FIELD_WIDTH || predatorXs[p] <= 0) ||
+                        (predatorYs[p] + Config.PREDATOR_SIZE >= Config.FIELD_HEIGHT || predatorYs[p] <= 0))
+                {
+                    predators.getAngle()[p] = angle;
+                }
+
+                predators.update(p);
+            }
+        }
+        TickPhaseEvent.finish(predatorPhase, predators.size());
+
+        //resize the swarm between ticks, so nothing else has to lock it
+        TickPhaseEvent resizePhase = TickPhaseEvent.start(TickPhaseEvent.RESIZE, tickCount);
+        applyRequestedChanges();
+        TickPhaseEvent.finish(resizePhase, swarm.size());
+
+        //every tick reads the neighbours from the last frame, so that the result does not depend on the order or threads
+        TickPhaseEvent indexPhase = TickPhaseEvent.start(TickPhaseEvent.INDEX, tickCount);
+        swarm.beginTick(true);
+
+        //index every species once for all neighbour queries of this tick
+        //with cells as large as the longest query radius, a query visits no more than the 3x3 cells around it
+        NeighborIndex selected = selectedNeighborIndex;
+        double cellSize = 0;
+        for (int s = 0; s < swarm.getSpeciesCount(); s++)
+        {
+            cellSize = Math.max(cellSize, species.get(s).getQueryRadius(false));
+        }
+        if (neighborIndices.length != swarm.getSpeciesCount() || indexedSelection != selected || indexedCellSize != cellSize)
+        {
+            neighborIndices = new NeighborIndex[swarm.getSpeciesCount()];
+            neighborIndices[0] = selected.withCellSize(cellSize);
+            for (int s = 1; s < neighborIndices.length; s++)
+            {
+                neighborIndices[s] = neighborIndices[0].newInstance();
+            }
+            indexedSelection = selected;
+            indexedCellSize = cellSize;
+        }
+        for (int s = 0; s < neighborIndices.length; s++)
+        {
+            neighborIndices[s].rebuild(swarm, swarm.getSpeciesStart(s), swarm.getSpeciesEnd(s));
+        }
+        tickInteractions = interactions;
+        if (escapeStrategies.length != swarm.getSpeciesCount())
+        {
+            escapeStrategies = new EscapeStrategy[swarm.getSpeciesCount()];
+        }
+        for (int s = 0; s < escapeStrategies.length; s++)
+        {
+            escapeStrategies[s] = species.get(s).getEscapeStrategy();
+            escapeStrategies[s].beginTick(swarm, tickCount);
+        }
+        neighbourKernel = selectedNeighbourKernel;
+        boolean steerVectors = selectedVectorHeadings;
+        if (vectorHeadings && !steerVectors)
+        {
+            //the angles stood still while the vectors were steered
+            swarm.syncAngles();
+        }
+        vectorHeadings = steerVectors;
+        TickPhaseEvent.finish(indexPhase, swarm.size());
+
+        TickPhaseEvent killDetectionPhase = TickPhaseEvent.start(TickPhaseEvent.KILL_DETECTION, tickCount);
+        if (killedIds.length < swarm.size())
+        {
+            killedIds = new int[swarm.size()];
+            killedSlots = new boolean[swarm.size()];
+        }
+        int kills = isPredatorActive && isPredatorLethal ? findKills() : 0;
+        TickPhaseEvent.finish(killDetectionPhase, swarm.size());
+
+        //the chunks are the same for any number of threads, so are the random numbers drawn in them
+        TickPhaseEvent steeringPhase = TickPhaseEvent.start(TickPhaseEvent.STEERING, tickCount);
+        tickNeighbours.set(0);
+        if (workerPool != null)
+        {
+            workerPool.run(swarm.size(), STEERING_CHUNK_SIZE, steeringTask);
+        } else
+        {
+            for (int from = 0; from < swarm.size(); from += STEERING_CHUNK_SIZE)
+            {
+                steeringTask.run(from, Math.min(from + STEERING_CHUNK_SIZE, swarm.size()));
+            }
+        }
+        visitedNeighbours = tickNeighbours.get();
+        TickPhaseEvent.finish(steeringPhase, swarm.size());
+
+        //remove the killed individuals in one batch, by id so that the slot order does not depend on the predators
+        TickPhaseEvent killRemovalPhase = TickPhaseEvent.start(TickPhaseEvent.KILL_REMOVAL, tickCount);
+        Arrays.sort(killedIds, 0, kills);
+        for (int i = 0; i < kills; i++)
+        {
+            killedSlots[swarm.getSlot(killedIds[i])] = false;
+        }
+        for (int i = 0; i < kills; i++)
+        {
+            int slot = swarm.getSlot(killedIds[i]);
+            species.get(swarm.getSpecies(slot)).shrink(1);
+            swarm.remove(slot);
+        }
+        killCount += kills;
+        TickPhaseEvent.finish(killRemovalPhase, kills);
+
+        //hand a snapshot to the renderer and the recorder
+        TickPhaseEvent publishingPhase = TickPhaseEvent.start(TickPhaseEvent.PUBLISHING, tickCount);
+        tickCount++;
+        Frame frame = frames.getBackFrame();
+        frame.writeSwarm(tickCount, tickDueTime, config.getTickDuration(), swarm);
+        frame.writePredators(isPredatorActive, predators, previousPredatorX, previousPredatorY, predatorKillTimes);
+        frame.writeTarget(targetX, targetY, isManualTargetControl);
+        frame.writeKills(killedIds, kills);
+        TrajectoryRecorder currentRecorder = recorder;
+        if (currentRecorder != null)
+        {
+            currentRecorder.capture(frame);
+        }
+        frames.publish();
+
+        publishEvents(kills);
+
+        Checkpointer currentCheckpointer = checkpointer;
+        if (currentCheckpointer != null)
+        {
+            currentCheckpointer.afterTick(this, tickCount);
+        }
+        TickPhaseEvent.finish(publishingPhase, swarm.size());
+        TickEvent.finish(tickEvent, visitedNeighbours, kills);
+        tickLatencies.record(System.nanoTime() - tickStart);
+    }
+
+    /**
+     * Publishes the events of the tick that just ended. Events are only created if anybody listens, so ticks without
+     * subscribers create no garbage.
+     *
+     * @param kills The number of individuals killed in the tick, their ids are in killedIds.
+     */
+    private void publishEvents(int kills)
+    {
+        if (kills > 0 && events.hasSubscribers(IndividualsKilledEvent.class))
+        {
+            events.publish(new IndividualsKilledEvent(tickCount, killedIds, kills));
+        }
+
+        if (targetX != publishedTargetX || targetY != publishedTargetY)
+        {
+            publishedTargetX = targetX;
+            publishedTargetY = targetY;
+            if (events.hasSubscribers(TargetMovedEvent.class))
+            {
+                events.publish(new TargetMovedEvent(tickCount, targetX, targetY, isManualTargetControl));
+            }
+        }
+
+        if (events.hasSubscribers(FramePublishedEvent.class))
+        {
+            events.publish(new FramePublishedEvent(tickCount, tickDueTime, swarm.size(), killCount));
+        }
+    }
+
+    /**
+     * Records the individuals within the kill radius of any predator as killed. Every predator only checks the
+     * individuals the neighbour indices return around it, and an individual reached by several predators is killed
+     * once. The steering skips the killed individuals, and they are removed at the end of the tick.
+     *
+     * @return The number of killed individuals, their ids are in killedIds.
+     */
+    private int findKills()
+    {
+        double[] xs = swarm.getX();
+        double[] ys = swarm.getY();
+        long now = System.currentTimeMillis();
+        double killRadius = config.getPredatorKillRadius();
+        int kills = 0;
+        for (int p = 0; p < predators.size(); p++)
+        {
+            double predatorX = predators.getX()[p];
+            double predatorY = predators.getY()[p];
+            for (NeighborIndex index : neighborIndices)
+            {
+                index.query(predatorX, predatorY, killRadius, killRanges);
+                for (int r = 0; r < killRanges.size(); r++)
+                {
+                    for (int i = killRanges.getStart(r); i < killRanges.getEnd(r); i++)
                     {
-                        Thread.currentThread().interrupt();
+                        int slot = index.getSlot(i);
+                        double dx = xs[slot] - predatorX;
+                        double dy = ys[slot] - predatorY;
+                        if (dx * dx + dy * dy < killRadius * killRadius && !killedSlots[slot])
+                        {
+                            killedSlots[slot] = true;
+                            killedIds[kills++] = swarm.getId(slot);
+                            predatorKillTimes[p] = now;
+                            lastPredatorKillTime = now;
+                        }
                     }
+                }
+            }
+        }
+        return kills;
+    }
+
+    /**
+     * Steers the individuals in the given slots, species by species.
+     *
+     * @param from The first slot.
+     * @param to   The slot after the last slot.
+     */
+    private void steer(int from, int to)
+    {
+        for (int s = 0; s < swarm.getSpeciesCount(); s++)
+        {
+            int start = Math.max(from, swarm.getSpeciesStart(s));
+            int end = Math.min(to, swarm.getSpeciesEnd(s));
+            if (start < end)
+            {
+                steer(escapeStrategies[s], start, end);
+            }
+        }
+    }
 
+    /**
+     * Computes the new heading to steer to for the individuals in the given slots and moves them.
+     * Individuals killed in this tick stay where they are.
+     *
+     * @param escapeStrategy The escape strategy of the species of all individuals in the slots.
+     * @param from           The first slot.
+     * @param to             The slot after the last slot.
+     */
+    private void steer(EscapeStrategy escapeStrategy, int from, int to)
+    {
+        boolean[] killed = killedSlots;
+        double[] angles = swarm.getAngle();
+        Direction[] directions = steeringDirections.get();
+        Direction dir = directions[0];
+        Direction part = directions[1];
+        double steeringDamper = config.getSteeringDamper();
+
+        //for each swarm individual compute the new angle to steer to
+        for (int slot = from; slot < to; slot++)
+        {
+            //killed ones are removed after the loop, since we are currently iterating over the swarm
+            if (killed[slot])
+                continue;
+
+            dir.set(0, 0);
+            if (targetMovementStrategy.calculateSteeringAngle(swarm, slot, part))
+            {
+                dir.accumulate(part);
+            }
+            if (swarmMovementStrategy.calculateSteeringAngle(swarm, slot, part))
+            {
+                dir.accumulate(part);
+            }
+
+            if (escapeStrategy.calculateSteeringAngle(swarm, slot, part))
+            {
+                if (escapeStrategy.isRelative())
+                {
+                    dir.accumulate(part);
+                } else
+                {
+                    dir.set(part);
                 }
+            }
 
+            if (vectorHeadings)
+            {
+                //steer to target and don't directly head to it
+                swarm.turn(slot, dir.getDx(), dir.getDy(), steeringDamper);
+                swarm.move(slot);
+                continue;
             }
-        });
-        runner.start();
+
+            //calculate resulting relative angle
+            double targetAngle = Math.atan2(dir.getDy(), dir.getDx()); //angle between current direction and target direction
+            //since we steer slowly, we need to make adjustments to the angle to prevent pending behaviour
+            //I got this from http://sycora.com/demos/flock/
+            double cw = (targetAngle - angles[slot] + Math.PI * 4) % (Math.PI * 2);
+            double acw = (angles[slot] - targetAngle + Math.PI * 4) % (Math.PI * 2);
+            double rotation = Math.abs(cw) < Math.abs(acw) ? cw : -acw;
+            //steer to target and don't directly head to it
+            rotation *= steeringDamper;
+
+            //finally rotate the individual
+            angles[slot] += rotation;
+            swarm.update(slot);
+        }
     }
 
 }
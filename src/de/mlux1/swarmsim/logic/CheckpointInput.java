@@ -0,0 +1,204 @@
+package de.mlux1.swarmsim.logic;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         Reads a checkpoint from a channel through a buffer of {@link #BUFFER_SIZE} bytes, the counterpart of
+ *         {@link CheckpointOutput}. Columns are read in bulk, a buffer at a time.
+ */
+public class CheckpointInput
+{
+
+    public static final int BUFFER_SIZE = 1 << 20;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final long length; //bytes of the checkpoint
+    private long received; //bytes read from the channel so far
+
+    /**
+     * Constructor.
+     *
+     * @param channel The channel to read from.
+     * @param length  The number of bytes of the checkpoint.
+     */
+    public CheckpointInput(ReadableByteChannel channel, long length)
+    {
+        this.channel = channel;
+        this.length = length;
+        buffer.flip(); //nothing read yet
+    }
+
+    /**
+     * Reads from the channel until the given number of bytes is buffered.
+     *
+     * @param bytes The number of bytes, at most {@link #BUFFER_SIZE}.
+     * @throws IOException If the channel ends before.
+     */
+    private void require(int bytes) throws IOException
+    {
+        if (buffer.remaining() >= bytes)
+            return;
+
+        buffer.compact();
+        while (buffer.position() < bytes)
+        {
+            int read = channel.read(buffer);
+            if (read < 0)
+            {
+                throw new EOFException("The checkpoint ends unexpectedly");
+            }
+            received += read;
+        }
+        buffer.flip();
+    }
+
+    /**
+     * Reads a boolean.
+     *
+     * @return The value.
+     * @throws IOException If the channel cannot be read.
+     */
+    public boolean getBoolean() throws IOException
+    {
+        require(1);
+        return buffer.get() != 0;
+    }
+
+    /**
+     * Reads an int.
+     *
+     * @return The value.
+     * @throws IOException If the channel cannot be read.
+     */
+    public int getInt() throws IOException
+    {
+        require(4);
+        return buffer.getInt();
+    }
+
+    /**
+     * Reads a long.
+     *
+     * @return The value.
+     * @throws IOException If the channel cannot be read.
+     */
+    public long getLong() throws IOException
+    {
+        require(8);
+        return buffer.getLong();
+    }
+
+    /**
+     * Reads a double.
+     *
+     * @return The value.
+     * @throws IOException If the channel cannot be read.
+     */
+    public double getDouble() throws IOException
+    {
+        require(8);
+        return buffer.getDouble();
+    }
+
+    /**
+     * Reads the number of elements that follow. A count cannot exceed the bytes left in the checkpoint, so that a
+     * damaged file is detected before arrays are allocated for it.
+     *
+     * @param limit The largest valid count.
+     * @return The count.
+     * @throws IOException If the channel cannot be read or the count is invalid.
+     */
+    public int getCount(int limit) throws IOException
+    {
+        int count = getInt();
+        long left = length - (received - buffer.remaining());
+        if (count < 0 || count > limit || count > left)
+        {
+            throw new IOException("The checkpoint is damaged: invalid count " + count);
+        }
+        return count;
+    }
+
+    /**
+     * Reads a string put by {@link CheckpointOutput#putString(String)}.
+     *
+     * @return The string.
+     * @throws IOException If the channel cannot be read.
+     */
+    public String getString() throws IOException
+    {
+        byte[] bytes = new byte[getCount(BUFFER_SIZE)];
+        require(bytes.length);
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads values into a column.
+     *
+     * @param values The column.
+     * @param count  The number of values.
+     * @throws IOException If the channel cannot be read.
+     */
+    public void getInts(int[] values, int count) throws IOException
+    {
+        int read = 0;
+        while (read < count)
+        {
+            require(4);
+            int chunk = Math.min(count - read, buffer.remaining() / 4);
+            buffer.asIntBuffer().get(values, read, chunk);
+            buffer.position(buffer.position() + chunk * 4);
+            read += chunk;
+        }
+    }
+
+    /**
+     * Reads values into a column.
+     *
+     * @param values The column.
+     * @param count  The number of values.
+     * @throws IOException If the channel cannot be read.
+     */
+    public void getLongs(long[] values, int count) throws IOException
+    {
+        int read = 0;
+        while (read < count)
+        {
+            require(8);
+            int chunk = Math.min(count - read, buffer.remaining() / 8);
+            buffer.asLongBuffer().get(values, read, chunk);
+            buffer.position(buffer.position() + chunk * 8);
+            read += chunk;
+        }
+    }
+
+    /**
+     * Reads values into a column.
+     *
+     * @param values The column.
+     * @param count  The number of values.
+     * @throws IOException If the channel cannot be read.
+     */
+    public void getDoubles(double[] values, int count) throws IOException
+    {
+        int read = 0;
+        while (read < count)
+        {
+            require(8);
+            int chunk = Math.min(count - read, buffer.remaining() / 8);
+            buffer.asDoubleBuffer().get(values, read, chunk);
+            buffer.position(buffer.position() + chunk * 8);
+            read += chunk;
+        }
+    }
+
+}
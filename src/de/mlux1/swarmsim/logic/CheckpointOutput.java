@@ -0,0 +1,183 @@
+package de.mlux1.swarmsim.logic;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         Buffer a checkpoint is serialized into before it is written, see {@link Checkpointer}. The buffer lives
+ *         outside the heap and only grows, so serializing into a reused one costs about as much as copying the state,
+ *         and the file is written by a few large writes. Columns are put in bulk.
+ */
+public class CheckpointOutput
+{
+
+    private static final int INITIAL_CAPACITY = 1 << 20;
+
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(INITIAL_CAPACITY);
+
+    /**
+     * Discards everything put so far.
+     */
+    public void clear()
+    {
+        buffer.clear();
+    }
+
+    /**
+     * @return The number of bytes put so far.
+     */
+    public int size()
+    {
+        return buffer.position();
+    }
+
+    /**
+     * Makes room for the given number of bytes.
+     *
+     * @param bytes The number of bytes.
+     */
+    private void ensure(long bytes)
+    {
+        if (buffer.remaining() >= bytes)
+            return;
+
+        long capacity = Math.max((long) buffer.capacity() * 2, buffer.position() + bytes);
+        if (capacity > Integer.MAX_VALUE)
+        {
+            throw new IllegalStateException("A checkpoint of more than 2 GB cannot be written");
+        }
+        ByteBuffer grown = ByteBuffer.allocateDirect((int) capacity);
+        buffer.flip();
+        grown.put(buffer);
+        buffer = grown;
+    }
+
+    /**
+     * Puts a boolean.
+     *
+     * @param value The value.
+     */
+    public void putBoolean(boolean value)
+    {
+        ensure(1);
+        buffer.put((byte) (value ? 1 : 0));
+    }
+
+    /**
+     * Puts an int.
+     *
+     * @param value The value.
+     */
+    public void putInt(int value)
+    {
+        ensure(4);
+        buffer.putInt(value);
+    }
+
+    /**
+     * Puts a long.
+     *
+     * @param value The value.
+     */
+    public void putLong(long value)
+    {
+        ensure(8);
+        buffer.putLong(value);
+    }
+
+    /**
+     * Overwrites a long put before, e.g. a length that was not known when it was put.
+     *
+     * @param position The position of the long, in bytes from the start.
+     * @param value    The value.
+     */
+    public void putLong(int position, long value)
+    {
+        buffer.putLong(position, value);
+    }
+
+    /**
+     * Puts a double.
+     *
+     * @param value The value.
+     */
+    public void putDouble(double value)
+    {
+        ensure(8);
+        buffer.putDouble(value);
+    }
+
+    /**
+     * Puts a string as its length in bytes and its UTF-8 bytes.
+     *
+     * @param value The string.
+     */
+    public void putString(String value)
+    {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        putInt(bytes.length);
+        ensure(bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Puts the first values of a column.
+     *
+     * @param values The column.
+     * @param count  The number of values.
+     */
+    public void putInts(int[] values, int count)
+    {
+        ensure(count * 4L);
+        buffer.asIntBuffer().put(values, 0, count);
+        buffer.position(buffer.position() + count * 4);
+    }
+
+    /**
+     * Puts the first values of a column.
+     *
+     * @param values The column.
+     * @param count  The number of values.
+     */
+    public void putLongs(long[] values, int count)
+    {
+        ensure(count * 8L);
+        buffer.asLongBuffer().put(values, 0, count);
+        buffer.position(buffer.position() + count * 8);
+    }
+
+    /**
+     * Puts the first values of a column.
+     *
+     * @param values The column.
+     * @param count  The number of values.
+     */
+    public void putDoubles(double[] values, int count)
+    {
+        ensure(count * 8L);
+        buffer.asDoubleBuffer().put(values, 0, count);
+        buffer.position(buffer.position() + count * 8);
+    }
+
+    /**
+     * Writes everything put so far to a channel. The buffer keeps its contents.
+     *
+     * @param channel The channel.
+     * @throws IOException If the channel cannot be written.
+     */
+    public void writeTo(WritableByteChannel channel) throws IOException
+    {
+        ByteBuffer contents = buffer.duplicate();
+        contents.flip();
+        while (contents.hasRemaining())
+        {
+            channel.write(contents);
+        }
+    }
+
+}
@@ -0,0 +1,289 @@
+package de.mlux1.swarmsim.logic;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         Saves the state of the simulation to a file and restores it, see {@link AppState#writeCheckpoint(CheckpointOutput)}.
+ *         A restored simulation continues exactly like the one that was saved.
+ *         <p/>
+ *         Attached by {@link AppState#setCheckpointer(Checkpointer)}, it takes a checkpoint every few ticks in the
+ *         background: the simulation thread serializes the state into a buffer between two ticks, and a thread of the
+ *         checkpointer writes the buffer to disk. If the last checkpoint is still being written when the next one is
+ *         due, the next one is skipped. Checkpoints are written to a temporary file next to the target and moved over
+ *         it when complete, so the file always holds the last complete checkpoint.
+ */
+public class Checkpointer implements Closeable
+{
+
+    static final int MAGIC = 0x5357434b; //"SWCK"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16; //magic, version and length of the checkpoint
+
+    private final File file;
+    private final long intervalTicks;
+    private final CheckpointOutput buffer = new CheckpointOutput(); //the checkpoint being written
+    private final AtomicBoolean writing = new AtomicBoolean(); //the buffer is owned by the writer thread
+    private final Object released = new Object(); //notified whenever writing is reset
+    private final BlockingQueue<CheckpointOutput> pending = new ArrayBlockingQueue<CheckpointOutput>(1);
+    private final CheckpointOutput end = new CheckpointOutput(); //queued by close() after the last checkpoint
+    private final Thread writer;
+    private volatile boolean closed = false;
+    private volatile long writtenCheckpoints;
+    private volatile long skippedCheckpoints; //only incremented by the simulation thread
+    private volatile IOException failure; //of the last checkpoint, if it could not be written
+
+    /**
+     * Constructor. Starts the thread that writes the checkpoints.
+     *
+     * @param file          The file to write the checkpoints to.
+     * @param intervalTicks The ticks from one checkpoint to the next, see {@link Config#CHECKPOINT_INTERVAL_TICKS}.
+     */
+    public Checkpointer(File file, long intervalTicks)
+    {
+        this.file = file;
+        this.intervalTicks = Math.max(intervalTicks, 1);
+
+        writer = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                write();
+            }
+        }, "checkpoint-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Takes a checkpoint if one is due and the last one has been written. Only to be called by the simulation thread
+     * between two ticks.
+     *
+     * @param appState The simulation.
+     * @param tick     The number of ticks simulated so far.
+     */
+    public void afterTick(AppState appState, long tick)
+    {
+        if (closed || tick % intervalTicks != 0)
+            return;
+
+        if (!writing.compareAndSet(false, true))
+        {
+            skippedCheckpoints++;
+            return;
+        }
+        try
+        {
+            serialize(appState, buffer);
+        } catch (RuntimeException e)
+        {
+            release();
+            throw e;
+        }
+        pending.add(buffer);
+    }
+
+    /**
+     * Writes checkpoints until the checkpointer is closed. Run by the writer thread.
+     */
+    private void write()
+    {
+        while (true)
+        {
+            CheckpointOutput checkpoint;
+            try
+            {
+                checkpoint = pending.take();
+            } catch (InterruptedException e)
+            {
+                return;
+            }
+            if (checkpoint == end)
+                return;
+
+            try
+            {
+                writeFile(checkpoint, file);
+                writtenCheckpoints++;
+                failure = null;
+            } catch (IOException e)
+            {
+                failure = e;
+            } finally
+            {
+                release();
+            }
+        }
+    }
+
+    /**
+     * Hands the buffer back and wakes up {@link #close()} if it waits for it.
+     */
+    private void release()
+    {
+        synchronized (released)
+        {
+            writing.set(false);
+            released.notifyAll();
+        }
+    }
+
+    /**
+     * Serializes the state of the simulation with the header of a checkpoint file.
+     *
+     * @param appState The simulation.
+     * @param out      The buffer, its contents are replaced.
+     */
+    private static void serialize(AppState appState, CheckpointOutput out)
+    {
+        out.clear();
+        out.putInt(MAGIC);
+        out.putInt(VERSION);
+        out.putLong(0); //the length is not known yet
+        appState.writeCheckpoint(out);
+        out.putLong(8, out.size() - HEADER_SIZE);
+    }
+
+    /**
+     * Writes a serialized checkpoint to a temporary file and moves it over the given file.
+     *
+     * @param checkpoint The checkpoint.
+     * @param file       The file.
+     * @throws IOException If the file cannot be written.
+     */
+    private static void writeFile(CheckpointOutput checkpoint, File file) throws IOException
+    {
+        File temporary = new File(file.getPath() + ".tmp");
+        FileChannel channel = FileChannel.open(temporary.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        try
+        {
+            checkpoint.writeTo(channel);
+            channel.force(false);
+        } finally
+        {
+            channel.close();
+        }
+        Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Saves the state of the simulation to a file right away. Must be called by the simulation thread, or while it
+     * does not run.
+     *
+     * @param appState The simulation.
+     * @param file     The file.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void save(AppState appState, File file) throws IOException
+    {
+        CheckpointOutput out = new CheckpointOutput();
+        serialize(appState, out);
+        writeFile(out, file);
+    }
+
+    /**
+     * Restores the state of the simulation from a file. Must not be called while the simulation thread runs.
+     *
+     * @param appState The simulation.
+     * @param file     The file, written by {@link #save(AppState, File)} or a checkpointer.
+     * @throws IOException If the file cannot be read or is no checkpoint.
+     */
+    public static void restore(AppState appState, File file) throws IOException
+    {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try
+        {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining())
+            {
+                if (channel.read(header) < 0)
+                    break;
+            }
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC)
+                throw new IOException(file + " is no checkpoint");
+            int version = header.getInt();
+            if (version != VERSION)
+                throw new IOException(file + " was saved in version " + version + ", only version " + VERSION
+                        + " can be restored");
+            long length = header.getLong();
+            if (length != channel.size() - HEADER_SIZE)
+                throw new IOException(file + " is incomplete");
+
+            appState.readCheckpoint(new CheckpointInput(channel, length));
+        } finally
+        {
+            channel.close();
+        }
+    }
+
+    /**
+     * @return The number of checkpoints written so far.
+     */
+    public long getWrittenCheckpoints()
+    {
+        return writtenCheckpoints;
+    }
+
+    /**
+     * @return The number of checkpoints skipped because the one before was still being written.
+     */
+    public long getSkippedCheckpoints()
+    {
+        return skippedCheckpoints;
+    }
+
+    /**
+     * @return The error of the last checkpoint if it could not be written, or null if it was written.
+     */
+    public IOException getFailure()
+    {
+        return failure;
+    }
+
+    /**
+     * Stops taking checkpoints and waits until the last one is written. Detach the checkpointer from the simulation
+     * first; a checkpoint the simulation thread is taking meanwhile is still written.
+     *
+     * @throws IOException If the last checkpoint could not be written.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        if (closed)
+            return;
+
+        closed = true;
+        try
+        {
+            //owning the buffer keeps end behind a checkpoint that was already past the closed check
+            synchronized (released)
+            {
+                while (!writing.compareAndSet(false, true))
+                    released.wait();
+            }
+            pending.put(end);
+            writer.join();
+        } catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null)
+            throw failure;
+    }
+
+}
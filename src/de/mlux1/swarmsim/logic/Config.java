@@ -5,6 +5,9 @@ package de.mlux1.swarmsim.logic;
  *         Date: 20.08.11
  *         <p/>
  *         Information class.
+ *         <p/>
+ *         The tick rate, the radii, the steering damper and the limits of the swarm size are the defaults of the
+ *         {@link RuntimeConfig}, which reads them from a file and the command line; the simulation uses those.
  */
 public final class Config
 {
@@ -16,34 +19,56 @@ public final class Config
     public static final int DEFAULT_NUM_INDIVIDUALS = 150;
     public static final int DEFAULT_SPEED = 3;
     public static final int DEFAULT_PREDATOR_SPEED = 3;
+    public static final int DEFAULT_PREDATOR_COUNT = 1;
     public static final int DEFAULT_ALIGNMENT_PRIORITY = 7;
     public static final int DEFAULT_SEPARATION_PRIORITY = 7;
     public static final int DEFAULT_COHESION_PRIORITY = 2;
+    public static final int DEFAULT_TICK_THREADS = 1;
+    public static final boolean DEFAULT_VECTOR_HEADINGS = true;
 
     /* slider minimum values */
 
     public static final int MIN_NUM_INDIVIDUALS = 0;
     public static final int MIN_SPEED = 1;
+    public static final int MIN_PREDATOR_COUNT = 1;
     public static final int MIN_ALIGNMENT_PRIORITY = 0;
     public static final int MIN_SEPARATION_PRIORITY = 0;
     public static final int MIN_COHESION_PRIORITY = 0;
+    public static final int MIN_TICK_THREADS = 1;
 
     /* slider maximum values */
 
-    public static final int MAX_NUM_INDIVIDUALS = 400;
+    public static final int MAX_NUM_INDIVIDUALS = 5000;
     public static final int MAX_SPEED = 7;
     public static final int MAX_PREDATOR_SPEED = 7;
+    public static final int MAX_PREDATOR_COUNT = 8;
     public static final int MAX_ALIGNMENT_PRIORITY = 15;
     public static final int MAX_SEPARATION_PRIORITY = 15;
     public static final int MAX_COHESION_PRIORITY = 15;
+    public static final int MAX_TICK_THREADS = Math.max(Runtime.getRuntime().availableProcessors(), 2);
+
+    /* field */
+
+    public static final int FIELD_WIDTH = 900; //width of the field the swarm moves on
+    public static final int FIELD_HEIGHT = 700; //height of the field the swarm moves on
+    public static final int PREDATOR_SIZE = 30; //edge length of the box of the predator
 
     /* misc. configuration */
 
-    public static final int FRAME_RATE = 120;
+    public static final int FRAME_RATE = 120; //ticks of the simulation per second
+    public static final int RENDER_FRAME_RATE = 60; //repaints of the field per second, independent of the ticks
+    public static final int LOD_MIN_INDIVIDUALS = 4000; //from this swarm size on, the field shows a density heatmap instead of every individual
+    public static final int LOD_CELL_SIZE = 16; //edge length of a cell of the density heatmap
+    public static final int MAX_CATCH_UP_TICKS = 5; //ticks run back to back when behind, before the delay is dropped
+    public static final int RECORD_KEYFRAME_INTERVAL = FRAME_RATE; //ticks from one keyframe of a recording to the next
+    public static final int RECORD_BUFFERED_TICKS = FRAME_RATE; //ticks a recorder may fall behind before ticks are left out
+    public static final int CHECKPOINT_INTERVAL_TICKS = 60 * FRAME_RATE; //ticks from one background checkpoint to the next
     public static final int TARGET_TIME_REPOSITION = 4000; //time the target stays at the same position after being reached by the swarm
     public static final int COHESION_RADIUS = 50; //the radius which determines what other individuals are important for cohesion
     public static final int ALIGNMENT_RADIUS = 50; //the radius which determines what other individuals are important for alignment
     public static final int SEPARATION_DISTANCE = 25; //minimum separation distance to the nearest neighbour individual
+    public static final int AVOID_DISTANCE = 40; //minimum distance to the nearest individual of an avoided species
+    public static final Interaction DEFAULT_INTERACTION = Interaction.AVOID; //how the individuals of different species react to each other
     public static final double STEERING_DAMPER = 0.11; //how fast to steer - got this value with much patience and time
     public static final int MAX_PREDATOR_DISTANCE = 100; //the radius around the predator, that swarm individuals would be aware of it.
     public static final int PREDATOR_KILL_RADIUS = 10; //the radius in which the predator will kill individuals
@@ -0,0 +1,161 @@
+package de.mlux1.swarmsim.logic;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Properties;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         Watches a configuration file and hands every valid change of it to the simulation, which applies it as a
+ *         whole before its next tick. A file that cannot be read or holds invalid values is reported and left out, the
+ *         simulation keeps its configuration until the file is fixed. Settings of the command line keep replacing the
+ *         ones of the file.
+ */
+public class ConfigWatcher implements Closeable
+{
+
+    private static final long SETTLE_TIME = 100; //milliseconds to wait for an editor to finish writing the file
+
+    private final File file;
+    private final Properties overrides;
+    private final AppState appState;
+    private final WatchService watchService;
+    private volatile int reloads; //valid changes handed to the simulation
+
+    /**
+     * Constructor. Starts watching on a daemon thread.
+     *
+     * @param file      The configuration file.
+     * @param overrides The settings of the command line.
+     * @param appState  The simulation.
+     * @throws IOException If the directory of the file cannot be watched.
+     */
+    public ConfigWatcher(File file, Properties overrides, AppState appState) throws IOException
+    {
+        this.file = file.getAbsoluteFile();
+        this.overrides = overrides;
+        this.appState = appState;
+        Path directory = this.file.getParentFile().toPath();
+        watchService = directory.getFileSystem().newWatchService();
+        //editors often replace the file instead of writing into it
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+        Thread watcher = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                watch();
+            }
+        }, "config-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /**
+     * Waits for changes of the file and reloads it, until the watcher is closed.
+     */
+    private void watch()
+    {
+        try
+        {
+            while (true)
+            {
+                WatchKey key = watchService.take();
+                boolean changed = containsFile(key);
+                key.reset();
+                if (!changed)
+                    continue;
+
+                //one save raises several events, read the file once after they have passed
+                Thread.sleep(SETTLE_TIME);
+                while ((key = watchService.poll()) != null)
+                {
+                    key.pollEvents();
+                    key.reset();
+                }
+                reload();
+            }
+        } catch (ClosedWatchServiceException e)
+        {
+            //closed
+        } catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Checks whether the events of a key concern the file.
+     *
+     * @param key The key.
+     * @return True if the file was created or modified.
+     */
+    private boolean containsFile(WatchKey key)
+    {
+        boolean found = false;
+        for (WatchEvent<?> event : key.pollEvents())
+        {
+            Object context = event.context();
+            if (context instanceof Path && ((Path) context).getFileName().toString().equals(file.getName()))
+            {
+                found = true;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Reads the file and hands the configuration to the simulation, if it is valid.
+     */
+    private void reload()
+    {
+        RuntimeConfig config;
+        try
+        {
+            config = RuntimeConfig.load(file, overrides);
+        } catch (IOException e)
+        {
+            System.err.println("Cannot reload " + file + ": " + e.getMessage());
+            return;
+        } catch (IllegalArgumentException e)
+        {
+            System.err.println("Ignoring " + file + ": " + e.getMessage());
+            return;
+        }
+        appState.setConfig(config);
+        reloads++;
+        System.out.println("Reloaded " + file + ": " + config);
+    }
+
+    /**
+     * Returns the number of valid changes handed to the simulation so far.
+     *
+     * @return The number of reloads.
+     */
+    public int getReloads()
+    {
+        return reloads;
+    }
+
+    /**
+     * Stops watching.
+     *
+     * @throws IOException If the watch service cannot be closed.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        watchService.close();
+    }
+
+}
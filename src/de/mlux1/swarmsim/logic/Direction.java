@@ -5,6 +5,7 @@ package de.mlux1.swarmsim.logic;
  *         Date: 23.08.11
  *         <p/>
  *         Direction class which holds dx/dy values.
+ *         Directions are mutable, so that the steering of a tick can reuse the same instances and creates no garbage.
  */
 public class Direction
 {
@@ -34,6 +35,47 @@ public class Direction
         this.dy = Math.sin(angle);
     }
 
+    /**
+     * Constructor for the zero direction.
+     */
+    public Direction()
+    {
+    }
+
+    /**
+     * Sets the components of this direction.
+     *
+     * @param dx The new x component.
+     * @param dy The new y component.
+     */
+    public void set(double dx, double dy)
+    {
+        this.dx = dx;
+        this.dy = dy;
+    }
+
+    /**
+     * Sets this direction to the components of another direction.
+     *
+     * @param other The other direction.
+     */
+    public void set(Direction other)
+    {
+        dx = other.dx;
+        dy = other.dy;
+    }
+
+    /**
+     * Sets this direction to the unit vector of an angle.
+     *
+     * @param angle The radian angle in which the direction goes.
+     */
+    public void setAngle(double angle)
+    {
+        dx = Math.cos(angle);
+        dy = Math.sin(angle);
+    }
+
     /**
      * Returns the x component of this direction.
      *
@@ -65,4 +107,15 @@ public class Direction
         return new Direction(dx + other.dx, dy + other.dy);
     }
 
+    /**
+     * Adds another direction to this direction in place.
+     *
+     * @param other The other direction.
+     */
+    public void accumulate(Direction other)
+    {
+        dx += other.dx;
+        dy += other.dy;
+    }
+
 }
@@ -0,0 +1,372 @@
+package de.mlux1.swarmsim.logic;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         Snapshot of everything that is drawn for one tick: ids, positions and headings of the swarm as floats, the
+ *         predators with their last kill times, the target and the individuals killed in the tick. Frames are written
+ *         by the simulation and handed to the renderer by a {@link FrameExchange}, or decoded from a recording by a
+ *         {@link TrajectoryReplay}. Once published, a frame is never changed while the reader holds it.
+ *         <p/>
+ *         Every individual moved by heading times speed in its tick, so with the speeds the frame also describes the
+ *         positions of the tick before. The renderer interpolates between both by the time passed since the tick was
+ *         due, which decouples the render rate from the tick rate.
+ */
+public class Frame
+{
+
+    private long tick;
+    private long time; //System.nanoTime() at which the tick was due
+    private long tickDuration; //nanoseconds of simulated time per tick
+    private int size;
+    private int[] ids = new int[0];
+    private float[] x = new float[0], y = new float[0]; //positions
+    private float[] dx = new float[0], dy = new float[0]; //headings as unit vectors
+    private float[] speed = new float[0]; //distance moved in the tick
+
+    private boolean predatorActive;
+    private int predatorCount;
+    private double[] predatorX = new double[0], predatorY = new double[0], predatorAngle = new double[0];
+    private double[] previousPredatorX = new double[0], previousPredatorY = new double[0];
+    private long[] predatorKillTime = new long[0];
+
+    private double targetX, targetY;
+    private boolean manualTargetControl;
+
+    private int killCount;
+    private int[] killedIds = new int[0];
+
+    /**
+     * Copies the swarm into this frame.
+     *
+     * @param tick         The number of the tick.
+     * @param time         The System.nanoTime() at which the tick was due.
+     * @param tickDuration The nanoseconds of simulated time per tick.
+     * @param swarm        The swarm.
+     */
+    void writeSwarm(long tick, long time, long tickDuration, SwarmState swarm)
+    {
+        resize(tick, time, tickDuration, swarm.size());
+
+        double[] xs = swarm.getX();
+        double[] ys = swarm.getY();
+        double[] dxs = swarm.getDx();
+        double[] dys = swarm.getDy();
+        double[] speeds = swarm.getSpeed();
+        for (int i = 0; i < size; i++)
+        {
+            ids[i] = swarm.getId(i);
+            x[i] = (float) xs[i];
+            y[i] = (float) ys[i];
+            dx[i] = (float) dxs[i];
+            dy[i] = (float) dys[i];
+            speed[i] = (float) speeds[i];
+        }
+    }
+
+    /**
+     * Sets the tick of this frame and makes room for the given number of individuals. Their values are left to the
+     * caller.
+     *
+     * @param tick         The number of the tick.
+     * @param time         The System.nanoTime() at which the tick was due.
+     * @param tickDuration The nanoseconds of simulated time per tick.
+     * @param size         The number of individuals.
+     */
+    void resize(long tick, long time, long tickDuration, int size)
+    {
+        this.tick = tick;
+        this.time = time;
+        this.tickDuration = tickDuration;
+        this.size = size;
+        if (x.length < size)
+        {
+            int capacity = size + size / 2;
+            ids = new int[capacity];
+            x = new float[capacity];
+            y = new float[capacity];
+            dx = new float[capacity];
+            dy = new float[capacity];
+            speed = new float[capacity];
+        }
+    }
+
+    /**
+     * Copies the predators into this frame.
+     *
+     * @param active    True if the predators are active.
+     * @param predators The predators.
+     * @param previousX The x-positions of the predators before the tick, by slot.
+     * @param previousY The y-positions of the predators before the tick, by slot.
+     * @param killTimes The last kill times of the predators, by slot.
+     */
+    void writePredators(boolean active, SwarmState predators, double[] previousX, double[] previousY, long[] killTimes)
+    {
+        writePredators(active, predators.size(), predators.getX(), predators.getY(), predators.getAngle(), previousX,
+                previousY, killTimes);
+    }
+
+    /**
+     * Copies the predators into this frame.
+     *
+     * @param active    True if the predators are active.
+     * @param count     The number of predators.
+     * @param x         The x-positions of the predators.
+     * @param y         The y-positions of the predators.
+     * @param angle     The heading angles of the predators.
+     * @param previousX The x-positions of the predators before the tick.
+     * @param previousY The y-positions of the predators before the tick.
+     * @param killTimes The last kill times of the predators.
+     */
+    void writePredators(boolean active, int count, double[] x, double[] y, double[] angle, double[] previousX,
+                        double[] previousY, long[] killTimes)
+    {
+        predatorActive = active;
+        predatorCount = count;
+        if (predatorX.length < predatorCount)
+        {
+            predatorX = new double[predatorCount];
+            predatorY = new double[predatorCount];
+            predatorAngle = new double[predatorCount];
+            previousPredatorX = new double[predatorCount];
+            previousPredatorY = new double[predatorCount];
+            predatorKillTime = new long[predatorCount];
+        }
+        System.arraycopy(x, 0, predatorX, 0, predatorCount);
+        System.arraycopy(y, 0, predatorY, 0, predatorCount);
+        System.arraycopy(angle, 0, predatorAngle, 0, predatorCount);
+        System.arraycopy(previousX, 0, previousPredatorX, 0, predatorCount);
+        System.arraycopy(previousY, 0, previousPredatorY, 0, predatorCount);
+        System.arraycopy(killTimes, 0, predatorKillTime, 0, predatorCount);
+    }
+
+    /**
+     * Copies the target into this frame.
+     *
+     * @param x      The x-coordinate of the target.
+     * @param y      The y-coordinate of the target.
+     * @param manual True if the target is controlled manually.
+     */
+    void writeTarget(double x, double y, boolean manual)
+    {
+        targetX = x;
+        targetY = y;
+        manualTargetControl = manual;
+    }
+
+    /**
+     * Copies the ids of the individuals killed in the tick into this frame.
+     *
+     * @param ids   The ids.
+     * @param count The number of killed individuals.
+     */
+    void writeKills(int[] ids, int count)
+    {
+        killCount = count;
+        if (killedIds.length < count)
+        {
+            killedIds = new int[Math.max(count, 16)];
+        }
+        System.arraycopy(ids, 0, killedIds, 0, count);
+    }
+
+    /**
+     * @return The number of the tick this frame shows.
+     */
+    public long getTick()
+    {
+        return tick;
+    }
+
+    /**
+     * @return The System.nanoTime() at which the tick of this frame was due.
+     */
+    public long getTime()
+    {
+        return time;
+    }
+
+    /**
+     * Returns how far the given time lies between the tick before and the tick of this frame, for interpolation.
+     *
+     * @param now The current System.nanoTime().
+     * @return 0 for the state of the tick before up to 1 for the state of this frame.
+     */
+    public float getInterpolation(long now)
+    {
+        if (tickDuration <= 0)
+            return 1;
+
+        float alpha = (float) (now - time) / tickDuration;
+        return alpha < 0 ? 0 : (alpha > 1 ? 1 : alpha);
+    }
+
+    /**
+     * @return The number of individuals.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * @return The ids of the individuals, valid up to {@link #size()}.
+     */
+    public int[] getIds()
+    {
+        return ids;
+    }
+
+    /**
+     * @return The x-positions, valid up to {@link #size()}.
+     */
+    public float[] getX()
+    {
+        return x;
+    }
+
+    /**
+     * @return The y-positions, valid up to {@link #size()}.
+     */
+    public float[] getY()
+    {
+        return y;
+    }
+
+    /**
+     * @return The x components of the headings, valid up to {@link #size()}.
+     */
+    public float[] getDx()
+    {
+        return dx;
+    }
+
+    /**
+     * @return The y components of the headings, valid up to {@link #size()}.
+     */
+    public float[] getDy()
+    {
+        return dy;
+    }
+
+    /**
+     * @return The distances the individuals moved in the tick along their heading, valid up to {@link #size()}.
+     */
+    public float[] getSpeed()
+    {
+        return speed;
+    }
+
+    /**
+     * @return True if the predators are active.
+     */
+    public boolean isPredatorActive()
+    {
+        return predatorActive;
+    }
+
+    /**
+     * @return The number of predators.
+     */
+    public int getPredatorCount()
+    {
+        return predatorCount;
+    }
+
+    /**
+     * @param predator The number of the predator.
+     * @return The x-position of the predator.
+     */
+    public double getPredatorX(int predator)
+    {
+        return predatorX[predator];
+    }
+
+    /**
+     * @param predator The number of the predator.
+     * @return The y-position of the predator.
+     */
+    public double getPredatorY(int predator)
+    {
+        return predatorY[predator];
+    }
+
+    /**
+     * @param predator The number of the predator.
+     * @return The x-position of the predator in the tick before.
+     */
+    public double getPreviousPredatorX(int predator)
+    {
+        return previousPredatorX[predator];
+    }
+
+    /**
+     * @param predator The number of the predator.
+     * @return The y-position of the predator in the tick before.
+     */
+    public double getPreviousPredatorY(int predator)
+    {
+        return previousPredatorY[predator];
+    }
+
+    /**
+     * @param predator The number of the predator.
+     * @return The heading angle of the predator.
+     */
+    public double getPredatorAngle(int predator)
+    {
+        return predatorAngle[predator];
+    }
+
+    /**
+     * @param predator The number of the predator.
+     * @return The last kill time of the predator.
+     */
+    public long getLastPredatorKillTime(int predator)
+    {
+        return predatorKillTime[predator];
+    }
+
+    /**
+     * @return The x-coordinate of the target.
+     */
+    public double getTargetX()
+    {
+        return targetX;
+    }
+
+    /**
+     * @return The y-coordinate of the target.
+     */
+    public double getTargetY()
+    {
+        return targetY;
+    }
+
+    /**
+     * @return True if the target is controlled manually.
+     */
+    public boolean isManualTargetControl()
+    {
+        return manualTargetControl;
+    }
+
+    /**
+     * @return The number of individuals killed in the tick.
+     */
+    public int getKillCount()
+    {
+        return killCount;
+    }
+
+    /**
+     * @return The ids of the individuals killed in the tick, valid up to {@link #getKillCount()}. They are no longer
+     * part of the swarm of this frame.
+     */
+    public int[] getKilledIds()
+    {
+        return killedIds;
+    }
+
+}
@@ -0,0 +1,57 @@
+package de.mlux1.swarmsim.logic;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         Lock-free triple buffer that hands frames from one writer to one reader.
+ *         The writer fills its back frame and publishes it by swapping it with the shared middle frame. The reader
+ *         swaps its front frame with the middle frame when a newer one has been published. Neither side ever waits,
+ *         the writer may overwrite frames the reader has skipped, and the reader always sees a complete frame.
+ */
+public class FrameExchange
+{
+
+    private static final int FRESH = 4; //flag on the middle index: published but not yet taken
+    private static final int INDEX_MASK = 3;
+
+    private final Frame[] frames = new Frame[]{new Frame(), new Frame(), new Frame()};
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int back = 0; //owned by the writer
+    private int front = 2; //owned by the reader
+
+    /**
+     * Returns the frame the writer fills next. Only to be called by the writer.
+     *
+     * @return The back frame.
+     */
+    public Frame getBackFrame()
+    {
+        return frames[back];
+    }
+
+    /**
+     * Publishes the back frame. Only to be called by the writer.
+     */
+    public void publish()
+    {
+        back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * Returns the newest published frame. It stays valid until the next call. Only to be called by the reader.
+     *
+     * @return The front frame.
+     */
+    public Frame getLatestFrame()
+    {
+        if ((middle.get() & FRESH) != 0)
+        {
+            front = middle.getAndSet(front) & INDEX_MASK;
+        }
+        return frames[front];
+    }
+
+}
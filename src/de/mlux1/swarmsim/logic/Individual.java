@@ -1,17 +1,20 @@
 package de.mlux1.swarmsim.logic;
 
-import de.mlux1.swarmsim.ui.CanvasPanel;
+import java.util.Random;
 
 /**
  * @author mlux
  *         Date: 02.08.11
  *         <p/>
  *         Represents an individual of a swarm.
+ *         The data itself lives in a {@link SwarmState}, this is only a view on one of its individuals by id.
+ *         Individuals created by the constructors get their own single slot state.
  */
 public class Individual
 {
 
-    private double x, y, dx, dy, angle, speed;
+    private final SwarmState state;
+    private final int id;
 
     /**
      * Constructor.
@@ -22,10 +25,8 @@ public class Individual
      */
     public Individual(double x, double y, double angle)
     {
-        this.x = x;
-        this.y = y;
-        this.angle = angle;
-        this.speed = Config.DEFAULT_SPEED;
+        this.state = new SwarmState(1);
+        this.id = state.getId(state.add(x, y, angle, Config.DEFAULT_SPEED));
     }
 
     /**
@@ -35,12 +36,30 @@ public class Individual
      */
     public Individual(Individual individual)
     {
-        this.angle = individual.angle;
-        this.x = individual.x;
-        this.y = individual.y;
-        this.dx = individual.dx;
-        this.dy = individual.dy;
-        this.speed = individual.speed;
+        this(individual.getX(), individual.getY(), individual.getAngle());
+        state.getDx()[0] = individual.getDx();
+        state.getDy()[0] = individual.getDy();
+        state.getSpeed()[0] = individual.getSpeed();
+    }
+
+    /**
+     * Constructor for a view on an individual of a swarm.
+     *
+     * @param state The swarm.
+     * @param id    The id of the individual.
+     */
+    public Individual(SwarmState state, int id)
+    {
+        this.state = state;
+        this.id = id;
+    }
+
+    /**
+     * @return The current slot of this individual in its state.
+     */
+    private int slot()
+    {
+        return state.getSlot(id);
     }
 
     /**
@@ -48,11 +67,7 @@ public class Individual
      */
     public void update()
     {
-        dx = Math.cos(angle);
-        dy = Math.sin(angle);
-
-        x += dx * speed;
-        y += dy * speed;
+        state.update(slot());
     }
 
     /**
@@ -60,7 +75,7 @@ public class Individual
      */
     public double getX()
     {
-        return x;
+        return state.getX()[slot()];
     }
 
     /**
@@ -68,7 +83,7 @@ public class Individual
      */
     public double getY()
     {
-        return y;
+        return state.getY()[slot()];
     }
 
     /**
@@ -76,7 +91,7 @@ public class Individual
      */
     public double getDx()
     {
-        return dx;
+        return state.getDx()[slot()];
     }
 
     /**
@@ -84,7 +99,7 @@ public class Individual
      */
     public double getDy()
     {
-        return dy;
+        return state.getDy()[slot()];
     }
 
     /**
@@ -92,7 +107,7 @@ public class Individual
      */
     public double getAngle()
     {
-        return angle;
+        return state.getAngle()[slot()];
     }
 
     /**
@@ -102,7 +117,7 @@ public class Individual
      */
     public void setAngle(double angle)
     {
-        this.angle = angle;
+        state.getAngle()[slot()] = angle;
     }
 
     /**
@@ -112,7 +127,15 @@ public class Individual
      */
     public void rotateBy(double rotationAngle)
     {
-        this.angle += rotationAngle;
+        state.getAngle()[slot()] += rotationAngle;
+    }
+
+    /**
+     * @return The current speed.
+     */
+    public double getSpeed()
+    {
+        return state.getSpeed()[slot()];
     }
 
     /**
@@ -122,24 +145,17 @@ public class Individual
      */
     public void setSpeed(double speed)
     {
-        this.speed = speed;
+        state.getSpeed()[slot()] = speed;
     }
 
     /**
-     * Returns true if the predator is in range of this individual.
+     * Returns true if a predator is in range of this individual.
      *
-     * @return True if the predator is in range of this individual, otherwise false.
+     * @return True if a predator is in range of this individual, otherwise false.
      */
     public boolean isPredatorInRange()
     {
-        if (AppState.getInstance().isPredatorActive())
-        {
-            double dx = AppState.getInstance().getPredator().getX() - x;
-            double dy = AppState.getInstance().getPredator().getY() - y;
-            double dist = Math.sqrt(dx * dx + dy * dy);
-            return dist <= Config.MAX_PREDATOR_DISTANCE;
-        }
-        return false;
+        return AppState.getInstance().isPredatorInRange(getX(), getY());
     }
 
     /**
@@ -150,21 +166,37 @@ public class Individual
      */
     public double getDistanceTo(Individual other)
     {
-        double dx = other.getX() - x;
-        double dy = other.getY() - y;
+        double dx = other.getX() - getX();
+        double dy = other.getY() - getY();
         return Math.sqrt(dx * dx + dy * dy);
     }
 
     /**
-     * Creates an individual with default speed and randomized position and direction.
+     * Creates an individual with default speed and a position and direction drawn from the random stream of the
+     * calling thread, see {@link RandomStreams#current()}.
      *
      * @return The random individual.
      */
     public static Individual createRandomIndividual()
     {
-        double x = Math.random() * CanvasPanel.WIDTH;
-        double y = Math.random() * CanvasPanel.HEIGHT;
-        double angle = Math.random() * 2 * Math.PI;
+        RandomStreams.Stream random = RandomStreams.current();
+        double x = random.nextDouble() * Config.FIELD_WIDTH;
+        double y = random.nextDouble() * Config.FIELD_HEIGHT;
+        double angle = random.nextDouble() * 2 * Math.PI;
+        return new Individual(x, y, angle);
+    }
+
+    /**
+     * Creates an individual with default speed and a position and direction taken from the given generator.
+     *
+     * @param random The random number generator.
+     * @return The random individual.
+     */
+    public static Individual createRandomIndividual(Random random)
+    {
+        double x = random.nextDouble() * Config.FIELD_WIDTH;
+        double y = random.nextDouble() * Config.FIELD_HEIGHT;
+        double angle = random.nextDouble() * 2 * Math.PI;
         return new Individual(x, y, angle);
     }
 }
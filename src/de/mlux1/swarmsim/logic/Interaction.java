@@ -0,0 +1,30 @@
+package de.mlux1.swarmsim.logic;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         How the individuals of one species react to the individuals of another, see
+ *         {@link AppState#setInteraction(int, int, Interaction)}.
+ */
+public enum Interaction
+{
+
+    /**
+     * The other individuals are not looked at.
+     */
+    IGNORE,
+
+    /**
+     * The other individuals are kept at a distance, see {@link Species#getAvoidDistance()}, but neither followed nor
+     * aligned with.
+     */
+    AVOID,
+
+    /**
+     * The other individuals are part of the swarm: they count for separation, alignment and cohesion as individuals of
+     * the own species do.
+     */
+    SCHOOL
+
+}
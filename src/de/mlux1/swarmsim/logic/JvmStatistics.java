@@ -0,0 +1,76 @@
+package de.mlux1.swarmsim.logic;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         Counters of the JVM that tell what the simulation costs besides its own time: the bytes allocated and the
+ *         garbage collections. All counters only grow, rates are the differences between two reads.
+ */
+public class JvmStatistics
+{
+
+    /* Utility class - no constructor visible */
+    private JvmStatistics()
+    {
+    }
+
+    /**
+     * Returns the number of bytes allocated so far by all live threads. Threads that ended are no longer counted.
+     *
+     * @return The number of bytes, or -1 if the JVM does not count allocations per thread.
+     */
+    public static long getAllocatedBytes()
+    {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean))
+            return -1;
+
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        if (!allocations.isThreadAllocatedMemorySupported() || !allocations.isThreadAllocatedMemoryEnabled())
+            return -1;
+
+        long sum = 0;
+        for (long bytes : allocations.getThreadAllocatedBytes(threads.getAllThreadIds()))
+        {
+            if (bytes > 0)
+                sum += bytes;
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the number of garbage collections so far, of all collectors.
+     *
+     * @return The number of collections.
+     */
+    public static long getCollectionCount()
+    {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans())
+        {
+            count += Math.max(collector.getCollectionCount(), 0);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the time spent in garbage collections so far, of all collectors.
+     *
+     * @return The time in milliseconds.
+     */
+    public static long getCollectionTime()
+    {
+        long time = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans())
+        {
+            time += Math.max(collector.getCollectionTime(), 0);
+        }
+        return time;
+    }
+
+}
@@ -0,0 +1,176 @@
+package de.mlux1.swarmsim.logic;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         Histogram of durations in nanoseconds, recorded by one thread and read by another without locks. Every power
+ *         of two is split into {@link #SUB_BUCKETS} buckets, so a percentile read from it is at most 1/{@link #SUB_BUCKETS}
+ *         above the exact one. Recording is an increment of one counter, it does not allocate.
+ *         <p/>
+ *         The histogram counts from its creation on. An {@link Interval} reads what was recorded between two of its
+ *         reads, e.g. the last second.
+ */
+public class LatencyHistogram
+{
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS; //buckets per power of two
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS; //enough for any positive long
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong max = new AtomicLong(); //longest duration since the last interval was read
+    private final AtomicLong total = new AtomicLong(); //sum of all durations, for their mean
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos The duration in nanoseconds, negative ones count as 0.
+     */
+    public void record(long nanos)
+    {
+        long value = Math.max(nanos, 0);
+        counts.incrementAndGet(bucket(value));
+        total.addAndGet(value);
+
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value))
+        {
+            current = max.get();
+        }
+    }
+
+    /**
+     * Returns the bucket of a value.
+     *
+     * @param value The value, not negative.
+     * @return The bucket.
+     */
+    private static int bucket(long value)
+    {
+        if (value < SUB_BUCKETS)
+            return (int) value;
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int mantissa = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + mantissa;
+    }
+
+    /**
+     * Returns the smallest value of a bucket.
+     *
+     * @param bucket The bucket.
+     * @return The smallest value counted in it.
+     */
+    private static long lowestValue(int bucket)
+    {
+        if (bucket < SUB_BUCKETS)
+            return bucket;
+
+        int exponent = bucket / SUB_BUCKETS - 1 + SUB_BUCKET_BITS;
+        int mantissa = bucket % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + mantissa) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    /**
+     * @return The number of durations recorded so far.
+     */
+    public long getCount()
+    {
+        long count = 0;
+        for (int b = 0; b < BUCKETS; b++)
+        {
+            count += counts.get(b);
+        }
+        return count;
+    }
+
+    /**
+     * @return The sum of the durations recorded so far, in nanoseconds.
+     */
+    public long getTotal()
+    {
+        return total.get();
+    }
+
+    /**
+     * Reads the durations recorded into a histogram between two calls of {@link #next()}. Only one interval may be
+     * read from a histogram, since reading resets the longest duration.
+     */
+    public static class Interval
+    {
+
+        private final LatencyHistogram histogram;
+        private final long[] last = new long[BUCKETS]; //counts of the histogram at the end of the interval before
+        private final long[] interval = new long[BUCKETS]; //counts of the current interval
+        private long count;
+        private long max;
+
+        /**
+         * Constructor. The first interval starts now.
+         *
+         * @param histogram The histogram to read.
+         */
+        public Interval(LatencyHistogram histogram)
+        {
+            this.histogram = histogram;
+            next();
+        }
+
+        /**
+         * Ends the current interval and starts the next one.
+         */
+        public void next()
+        {
+            count = 0;
+            for (int b = 0; b < BUCKETS; b++)
+            {
+                long total = histogram.counts.get(b);
+                interval[b] = total - last[b];
+                last[b] = total;
+                count += interval[b];
+            }
+            max = histogram.max.getAndSet(0);
+        }
+
+        /**
+         * @return The number of durations recorded in the interval.
+         */
+        public long getCount()
+        {
+            return count;
+        }
+
+        /**
+         * @return The longest duration recorded in the interval, in nanoseconds, 0 if none was.
+         */
+        public long getMax()
+        {
+            return count > 0 ? max : 0;
+        }
+
+        /**
+         * Returns a percentile of the durations recorded in the interval, as the largest value of its bucket.
+         *
+         * @param percentile The percentile, in (0, 100].
+         * @return The duration in nanoseconds, never above the longest one, 0 if none was recorded.
+         */
+        public long getPercentile(double percentile)
+        {
+            long rank = (long) Math.ceil(count * percentile / 100);
+            long seen = 0;
+            for (int b = 0; b < BUCKETS; b++)
+            {
+                seen += interval[b];
+                if (seen >= rank && seen > 0)
+                    return Math.min(lowestValue(b + 1) - 1, getMax());
+            }
+            return getMax();
+        }
+
+    }
+
+}
@@ -0,0 +1,136 @@
+package de.mlux1.swarmsim.logic;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         Source of all random numbers of a run, derived from a single seed. The numbers are drawn from streams, each of
+ *         which belongs to one partition of one tick: the steering of a chunk of slots, the placement done by the
+ *         simulation thread, or the setup of the run. The seed of a stream is computed from the run seed, the tick and
+ *         the partition alone, so the numbers an individual draws do not depend on which thread steers its chunk, on
+ *         the number of threads or on what other partitions drew before.
+ *         <p/>
+ *         A thread selects its stream by {@link #begin(long, int)} and draws from it by {@link #current()}. Every thread
+ *         keeps one generator that is reseeded for each stream it selects, so drawing creates no garbage. The generator
+ *         is SplitMix64 and draws the same numbers as a {@link java.util.SplittableRandom} of the same seed. Threads
+ *         that never selected a stream draw from an unseeded one.
+ */
+public class RandomStreams
+{
+
+    public static final int SETUP = -1; //partition of the placement at the start of a run
+    public static final int SIMULATION = -2; //partition of the placement between ticks, on the simulation thread
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L; //odd constant to spread ticks and partitions
+
+    //the stream selected by each thread
+    private static final ThreadLocal<Stream> streams = new ThreadLocal<Stream>()
+    {
+        @Override
+        protected Stream initialValue()
+        {
+            return new Stream();
+        }
+    };
+
+    private final long seed;
+
+    /**
+     * Constructor.
+     *
+     * @param seed The seed of the run.
+     */
+    public RandomStreams(long seed)
+    {
+        this.seed = seed;
+    }
+
+    /**
+     * @return The seed of the run.
+     */
+    public long getSeed()
+    {
+        return seed;
+    }
+
+    /**
+     * Selects the stream of a partition of a tick for the calling thread. Selecting the same partition of the same
+     * tick again starts the stream over.
+     *
+     * @param tick      The number of the tick.
+     * @param partition The partition, a chunk number or {@link #SETUP} or {@link #SIMULATION}.
+     */
+    public void begin(long tick, int partition)
+    {
+        Stream stream = streams.get();
+        stream.state = seedOf(tick, partition);
+    }
+
+    /**
+     * Returns the generator of the stream the calling thread selected last.
+     *
+     * @return The generator, only to be used by the calling thread.
+     */
+    public static Stream current()
+    {
+        return streams.get();
+    }
+
+    /**
+     * Computes the seed of the stream of a partition of a tick.
+     *
+     * @param tick      The number of the tick.
+     * @param partition The partition.
+     * @return The seed of the stream.
+     */
+    private long seedOf(long tick, int partition)
+    {
+        return mix(mix(seed + GOLDEN_GAMMA * tick) + GOLDEN_GAMMA * partition);
+    }
+
+    /**
+     * Scrambles the bits of a value, the finalizer of SplitMix64.
+     *
+     * @param z The value.
+     * @return The scrambled value.
+     */
+    private static long mix(long z)
+    {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * The generator of the stream selected by a thread.
+     */
+    public static final class Stream
+    {
+        private long state = ThreadLocalRandom.current().nextLong(); //advanced by GOLDEN_GAMMA on every draw
+
+        private Stream()
+        {
+        }
+
+        /**
+         * @return The next number, uniformly distributed in [0, 1).
+         */
+        public double nextDouble()
+        {
+            return (mix(state += GOLDEN_GAMMA) >>> 11) * 0x1.0p-53;
+        }
+
+        /**
+         * @return The next boolean, true and false being equally likely.
+         */
+        public boolean nextBoolean()
+        {
+            long z = state += GOLDEN_GAMMA;
+            z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+            return (int) (((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32) < 0;
+        }
+    }
+
+}
@@ -0,0 +1,323 @@
+package de.mlux1.swarmsim.logic;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         The parameters of the simulation that can be changed without a rebuild: the tick rate, the radii and
+ *         distances of the individuals and predators, the steering damper and the limits of the swarm size and of the
+ *         detailed painting. Read from a properties file and <code>key=value</code> settings of the command line, e.g.
+ *         <pre>
+ *         frameRate=60
+ *         cohesionRadius=35
+ *         maxNumIndividuals=20000
+ *         </pre>
+ *         Missing keys keep their defaults from {@link Config}, unknown keys and invalid values are rejected as a whole.
+ *         A configuration is immutable; {@link AppState#setConfig(RuntimeConfig)} replaces it before the next tick.
+ */
+public final class RuntimeConfig
+{
+
+    /* keys */
+
+    public static final String FRAME_RATE = "frameRate"; //ticks of the simulation per second
+    public static final String MAX_CATCH_UP_TICKS = "maxCatchUpTicks";
+    public static final String COHESION_RADIUS = "cohesionRadius"; //of every species
+    public static final String ALIGNMENT_RADIUS = "alignmentRadius";
+    public static final String SEPARATION_DISTANCE = "separationDistance";
+    public static final String AVOID_DISTANCE = "avoidDistance";
+    public static final String MAX_PREDATOR_DISTANCE = "maxPredatorDistance";
+    public static final String PREDATOR_KILL_RADIUS = "predatorKillRadius";
+    public static final String STEERING_DAMPER = "steeringDamper";
+    public static final String MAX_NUM_INDIVIDUALS = "maxNumIndividuals"; //of the swarm size slider, read when the window opens
+    public static final String LOD_MIN_INDIVIDUALS = "lodMinIndividuals";
+
+    private static final List<String> KEYS = Arrays.asList(FRAME_RATE, MAX_CATCH_UP_TICKS, COHESION_RADIUS,
+            ALIGNMENT_RADIUS, SEPARATION_DISTANCE, AVOID_DISTANCE, MAX_PREDATOR_DISTANCE, PREDATOR_KILL_RADIUS,
+            STEERING_DAMPER, MAX_NUM_INDIVIDUALS, LOD_MIN_INDIVIDUALS);
+
+    private static final int MAX_FRAME_RATE = 1000;
+    private static final double MAX_DISTANCE = Math.max(Config.FIELD_WIDTH, Config.FIELD_HEIGHT); //longer radii see the whole field
+
+    public static final RuntimeConfig DEFAULTS = new RuntimeConfig(new Properties());
+
+    private final int frameRate;
+    private final int maxCatchUpTicks;
+    private final double cohesionRadius;
+    private final double alignmentRadius;
+    private final double separationDistance;
+    private final double avoidDistance;
+    private final double maxPredatorDistance;
+    private final double predatorKillRadius;
+    private final double steeringDamper;
+    private final int maxNumIndividuals;
+    private final int lodMinIndividuals;
+
+    /**
+     * Constructor.
+     *
+     * @param properties The values by their keys, missing ones take the defaults.
+     * @throws IllegalArgumentException If a key is unknown or a value is no number or out of its range.
+     */
+    public RuntimeConfig(Properties properties)
+    {
+        for (String key : properties.stringPropertyNames())
+        {
+            if (!KEYS.contains(key))
+                throw new IllegalArgumentException("Unknown setting " + key + ", known are " + KEYS);
+        }
+
+        frameRate = getInt(properties, FRAME_RATE, Config.FRAME_RATE, 1, MAX_FRAME_RATE);
+        maxCatchUpTicks = getInt(properties, MAX_CATCH_UP_TICKS, Config.MAX_CATCH_UP_TICKS, 1, MAX_FRAME_RATE);
+        cohesionRadius = getDouble(properties, COHESION_RADIUS, Config.COHESION_RADIUS, 0, MAX_DISTANCE);
+        alignmentRadius = getDouble(properties, ALIGNMENT_RADIUS, Config.ALIGNMENT_RADIUS, 0, MAX_DISTANCE);
+        separationDistance = getDouble(properties, SEPARATION_DISTANCE, Config.SEPARATION_DISTANCE, 0, MAX_DISTANCE);
+        avoidDistance = getDouble(properties, AVOID_DISTANCE, Config.AVOID_DISTANCE, 0, MAX_DISTANCE);
+        maxPredatorDistance = getDouble(properties, MAX_PREDATOR_DISTANCE, Config.MAX_PREDATOR_DISTANCE, 0, MAX_DISTANCE);
+        predatorKillRadius = getDouble(properties, PREDATOR_KILL_RADIUS, Config.PREDATOR_KILL_RADIUS, 0, MAX_DISTANCE);
+        steeringDamper = getDouble(properties, STEERING_DAMPER, Config.STEERING_DAMPER, 0, 1);
+        maxNumIndividuals = getInt(properties, MAX_NUM_INDIVIDUALS, Config.MAX_NUM_INDIVIDUALS,
+                Config.MIN_NUM_INDIVIDUALS + 1, Integer.MAX_VALUE);
+        lodMinIndividuals = getInt(properties, LOD_MIN_INDIVIDUALS, Config.LOD_MIN_INDIVIDUALS, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Reads a configuration from a properties file.
+     *
+     * @param file      The file, null to start from the defaults.
+     * @param overrides Settings that replace the ones of the file, e.g. from the command line.
+     * @return The configuration.
+     * @throws IOException              If the file cannot be read.
+     * @throws IllegalArgumentException If a key is unknown or a value invalid.
+     */
+    public static RuntimeConfig load(File file, Properties overrides) throws IOException
+    {
+        Properties properties = new Properties();
+        if (file != null)
+        {
+            InputStream in = new FileInputStream(file);
+            try
+            {
+                properties.load(in);
+            } finally
+            {
+                in.close();
+            }
+        }
+        properties.putAll(overrides);
+        return new RuntimeConfig(properties);
+    }
+
+    /**
+     * Adds a setting of the command line to the overrides.
+     *
+     * @param setting   The setting, <code>key=value</code>.
+     * @param overrides The overrides.
+     * @throws IllegalArgumentException If the setting has no value.
+     */
+    public static void parseSetting(String setting, Properties overrides)
+    {
+        int separator = setting.indexOf('=');
+        if (separator <= 0)
+            throw new IllegalArgumentException("Expected key=value instead of " + setting);
+
+        overrides.setProperty(setting.substring(0, separator).trim(), setting.substring(separator + 1).trim());
+    }
+
+    /**
+     * Reads an integer value.
+     *
+     * @param properties   The values.
+     * @param key          The key.
+     * @param defaultValue The value if there is none.
+     * @param min          The smallest valid value.
+     * @param max          The largest valid value.
+     * @return The value.
+     * @throws IllegalArgumentException If the value is no integer or out of range.
+     */
+    private static int getInt(Properties properties, String key, int defaultValue, int min, int max)
+    {
+        String value = properties.getProperty(key);
+        if (value == null)
+            return defaultValue;
+
+        try
+        {
+            return (int) checkRange(key, Integer.parseInt(value.trim()), min, max);
+        } catch (NumberFormatException e)
+        {
+            throw new IllegalArgumentException("Invalid integer for " + key + ": " + value);
+        }
+    }
+
+    /**
+     * Reads a decimal value.
+     *
+     * @param properties   The values.
+     * @param key          The key.
+     * @param defaultValue The value if there is none.
+     * @param min          The smallest valid value.
+     * @param max          The largest valid value.
+     * @return The value.
+     * @throws IllegalArgumentException If the value is no number or out of range.
+     */
+    private static double getDouble(Properties properties, String key, double defaultValue, double min, double max)
+    {
+        String value = properties.getProperty(key);
+        if (value == null)
+            return defaultValue;
+
+        try
+        {
+            return checkRange(key, Double.parseDouble(value.trim()), min, max);
+        } catch (NumberFormatException e)
+        {
+            throw new IllegalArgumentException("Invalid number for " + key + ": " + value);
+        }
+    }
+
+    /**
+     * Checks that a value is within its range.
+     *
+     * @param key   The key of the value.
+     * @param value The value.
+     * @param min   The smallest valid value.
+     * @param max   The largest valid value.
+     * @return The value.
+     * @throws IllegalArgumentException If the value is out of range or not a number.
+     */
+    private static double checkRange(String key, double value, double min, double max)
+    {
+        if (!(value >= min && value <= max))
+            throw new IllegalArgumentException(key + " must be within [" + min + ", " + max + "], not " + value);
+
+        return value;
+    }
+
+    /**
+     * @return The ticks of the simulation per second.
+     */
+    public int getFrameRate()
+    {
+        return frameRate;
+    }
+
+    /**
+     * @return The nanoseconds from one tick to the next.
+     */
+    public long getTickDuration()
+    {
+        return 1000000000L / frameRate;
+    }
+
+    /**
+     * @return The ticks from one position of the target to the next, {@link Config#TARGET_TIME_REPOSITION} at the tick
+     *         rate.
+     */
+    public int getTargetRepositionTicks()
+    {
+        return Math.max(Config.TARGET_TIME_REPOSITION * frameRate / 1000, 1);
+    }
+
+    /**
+     * @return The ticks run back to back when the simulation is behind, before the delay is dropped.
+     */
+    public int getMaxCatchUpTicks()
+    {
+        return maxCatchUpTicks;
+    }
+
+    /**
+     * @return The radius within which individuals of the swarm count for cohesion.
+     */
+    public double getCohesionRadius()
+    {
+        return cohesionRadius;
+    }
+
+    /**
+     * @return The radius within which individuals of the swarm count for alignment.
+     */
+    public double getAlignmentRadius()
+    {
+        return alignmentRadius;
+    }
+
+    /**
+     * @return The minimum distance to the nearest individual of the swarm.
+     */
+    public double getSeparationDistance()
+    {
+        return separationDistance;
+    }
+
+    /**
+     * @return The minimum distance to the nearest individual of an avoided species.
+     */
+    public double getAvoidDistance()
+    {
+        return avoidDistance;
+    }
+
+    /**
+     * @return The radius around a predator within which the individuals are aware of it.
+     */
+    public double getMaxPredatorDistance()
+    {
+        return maxPredatorDistance;
+    }
+
+    /**
+     * @return The radius around a predator within which it kills.
+     */
+    public double getPredatorKillRadius()
+    {
+        return predatorKillRadius;
+    }
+
+    /**
+     * @return The part of the wanted turn the individuals turn in a tick.
+     */
+    public double getSteeringDamper()
+    {
+        return steeringDamper;
+    }
+
+    /**
+     * @return The largest swarm size the window offers.
+     */
+    public int getMaxNumIndividuals()
+    {
+        return maxNumIndividuals;
+    }
+
+    /**
+     * @return The swarm size from which the field shows a density heatmap instead of every individual.
+     */
+    public int getLodMinIndividuals()
+    {
+        return lodMinIndividuals;
+    }
+
+    /**
+     * @see Object#toString()
+     */
+    @Override
+    public String toString()
+    {
+        return String.format("%s=%d, %s=%d, %s=%s, %s=%s, %s=%s, %s=%s, %s=%s, %s=%s, %s=%s, %s=%d, %s=%d",
+                FRAME_RATE, frameRate, MAX_CATCH_UP_TICKS, maxCatchUpTicks, COHESION_RADIUS, cohesionRadius,
+                ALIGNMENT_RADIUS, alignmentRadius, SEPARATION_DISTANCE, separationDistance, AVOID_DISTANCE, avoidDistance,
+                MAX_PREDATOR_DISTANCE, maxPredatorDistance, PREDATOR_KILL_RADIUS, predatorKillRadius, STEERING_DAMPER,
+                steeringDamper, MAX_NUM_INDIVIDUALS, maxNumIndividuals, LOD_MIN_INDIVIDUALS, lodMinIndividuals);
+    }
+
+}
@@ -0,0 +1,244 @@
+package de.mlux1.swarmsim.logic;
+
+import de.mlux1.swarmsim.logic.strategy.escape.EscapeStrategy;
+import de.mlux1.swarmsim.logic.strategy.escape.PotentialFieldEscapeStrategy;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         The parameters of one species of the swarm: its size, speed, priorities, radii and escape strategy.
+ *         The parameters may be set from any thread. The simulation reads them once per individual, or at the start of
+ *         a tick for the size and the speed, so a change takes effect with the next tick at the latest.
+ */
+public class Species
+{
+
+    private final String name;
+    private final AtomicInteger size = new AtomicInteger(); //requested number of individuals, applied at the start of the next tick
+    private volatile int speed = Config.DEFAULT_SPEED;
+    private volatile int alignmentPriority = Config.DEFAULT_ALIGNMENT_PRIORITY;
+    private volatile int separationPriority = Config.DEFAULT_SEPARATION_PRIORITY;
+    private volatile int cohesionPriority = Config.DEFAULT_COHESION_PRIORITY;
+    private volatile double cohesionRadius = Config.COHESION_RADIUS;
+    private volatile double alignmentRadius = Config.ALIGNMENT_RADIUS;
+    private volatile double separationDistance = Config.SEPARATION_DISTANCE;
+    private volatile double avoidDistance = Config.AVOID_DISTANCE;
+    private volatile EscapeStrategy escapeStrategy = new PotentialFieldEscapeStrategy(0.5);
+
+    /**
+     * Constructor. All parameters start with their defaults from {@link Config}, the size with 0.
+     *
+     * @param name The name of the species.
+     */
+    public Species(String name)
+    {
+        this.name = name;
+    }
+
+    /**
+     * Returns the radius within which other individuals have to be looked at, with the distance they move in a tick.
+     *
+     * @param avoided True for the individuals of avoided species, false for the ones of the own swarm.
+     * @return The radius of the neighbour queries.
+     */
+    public double getQueryRadius(boolean avoided)
+    {
+        double radius = avoided ? avoidDistance : Math.max(cohesionRadius, Math.max(alignmentRadius, separationDistance));
+        return radius + Config.MAX_SPEED;
+    }
+
+    /**
+     * Shrinks the requested size after individuals were killed.
+     *
+     * @param count The number of killed individuals.
+     */
+    void shrink(int count)
+    {
+        size.addAndGet(-count);
+    }
+
+    /**
+     * @return The name of the species.
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * @return The requested number of individuals.
+     */
+    public int getSize()
+    {
+        return size.get();
+    }
+
+    /**
+     * Sets the number of individuals. It is applied at the start of the next tick.
+     *
+     * @param size The new number of individuals.
+     */
+    public void setSize(int size)
+    {
+        this.size.set(Math.max(size, 0));
+    }
+
+    /**
+     * @return The speed of the individuals.
+     */
+    public int getSpeed()
+    {
+        return speed;
+    }
+
+    /**
+     * Sets the speed of the individuals. It is applied at the start of the next tick.
+     *
+     * @param speed The new speed.
+     */
+    public void setSpeed(int speed)
+    {
+        this.speed = speed;
+    }
+
+    /**
+     * @return The alignment priority.
+     */
+    public int getAlignmentPriority()
+    {
+        return alignmentPriority;
+    }
+
+    /**
+     * @param alignmentPriority The new alignment priority.
+     */
+    public void setAlignmentPriority(int alignmentPriority)
+    {
+        this.alignmentPriority = alignmentPriority;
+    }
+
+    /**
+     * @return The separation priority.
+     */
+    public int getSeparationPriority()
+    {
+        return separationPriority;
+    }
+
+    /**
+     * @param separationPriority The new separation priority.
+     */
+    public void setSeparationPriority(int separationPriority)
+    {
+        this.separationPriority = separationPriority;
+    }
+
+    /**
+     * @return The cohesion priority.
+     */
+    public int getCohesionPriority()
+    {
+        return cohesionPriority;
+    }
+
+    /**
+     * @param cohesionPriority The new cohesion priority.
+     */
+    public void setCohesionPriority(int cohesionPriority)
+    {
+        this.cohesionPriority = cohesionPriority;
+    }
+
+    /**
+     * @return The radius within which individuals of the swarm count for cohesion.
+     */
+    public double getCohesionRadius()
+    {
+        return cohesionRadius;
+    }
+
+    /**
+     * @param cohesionRadius The new cohesion radius.
+     */
+    public void setCohesionRadius(double cohesionRadius)
+    {
+        this.cohesionRadius = cohesionRadius;
+    }
+
+    /**
+     * @return The radius within which individuals of the swarm count for alignment.
+     */
+    public double getAlignmentRadius()
+    {
+        return alignmentRadius;
+    }
+
+    /**
+     * @param alignmentRadius The new alignment radius.
+     */
+    public void setAlignmentRadius(double alignmentRadius)
+    {
+        this.alignmentRadius = alignmentRadius;
+    }
+
+    /**
+     * @return The minimum distance to the nearest individual of the swarm.
+     */
+    public double getSeparationDistance()
+    {
+        return separationDistance;
+    }
+
+    /**
+     * @param separationDistance The new minimum distance to the nearest individual of the swarm.
+     */
+    public void setSeparationDistance(double separationDistance)
+    {
+        this.separationDistance = separationDistance;
+    }
+
+    /**
+     * @return The minimum distance to the nearest individual of an avoided species, see {@link Interaction#AVOID}.
+     */
+    public double getAvoidDistance()
+    {
+        return avoidDistance;
+    }
+
+    /**
+     * @param avoidDistance The new minimum distance to the nearest individual of an avoided species.
+     */
+    public void setAvoidDistance(double avoidDistance)
+    {
+        this.avoidDistance = avoidDistance;
+    }
+
+    /**
+     * @return The escape strategy.
+     */
+    public EscapeStrategy getEscapeStrategy()
+    {
+        return escapeStrategy;
+    }
+
+    /**
+     * @param escapeStrategy The new escape strategy.
+     */
+    public void setEscapeStrategy(EscapeStrategy escapeStrategy)
+    {
+        this.escapeStrategy = escapeStrategy;
+    }
+
+    /**
+     * @see Object#toString()
+     */
+    @Override
+    public String toString()
+    {
+        return name;
+    }
+
+}
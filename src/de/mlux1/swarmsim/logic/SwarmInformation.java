@@ -1,17 +1,51 @@
 package de.mlux1.swarmsim.logic;
 
-import java.util.List;
+import de.mlux1.swarmsim.logic.index.CandidateRanges;
+import de.mlux1.swarmsim.logic.index.NeighborIndex;
+import de.mlux1.swarmsim.logic.kernel.NeighbourKernel;
+import de.mlux1.swarmsim.logic.kernel.NeighbourSums;
 
 /**
  * @author mlux
  *         Date: 03.08.11
  *         <p/>
  *         Helper class for computing statistics about the surrounding swarm for each swarm individual.
+ *         Every thread reuses one instance for all its computations, so a result is only valid until the next
+ *         computation on the same thread.
  */
 public class SwarmInformation
 {
 
-    private double nearestNeighbourDistance;
+    //radius of the neighbour queries with the default radii, which also covers the distance other individuals move
+    //during a tick, see Species#getQueryRadius(boolean)
+    public static final double QUERY_RADIUS = Math.max(Config.COHESION_RADIUS, Config.ALIGNMENT_RADIUS) + Config.MAX_SPEED;
+
+    //reused per thread, since parallel ticks compute from several threads
+    private static final ThreadLocal<CandidateRanges> ranges = new ThreadLocal<CandidateRanges>()
+    {
+        @Override
+        protected CandidateRanges initialValue()
+        {
+            return new CandidateRanges();
+        }
+    };
+
+    private static final ThreadLocal<SwarmInformation> results = new ThreadLocal<SwarmInformation>()
+    {
+        @Override
+        protected SwarmInformation initialValue()
+        {
+            return new SwarmInformation();
+        }
+    };
+
+    private final NeighbourSums sums = new NeighbourSums(); //filled by the neighbour kernel
+    private final NeighbourSums avoidedSums = new NeighbourSums(); //individuals of avoided species, only the nearest counts
+
+    private Species species; //species of the individual
+    private long visitedNeighbours; //neighbour candidates looked at by all computations of the thread
+
+    private double nearestNeighbourDistanceSq;
     private double nearestNeighbourX;
     private double nearestNeighbourY;
     private boolean isNearestNeighbourTooNear;
@@ -20,7 +54,7 @@ public class SwarmInformation
     private double swarmCenterX;
     private double swarmCenterY;
 
-    private double averageAngle;
+    private double averageDx, averageDy; //unit vector of the average heading
 
     /* Factory class - no constructor visible */
     private SwarmInformation()
@@ -28,71 +62,108 @@ public class SwarmInformation
     }
 
     /**
-     * Constructs a new SwarmInformation object with information relevant to compute alignment, separation and cohesion.
+     * Computes the information relevant to compute alignment, separation and cohesion into the SwarmInformation object of
+     * the calling thread.
+     * The neighbours are read from the neighbour columns of the swarm, which hold the last frame for double buffered
+     * ticks. Every species has its own neighbour index, which is queried according to the interaction of the species
+     * of the individual with it: individuals of schooling species count as the own swarm, those of avoided species
+     * only as neighbours that are too near within the avoid distance, and ignored species are not queried at all.
+     * The query radius is at least the radii of the species, so the queries contain every individual that matters.
+     * The nearest neighbour is only searched within the query radius, too. Neighbours further away are never too near.
+     * The candidates are visited by the neighbour kernel of the current tick.
      *
-     * @param individual The individual to compute the information for.
-     * @return The logic.SwarmInformation object for individual.
+     * @param swarm The swarm.
+     * @param slot  The slot of the individual to compute the information for.
+     * @return The logic.SwarmInformation object of the calling thread, valid until its next call.
      */
-    public static SwarmInformation compute(Individual individual)
+    public static SwarmInformation compute(SwarmState swarm, int slot)
     {
-        SwarmInformation result = new SwarmInformation();
-        List<Individual> individuals = AppState.getInstance().getIndividuals();
-
-        /* separation information */
+        SwarmInformation result = results.get();
+        AppState appState = AppState.getInstance();
+        NeighbourKernel kernel = appState.getNeighbourKernel();
 
-        result.nearestNeighbourDistance = Double.MAX_VALUE;
-        Individual nearestNeighbour = null;
-        double allDX = 0, allDY = 0;
-        double centerX = 0, centerY = 0;
-        int cohesionCount = 0;
+        double[] xs = swarm.getNeighbourX();
+        double[] ys = swarm.getNeighbourY();
+        double[] dxs = swarm.getNeighbourDx();
+        double[] dys = swarm.getNeighbourDy();
+        double x = xs[slot];
+        double y = ys[slot];
+        int ownSpecies = swarm.getSpecies(slot);
+        Species species = appState.getSpecies(ownSpecies);
+        result.species = species;
+        CandidateRanges ranges = SwarmInformation.ranges.get();
+        NeighbourSums sums = result.sums;
+        sums.setRadii(species.getCohesionRadius(), species.getAlignmentRadius());
+        sums.reset();
+        NeighbourSums avoidedSums = result.avoidedSums;
+        avoidedSums.setRadii(0, 0);
+        avoidedSums.reset();
 
-        for (Individual otherIndividual : individuals)
+        for (int other = 0; other < swarm.getSpeciesCount(); other++)
         {
-            if (otherIndividual == individual)
+            Interaction interaction = appState.getInteraction(ownSpecies, other);
+            if (interaction == Interaction.IGNORE)
                 continue;
 
-            double dx = otherIndividual.getX() - individual.getX();
-            double dy = otherIndividual.getY() - individual.getY();
-            double distance = Math.sqrt(dx * dx + dy * dy);
-
-            if (distance < result.nearestNeighbourDistance)
+            boolean avoided = interaction == Interaction.AVOID;
+            NeighborIndex index = appState.getNeighborIndex(other);
+            int[] slots = index.getSlots();
+            NeighbourSums target = avoided ? avoidedSums : sums;
+            index.query(x, y, species.getQueryRadius(avoided), ranges);
+            for (int r = 0; r < ranges.size(); r++)
             {
-                result.nearestNeighbourDistance = distance;
-                nearestNeighbour = otherIndividual;
+                kernel.accumulate(xs, ys, dxs, dys, slots, ranges.getStart(r), ranges.getEnd(r), slot, x, y, target);
+                result.visitedNeighbours += ranges.getEnd(r) - ranges.getStart(r);
             }
+        }
 
-            if (distance < Config.COHESION_RADIUS)
-            {
-                centerX += otherIndividual.getX();
-                centerY += otherIndividual.getY();
-                cohesionCount++;
-            }
+        /* separation information */
 
-            if (distance < Config.ALIGNMENT_RADIUS)
-            {
-                allDX += otherIndividual.getDx();
-                allDY += otherIndividual.getDy();
-            }
-        }
+        double separationDistance = species.getSeparationDistance();
+        int nearestNeighbour = sums.getNearest();
+        result.nearestNeighbourDistanceSq = nearestNeighbour < 0 ? Double.MAX_VALUE : sums.getNearestDistanceSq();
+        result.isNearestNeighbourTooNear = nearestNeighbour >= 0 && result.nearestNeighbourDistanceSq < separationDistance * separationDistance;
 
-        result.isNearestNeighbourTooNear = nearestNeighbour == null || result.nearestNeighbourDistance < Config.SEPARATION_DISTANCE;
-        if (nearestNeighbour != null)
+        //an avoided individual within the avoid distance is turned away from, unless one of the swarm is even nearer
+        double avoidDistance = species.getAvoidDistance();
+        int nearestAvoided = avoidedSums.getNearest();
+        if (nearestAvoided >= 0 && avoidedSums.getNearestDistanceSq() < avoidDistance * avoidDistance &&
+                (!result.isNearestNeighbourTooNear || avoidedSums.getNearestDistanceSq() < result.nearestNeighbourDistanceSq))
+        {
+            nearestNeighbour = nearestAvoided;
+            result.nearestNeighbourDistanceSq = avoidedSums.getNearestDistanceSq();
+            result.isNearestNeighbourTooNear = true;
+        }
+        if (nearestNeighbour >= 0)
         {
-            result.nearestNeighbourX = nearestNeighbour.getX();
-            result.nearestNeighbourY = nearestNeighbour.getY();
+            result.nearestNeighbourX = xs[nearestNeighbour];
+            result.nearestNeighbourY = ys[nearestNeighbour];
         }
 
         /* alignment information */
 
-        result.averageAngle = Math.atan2(allDY, allDX);
+        double alignmentX = sums.getAlignmentX();
+        double alignmentY = sums.getAlignmentY();
+        double alignmentLength = Math.sqrt(alignmentX * alignmentX + alignmentY * alignmentY);
+        if (alignmentLength > 0)
+        {
+            result.averageDx = alignmentX / alignmentLength;
+            result.averageDy = alignmentY / alignmentLength;
+        } else
+        {
+            //the heading of angle 0, as the angle of a zero sum
+            result.averageDx = 1;
+            result.averageDy = 0;
+        }
 
         /* cohesion information */
 
+        int cohesionCount = sums.getCohesionCount();
         if (cohesionCount > 0)
         {
             result.seesCohesionNeighbours = true;
-            result.swarmCenterX = centerX / cohesionCount;
-            result.swarmCenterY = centerY / cohesionCount;
+            result.swarmCenterX = sums.getCenterX() / cohesionCount;
+            result.swarmCenterY = sums.getCenterY() / cohesionCount;
         } else
         {
             result.seesCohesionNeighbours = false;
@@ -102,13 +173,35 @@ public class SwarmInformation
     }
 
     /**
-     * Returns the distance to the nearest neighbour.
+     * Returns the number of neighbour candidates the computations of the calling thread have looked at so far. The
+     * difference between two calls is the work of the computations in between.
+     *
+     * @return The number of candidates.
+     */
+    public static long getVisitedNeighbours()
+    {
+        return results.get().visitedNeighbours;
+    }
+
+    /**
+     * Returns the species of the individual.
+     *
+     * @return The species of the individual.
+     */
+    public Species getSpecies()
+    {
+        return species;
+    }
+
+    /**
+     * Returns the distance to the nearest neighbour. That is the nearest individual of the swarm, or the nearest one of
+     * an avoided species if it is too near.
      *
      * @return The distance to the nearest neighbour.
      */
     public double getNearestNeighbourDistance()
     {
-        return nearestNeighbourDistance;
+        return nearestNeighbourDistanceSq == Double.MAX_VALUE ? Double.MAX_VALUE : Math.sqrt(nearestNeighbourDistanceSq);
     }
 
     /**
@@ -148,7 +241,27 @@ public class SwarmInformation
      */
     public double getAverageAngle()
     {
-        return averageAngle;
+        return Math.atan2(averageDy, averageDx);
+    }
+
+    /**
+     * Returns the x component of the unit vector of the average heading of the swarm.
+     *
+     * @return The x component of the average heading.
+     */
+    public double getAverageDx()
+    {
+        return averageDx;
+    }
+
+    /**
+     * Returns the y component of the unit vector of the average heading of the swarm.
+     *
+     * @return The y component of the average heading.
+     */
+    public double getAverageDy()
+    {
+        return averageDy;
     }
 
     /**
@@ -0,0 +1,663 @@
+package de.mlux1.swarmsim.logic;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         Column store for the individuals of a swarm. Every property is kept in its own primitive array, indexed by
+ *         slot, so that loops over the swarm run over consecutive memory. Individuals keep a stable id for their whole
+ *         life, which can be mapped back to the current slot. Ids of removed individuals are reused.
+ *         <p/>
+ *         The individuals are grouped by species: every species occupies one contiguous range of slots, in the order
+ *         the species were added, see {@link #getSpeciesStart(int)}. Slots are dense. Removing an individual moves the
+ *         last one of its species into its slot, and the last one of every following species one group down, so a
+ *         change costs one move per species.
+ *         <p/>
+ *         The column getters return the backing arrays. They are only valid up to {@link #size()} and until the next
+ *         call of {@link #add(int, double, double, double, double)}, which may replace them.
+ *         <p/>
+ *         For double buffered ticks, the positions and headings of the last frame can be copied to a second set of
+ *         columns by {@link #beginTick(boolean)}. Neighbour reads then use the last frame while the individuals
+ *         update their live columns, so the result does not depend on the update order.
+ *         <p/>
+ *         The heading is kept twice: as angle and as unit vector (dx, dy). {@link #update(int)} derives the vector
+ *         from the angle. {@link #turn(int, double, double, double)} and {@link #move(int)} work on the vector alone
+ *         and leave the angle column behind, until {@link #syncAngles()} derives it again.
+ */
+public class SwarmState
+{
+
+    private static final double HALF_PI = Math.PI / 2;
+
+    private int size;
+    private double[] x, y, dx, dy, angle, speed;
+    private int[] ids; //id of the individual in each slot
+    private int[] speciesEnd = new int[]{0}; //slot after the last individual of each species
+    private int speciesCount = 1;
+
+    private double[] lastX = new double[0], lastY = new double[0], lastDx = new double[0], lastDy = new double[0]; //last frame
+    private boolean doubleBuffered = false;
+
+    private int[] slotOfId = new int[0]; //current slot of each id, -1 if unused
+    private int[] generationOfId = new int[0]; //times each id was handed out
+    private int[] freeIds = new int[0]; //stack of released ids
+    private int freeIdCount;
+    private int nextId;
+
+    /**
+     * Constructor.
+     *
+     * @param capacity The initial number of slots.
+     */
+    public SwarmState(int capacity)
+    {
+        capacity = Math.max(capacity, 1);
+        x = new double[capacity];
+        y = new double[capacity];
+        dx = new double[capacity];
+        dy = new double[capacity];
+        angle = new double[capacity];
+        speed = new double[capacity];
+        ids = new int[capacity];
+    }
+
+    /**
+     * Adds an empty species after the existing ones. A swarm starts with one species.
+     *
+     * @return The number of the new species.
+     */
+    public int addSpecies()
+    {
+        if (speciesCount == speciesEnd.length)
+        {
+            speciesEnd = Arrays.copyOf(speciesEnd, speciesCount * 2);
+        }
+        speciesEnd[speciesCount] = size;
+        return speciesCount++;
+    }
+
+    /**
+     * Adds an individual of the first species.
+     *
+     * @param x     The initial x-position.
+     * @param y     The initial y-position.
+     * @param angle The initial heading angle.
+     * @param speed The speed.
+     * @return The slot of the new individual.
+     */
+    public int add(double x, double y, double angle, double speed)
+    {
+        return add(0, x, y, angle, speed);
+    }
+
+    /**
+     * Adds an individual to the end of the group of its species. The first individual of every following species
+     * moves to the end of its group to make room.
+     *
+     * @param species The species.
+     * @param x       The initial x-position.
+     * @param y       The initial y-position.
+     * @param angle   The initial heading angle.
+     * @param speed   The speed.
+     * @return The slot of the new individual.
+     */
+    public int add(int species, double x, double y, double angle, double speed)
+    {
+        if (size == ids.length)
+        {
+            grow(size * 2);
+        }
+
+        int slot = size++;
+        for (int following = speciesCount - 1; following > species; following--)
+        {
+            int first = speciesEnd[following - 1];
+            if (first != slot)
+            {
+                move(first, slot);
+            }
+            slot = first;
+            speciesEnd[following]++;
+        }
+        speciesEnd[species]++;
+
+        int id;
+        if (freeIdCount > 0)
+        {
+            id = freeIds[--freeIdCount];
+        } else
+        {
+            id = nextId++;
+            if (id >= slotOfId.length)
+            {
+                slotOfId = Arrays.copyOf(slotOfId, Math.max(16, slotOfId.length * 2));
+                generationOfId = Arrays.copyOf(generationOfId, slotOfId.length);
+            }
+        }
+        generationOfId[id]++;
+
+        this.x[slot] = x;
+        this.y[slot] = y;
+        this.dx[slot] = Math.cos(angle);
+        this.dy[slot] = Math.sin(angle);
+        this.angle[slot] = angle;
+        this.speed[slot] = speed;
+        ids[slot] = id;
+        slotOfId[id] = slot;
+        return slot;
+    }
+
+    /**
+     * Removes the individual in the given slot by moving the last individual of its species into it, and the last
+     * individual of every following species one slot down. Its id is released.
+     *
+     * @param slot The slot to remove.
+     */
+    public void remove(int slot)
+    {
+        int id = ids[slot];
+        int species = getSpecies(slot);
+        int hole = slot;
+        for (int group = species; group < speciesCount; group++)
+        {
+            //the hole is right before the group, or in it for the own species
+            int last = --speciesEnd[group];
+            if (last != hole)
+            {
+                move(last, hole);
+                hole = last;
+            }
+        }
+        size--;
+        slotOfId[id] = -1;
+
+        if (freeIdCount == freeIds.length)
+        {
+            freeIds = Arrays.copyOf(freeIds, Math.max(16, freeIds.length * 2));
+        }
+        freeIds[freeIdCount++] = id;
+    }
+
+    /**
+     * Moves the individual in a slot to another slot, overwriting it.
+     *
+     * @param from The slot of the individual.
+     * @param to   The new slot.
+     */
+    private void move(int from, int to)
+    {
+        x[to] = x[from];
+        y[to] = y[from];
+        dx[to] = dx[from];
+        dy[to] = dy[from];
+        angle[to] = angle[from];
+        speed[to] = speed[from];
+        ids[to] = ids[from];
+        slotOfId[ids[to]] = to;
+    }
+
+    /**
+     * Resizes all columns.
+     *
+     * @param capacity The new number of slots.
+     */
+    private void grow(int capacity)
+    {
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        dx = Arrays.copyOf(dx, capacity);
+        dy = Arrays.copyOf(dy, capacity);
+        angle = Arrays.copyOf(angle, capacity);
+        speed = Arrays.copyOf(speed, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+    }
+
+    /**
+     * Starts a tick. If double buffered, the current positions and headings are copied as the last frame, which is
+     * then returned by the neighbour getters until the next tick. Otherwise these return the live columns.
+     *
+     * @param doubleBuffered True to read neighbours from the last frame.
+     */
+    public void beginTick(boolean doubleBuffered)
+    {
+        this.doubleBuffered = doubleBuffered;
+        if (doubleBuffered)
+        {
+            if (lastX.length < size)
+            {
+                lastX = new double[x.length];
+                lastY = new double[x.length];
+                lastDx = new double[x.length];
+                lastDy = new double[x.length];
+            }
+            System.arraycopy(x, 0, lastX, 0, size);
+            System.arraycopy(y, 0, lastY, 0, size);
+            System.arraycopy(dx, 0, lastDx, 0, size);
+            System.arraycopy(dy, 0, lastDy, 0, size);
+        }
+    }
+
+    /**
+     * Update the position of an individual from its current speed and heading.
+     *
+     * @param slot The slot of the individual.
+     */
+    public void update(int slot)
+    {
+        dx[slot] = Math.cos(angle[slot]);
+        dy[slot] = Math.sin(angle[slot]);
+
+        x[slot] += dx[slot] * speed[slot];
+        y[slot] += dy[slot] * speed[slot];
+    }
+
+    /**
+     * Update the position of an individual from its current speed and heading vector, without touching the angle.
+     *
+     * @param slot The slot of the individual.
+     */
+    public void move(int slot)
+    {
+        x[slot] += dx[slot] * speed[slot];
+        y[slot] += dy[slot] * speed[slot];
+    }
+
+    /**
+     * Rotates the heading vector of an individual towards a direction, by the given part of the angle between both.
+     * Needs no trigonometric functions: the angle is taken from a polynomial arc tangent, the rotation from short
+     * series, which are exact for the small rotations of damped steering. With the default damper of
+     * {@link Config#STEERING_DAMPER}, the result is off by less than 2e-7 radians from the exactly rotated heading,
+     * measured over 1e7 random headings and directions; larger dampers rotate further and lose accuracy in the series.
+     * The heading is renormalized afterwards, so rounding errors do not add up over the ticks.
+     * A zero direction keeps the heading.
+     *
+     * @param slot     The slot of the individual.
+     * @param targetDx The x component of the direction, need not be normalized.
+     * @param targetDy The y component of the direction, need not be normalized.
+     * @param damper   The part of the angle to rotate by.
+     */
+    public void turn(int slot, double targetDx, double targetDy, double damper)
+    {
+        double hx = dx[slot];
+        double hy = dy[slot];
+
+        //cosine and sine of the angle between heading and target, both scaled by the length of the target
+        double cos = hx * targetDx + hy * targetDy;
+        double sin = hx * targetDy - hy * targetDx;
+        if (cos == 0 && sin == 0)
+            return;
+
+        double rotation = atan2(sin, cos) * damper;
+        double rotation2 = rotation * rotation;
+        double rotationSin = rotation * (1 - rotation2 / 6 * (1 - rotation2 / 20 * (1 - rotation2 / 42)));
+        double rotationCos = 1 - rotation2 / 2 * (1 - rotation2 / 12 * (1 - rotation2 / 30));
+
+        double nx = hx * rotationCos - hy * rotationSin;
+        double ny = hx * rotationSin + hy * rotationCos;
+        //one newton step towards length 1 is enough, since the length is always close to it
+        double scale = (3 - (nx * nx + ny * ny)) / 2;
+        dx[slot] = nx * scale;
+        dy[slot] = ny * scale;
+    }
+
+    /**
+     * Arc tangent of y/x in (-PI, PI] by a polynomial on the octant, off by less than 2e-6 radians. The rotation of
+     * {@link #turn(int, double, double, double)} only takes the damped part of this error.
+     *
+     * @param y The y coordinate.
+     * @param x The x coordinate.
+     * @return The angle of (x, y).
+     */
+    private static double atan2(double y, double x)
+    {
+        double absX = Math.abs(x);
+        double absY = Math.abs(y);
+        boolean steep = absY > absX;
+        double z = steep ? absX / absY : absY / absX;
+        double z2 = z * z;
+        double angle = z * (0.99997726 + z2 * (-0.33262347 + z2 * (0.19354346 + z2 * (-0.11643287 + z2 * (0.05265332 + z2 * -0.01172120)))));
+        if (steep)
+            angle = HALF_PI - angle;
+        if (x < 0)
+            angle = Math.PI - angle;
+        return y < 0 ? -angle : angle;
+    }
+
+    /**
+     * Derives the angle column from the heading vectors, after they were changed by
+     * {@link #turn(int, double, double, double)}.
+     */
+    public void syncAngles()
+    {
+        for (int slot = 0; slot < size; slot++)
+        {
+            angle[slot] = Math.atan2(dy[slot], dx[slot]);
+        }
+    }
+
+    /**
+     * @return The number of individuals.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * @return The number of species.
+     */
+    public int getSpeciesCount()
+    {
+        return speciesCount;
+    }
+
+    /**
+     * Returns the first slot of a species.
+     *
+     * @param species The species.
+     * @return The first slot of its individuals.
+     */
+    public int getSpeciesStart(int species)
+    {
+        return species == 0 ? 0 : speciesEnd[species - 1];
+    }
+
+    /**
+     * Returns the slot after the last individual of a species.
+     *
+     * @param species The species.
+     * @return The slot after its individuals.
+     */
+    public int getSpeciesEnd(int species)
+    {
+        return speciesEnd[species];
+    }
+
+    /**
+     * Returns the species of the individual in a slot.
+     *
+     * @param slot The slot.
+     * @return The species.
+     */
+    public int getSpecies(int slot)
+    {
+        int species = 0;
+        while (slot >= speciesEnd[species])
+        {
+            species++;
+        }
+        return species;
+    }
+
+    /**
+     * @return The x-positions.
+     */
+    public double[] getX()
+    {
+        return x;
+    }
+
+    /**
+     * @return The y-positions.
+     */
+    public double[] getY()
+    {
+        return y;
+    }
+
+    /**
+     * @return The x-Diffs of the last update, or the initial heading.
+     */
+    public double[] getDx()
+    {
+        return dx;
+    }
+
+    /**
+     * @return The y-Diffs of the last update, or the initial heading.
+     */
+    public double[] getDy()
+    {
+        return dy;
+    }
+
+    /**
+     * @return The x-positions to read neighbours from, see {@link #beginTick(boolean)}.
+     */
+    public double[] getNeighbourX()
+    {
+        return doubleBuffered ? lastX : x;
+    }
+
+    /**
+     * @return The y-positions to read neighbours from, see {@link #beginTick(boolean)}.
+     */
+    public double[] getNeighbourY()
+    {
+        return doubleBuffered ? lastY : y;
+    }
+
+    /**
+     * @return The x-Diffs to read neighbours from, see {@link #beginTick(boolean)}.
+     */
+    public double[] getNeighbourDx()
+    {
+        return doubleBuffered ? lastDx : dx;
+    }
+
+    /**
+     * @return The y-Diffs to read neighbours from, see {@link #beginTick(boolean)}.
+     */
+    public double[] getNeighbourDy()
+    {
+        return doubleBuffered ? lastDy : dy;
+    }
+
+    /**
+     * @return The heading angles.
+     */
+    public double[] getAngle()
+    {
+        return angle;
+    }
+
+    /**
+     * @return The speeds.
+     */
+    public double[] getSpeed()
+    {
+        return speed;
+    }
+
+    /**
+     * Returns the stable id of the individual in the given slot.
+     *
+     * @param slot The slot.
+     * @return The id.
+     */
+    public int getId(int slot)
+    {
+        return ids[slot];
+    }
+
+    /**
+     * Returns the current slot of the individual with the given id.
+     *
+     * @param id The id.
+     * @return The slot, or -1 if there is no individual with this id.
+     */
+    public int getSlot(int id)
+    {
+        return id < slotOfId.length ? slotOfId[id] : -1;
+    }
+
+    /**
+     * Returns how often an id was handed out. Ids of removed individuals are reused, so data kept by id elsewhere can
+     * store the generation along with it to tell the new individual from the removed one.
+     *
+     * @param id The id.
+     * @return The generation of the id, 0 if it was never used.
+     */
+    public int getGeneration(int id)
+    {
+        return id < generationOfId.length ? generationOfId[id] : 0;
+    }
+
+    /**
+     * Returns the number of ids handed out so far. All ids are below this bound.
+     *
+     * @return The id bound.
+     */
+    public int getIdBound()
+    {
+        return nextId;
+    }
+
+    /**
+     * Sets the speed of all individuals.
+     *
+     * @param speed The new speed.
+     */
+    public void setSpeed(double speed)
+    {
+        Arrays.fill(this.speed, 0, size, speed);
+    }
+
+    /**
+     * Sets the speed of all individuals of a species.
+     *
+     * @param species The species.
+     * @param speed   The new speed.
+     */
+    public void setSpeed(int species, double speed)
+    {
+        Arrays.fill(this.speed, getSpeciesStart(species), speciesEnd[species], speed);
+    }
+
+    /**
+     * Writes all individuals and the bookkeeping of their ids to a checkpoint.
+     *
+     * @param out The checkpoint.
+     */
+    void writeTo(CheckpointOutput out)
+    {
+        out.putInt(size);
+        out.putInt(speciesCount);
+        out.putInts(speciesEnd, speciesCount);
+        out.putDoubles(x, size);
+        out.putDoubles(y, size);
+        out.putDoubles(dx, size);
+        out.putDoubles(dy, size);
+        out.putDoubles(angle, size);
+        out.putDoubles(speed, size);
+        out.putInts(ids, size);
+        out.putInt(nextId);
+        out.putInts(generationOfId, nextId);
+        out.putInt(freeIdCount);
+        out.putInts(freeIds, freeIdCount);
+    }
+
+    /**
+     * Replaces all individuals by the ones of a checkpoint written by {@link #writeTo(CheckpointOutput)}. Ids are
+     * handed out in the same order afterwards.
+     *
+     * @param in The checkpoint.
+     * @throws IOException If the checkpoint cannot be read.
+     */
+    void readFrom(CheckpointInput in) throws IOException
+    {
+        int newSize = in.getCount(Integer.MAX_VALUE);
+        if (ids.length < newSize)
+        {
+            grow(newSize);
+        }
+        size = newSize;
+        speciesCount = in.getCount(Integer.MAX_VALUE);
+        if (speciesCount < 1)
+        {
+            throw new IOException("The checkpoint is damaged: a swarm without species");
+        }
+        if (speciesEnd.length < speciesCount)
+        {
+            speciesEnd = new int[speciesCount];
+        }
+        in.getInts(speciesEnd, speciesCount);
+        for (int s = 0; s < speciesCount; s++)
+        {
+            if (speciesEnd[s] < (s == 0 ? 0 : speciesEnd[s - 1]) || speciesEnd[s] > size)
+            {
+                throw new IOException("The checkpoint is damaged: invalid end " + speciesEnd[s] + " of species " + s);
+            }
+        }
+        if (speciesEnd[speciesCount - 1] != size)
+        {
+            throw new IOException("The checkpoint is damaged: the species do not cover the swarm");
+        }
+        in.getDoubles(x, size);
+        in.getDoubles(y, size);
+        in.getDoubles(dx, size);
+        in.getDoubles(dy, size);
+        in.getDoubles(angle, size);
+        in.getDoubles(speed, size);
+        in.getInts(ids, size);
+
+        nextId = in.getCount(Integer.MAX_VALUE);
+        slotOfId = new int[Math.max(16, nextId)];
+        generationOfId = new int[slotOfId.length];
+        in.getInts(generationOfId, nextId);
+        Arrays.fill(slotOfId, -1);
+        for (int slot = 0; slot < size; slot++)
+        {
+            if (ids[slot] < 0 || ids[slot] >= nextId)
+            {
+                throw new IOException("The checkpoint is damaged: invalid id " + ids[slot]);
+            }
+            slotOfId[ids[slot]] = slot;
+        }
+        freeIdCount = in.getCount(nextId);
+        freeIds = new int[Math.max(16, freeIdCount)];
+        in.getInts(freeIds, freeIdCount);
+        for (int i = 0; i < freeIdCount; i++)
+        {
+            if (freeIds[i] < 0 || freeIds[i] >= nextId || slotOfId[freeIds[i]] >= 0)
+            {
+                throw new IOException("The checkpoint is damaged: invalid free id " + freeIds[i]);
+            }
+        }
+        doubleBuffered = false;
+    }
+
+    /**
+     * Replaces all individuals by the ones of another swarm, whose columns are taken over. The other swarm must not be
+     * used afterwards.
+     *
+     * @param other The swarm, e.g. read completely by {@link #readFrom(CheckpointInput)} before replacing the live one.
+     */
+    void replaceBy(SwarmState other)
+    {
+        size = other.size;
+        x = other.x;
+        y = other.y;
+        dx = other.dx;
+        dy = other.dy;
+        angle = other.angle;
+        speed = other.speed;
+        ids = other.ids;
+        speciesEnd = other.speciesEnd;
+        speciesCount = other.speciesCount;
+        lastX = other.lastX;
+        lastY = other.lastY;
+        lastDx = other.lastDx;
+        lastDy = other.lastDy;
+        doubleBuffered = other.doubleBuffered;
+        slotOfId = other.slotOfId;
+        generationOfId = other.generationOfId;
+        freeIds = other.freeIds;
+        freeIdCount = other.freeIdCount;
+        nextId = other.nextId;
+    }
+
+}
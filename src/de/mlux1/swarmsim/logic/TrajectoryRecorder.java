@@ -0,0 +1,520 @@
+package de.mlux1.swarmsim.logic;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         Records the frame of every tick into a binary file, to be played back by a {@link TrajectoryReplay}.
+ *         Attached by {@link AppState#setRecorder(TrajectoryRecorder)}, it gets every frame before it is published.
+ *         The simulation thread only copies the frame into one of {@link Config#RECORD_BUFFERED_TICKS} buffers; a
+ *         thread of the recorder encodes them. If all buffers are full, the tick is left out of the recording.
+ *         <p/>
+ *         The file is written through memory mapped segments of {@link #SEGMENT_SIZE} bytes, no record crosses the end
+ *         of one. Every tick is one record: a keyframe holds id, position, heading and speed of every individual, the
+ *         records in between only the movement since the tick before, in steps of 1/{@link #POSITION_SCALE} pixels,
+ *         and the heading. Positions are quantized against the positions a reader reconstructs, so the error does not
+ *         add up between keyframes. A keyframe is written every {@link Config#RECORD_KEYFRAME_INTERVAL} ticks, and
+ *         whenever the swarm changed otherwise than by moving: after kills, resizes, speed changes and left out ticks.
+ *         <p/>
+ *         Closing the recorder appends the index, the offsets of the record and of its keyframe for every tick, which
+ *         lets a reader seek to any tick directly.
+ */
+public class TrajectoryRecorder implements Closeable
+{
+
+    static final int MAGIC = 0x53575452; //"SWTR"
+    static final int VERSION = 1;
+    static final int SEGMENT_SIZE = 64 << 20; //bytes mapped at once
+    static final int HEADER_SIZE = 64; //reserved at the start of the first segment
+    static final int INDEX_ENTRY_SIZE = 16; //offset of the record and of its keyframe, per tick
+    static final float POSITION_SCALE = 256; //steps per pixel of the movement between keyframes
+    static final double HEADING_SCALE = 32768 / Math.PI; //steps per radian of the headings
+
+    //record types, padding fills the rest of a segment
+    static final byte PADDING = 0;
+    static final byte KEYFRAME = 1;
+    static final byte DELTA = 2;
+
+    static final int RECORD_HEADER_SIZE = 24; //type, tick, size, target, manual target control, predator flag and count
+    static final int PREDATOR_SIZE = 24; //position, heading, position before the tick and age of the last kill
+    static final int KEYFRAME_INDIVIDUAL_SIZE = 18; //id, position, heading and speed
+    static final int DELTA_INDIVIDUAL_SIZE = 6; //movement and heading
+
+    //positions of the header fields
+    static final int HEADER_MAGIC = 0;
+    static final int HEADER_VERSION = 4;
+    static final int HEADER_SEGMENT_SIZE = 8;
+    static final int HEADER_KEYFRAME_INTERVAL = 12;
+    static final int HEADER_TICK_DURATION = 16;
+    static final int HEADER_FIRST_TICK = 24;
+    static final int HEADER_TICKS = 32;
+    static final int HEADER_INDEX_OFFSET = 40; //0 until the recorder is closed
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header; //the first segment, the header is written to by absolute positions
+    private final int keyframeInterval;
+    private MappedByteBuffer segment; //the segment written to
+    private long segmentStart; //offset of the segment in the file
+
+    private final BlockingQueue<Snapshot> free; //buffers the simulation thread may fill
+    private final BlockingQueue<Snapshot> filled; //buffers waiting to be encoded, in the order of their ticks
+    private final Snapshot end = new Snapshot(); //queued by close() after the last tick
+    private final Thread writer;
+    private volatile boolean closed = false;
+    private volatile long droppedTicks; //only incremented by the simulation thread
+    private volatile IOException failure; //stops the writer
+
+    //state of the writer thread
+    private long firstTick = -1;
+    private long lastTick = Long.MIN_VALUE; //so that the first tick never follows it
+    private int ticksSinceKeyframe;
+    private long keyframeOffset;
+    private long[] recordOffsets = new long[1024]; //by tick from the first tick on, -1 for left out ticks
+    private long[] keyframeOffsets = new long[1024];
+    private int recordedSize; //the swarm as a reader reconstructs it from the last record
+    private int[] recordedIds = new int[0];
+    private float[] recordedX = new float[0], recordedY = new float[0], recordedSpeed = new float[0];
+    private short[] movedX = new short[0], movedY = new short[0]; //quantized movement of the current delta
+
+    /**
+     * Constructor. Creates the file, replacing an existing one, and starts the thread that encodes the ticks.
+     *
+     * @param file             The file to record to.
+     * @param keyframeInterval The ticks from one keyframe to the next, see {@link Config#RECORD_KEYFRAME_INTERVAL}.
+     * @throws IOException If the file cannot be created.
+     */
+    public TrajectoryRecorder(File file, int keyframeInterval) throws IOException
+    {
+        this.keyframeInterval = Math.max(keyframeInterval, 1);
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT_SIZE);
+        header = segment;
+        header.putInt(HEADER_MAGIC, MAGIC);
+        header.putInt(HEADER_VERSION, VERSION);
+        header.putInt(HEADER_SEGMENT_SIZE, SEGMENT_SIZE);
+        header.putInt(HEADER_KEYFRAME_INTERVAL, this.keyframeInterval);
+        header.putLong(HEADER_TICK_DURATION, AppState.getInstance().getConfig().getTickDuration());
+        header.putLong(HEADER_INDEX_OFFSET, 0);
+        segment.position(HEADER_SIZE);
+
+        free = new ArrayBlockingQueue<Snapshot>(Config.RECORD_BUFFERED_TICKS);
+        filled = new ArrayBlockingQueue<Snapshot>(Config.RECORD_BUFFERED_TICKS + 1);
+        for (int i = 0; i < Config.RECORD_BUFFERED_TICKS; i++)
+        {
+            free.add(new Snapshot());
+        }
+
+        writer = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                write();
+            }
+        }, "trajectory-recorder");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Hands the frame of a tick to the recorder. Only copies the frame, or leaves the tick out if the recorder is
+     * behind. Only to be called by the simulation thread, with increasing ticks.
+     *
+     * @param frame The frame, not yet published.
+     */
+    public void capture(Frame frame)
+    {
+        if (closed)
+            return;
+
+        Snapshot snapshot = free.poll();
+        if (snapshot == null)
+        {
+            droppedTicks++;
+            return;
+        }
+        snapshot.copy(frame, System.currentTimeMillis());
+        filled.add(snapshot);
+    }
+
+    /**
+     * Returns the number of ticks left out because the recorder fell too far behind.
+     *
+     * @return The number of left out ticks.
+     */
+    public long getDroppedTicks()
+    {
+        return droppedTicks;
+    }
+
+    /**
+     * Encodes the captured ticks until the recorder is closed. Runs on the thread of the recorder.
+     */
+    private void write()
+    {
+        try
+        {
+            Snapshot snapshot;
+            while ((snapshot = filled.take()) != end)
+            {
+                if (failure == null)
+                {
+                    encode(snapshot);
+                }
+                free.add(snapshot);
+            }
+        } catch (InterruptedException e)
+        {
+            failure = new IOException("The recorder was interrupted");
+        } catch (IOException e)
+        {
+            failure = e;
+        } catch (RuntimeException e)
+        {
+            failure = new IOException(e);
+        }
+    }
+
+    /**
+     * Writes the record of a tick.
+     *
+     * @param snapshot The tick.
+     * @throws IOException If the file cannot be extended.
+     */
+    private void encode(Snapshot snapshot) throws IOException
+    {
+        if (snapshot.tick <= lastTick)
+            return; //the simulation was restarted, the recording only covers the first run
+
+        boolean keyframe = snapshot.tick != lastTick + 1 || ticksSinceKeyframe + 1 >= keyframeInterval
+                || !isRecordedSwarm(snapshot) || !quantizeMovement(snapshot);
+        int size = RECORD_HEADER_SIZE + snapshot.predatorCount * PREDATOR_SIZE + 4 + snapshot.killCount * 4
+                + snapshot.size * (keyframe ? KEYFRAME_INDIVIDUAL_SIZE : DELTA_INDIVIDUAL_SIZE);
+        long offset = reserve(size);
+
+        MappedByteBuffer out = segment;
+        out.put(keyframe ? KEYFRAME : DELTA);
+        out.putLong(snapshot.tick);
+        out.putInt(snapshot.size);
+        out.putFloat(snapshot.targetX);
+        out.putFloat(snapshot.targetY);
+        out.put((byte) (snapshot.manualTargetControl ? 1 : 0));
+        out.put((byte) (snapshot.predatorActive ? 1 : 0));
+        out.put((byte) snapshot.predatorCount);
+        for (int p = 0; p < snapshot.predatorCount; p++)
+        {
+            out.putFloat(snapshot.predatorX[p]);
+            out.putFloat(snapshot.predatorY[p]);
+            out.putFloat(snapshot.predatorAngle[p]);
+            out.putFloat(snapshot.previousPredatorX[p]);
+            out.putFloat(snapshot.previousPredatorY[p]);
+            out.putInt(snapshot.predatorKillAge[p]);
+        }
+        out.putInt(snapshot.killCount);
+        for (int i = 0; i < snapshot.killCount; i++)
+        {
+            out.putInt(snapshot.killedIds[i]);
+        }
+
+        if (keyframe)
+        {
+            if (recordedX.length < snapshot.size)
+            {
+                recordedIds = new int[snapshot.ids.length];
+                recordedX = new float[snapshot.ids.length];
+                recordedY = new float[snapshot.ids.length];
+                recordedSpeed = new float[snapshot.ids.length];
+            }
+            for (int i = 0; i < snapshot.size; i++)
+            {
+                out.putInt(snapshot.ids[i]);
+                out.putFloat(snapshot.x[i]);
+                out.putFloat(snapshot.y[i]);
+                out.putShort(encodeHeading(snapshot.dx[i], snapshot.dy[i]));
+                out.putFloat(snapshot.speed[i]);
+            }
+            System.arraycopy(snapshot.ids, 0, recordedIds, 0, snapshot.size);
+            System.arraycopy(snapshot.x, 0, recordedX, 0, snapshot.size);
+            System.arraycopy(snapshot.y, 0, recordedY, 0, snapshot.size);
+            System.arraycopy(snapshot.speed, 0, recordedSpeed, 0, snapshot.size);
+            recordedSize = snapshot.size;
+            keyframeOffset = offset;
+            ticksSinceKeyframe = 0;
+        } else
+        {
+            for (int i = 0; i < snapshot.size; i++)
+            {
+                out.putShort(movedX[i]);
+                out.putShort(movedY[i]);
+                out.putShort(encodeHeading(snapshot.dx[i], snapshot.dy[i]));
+                //the same steps as the reader, so that both end up at the same positions
+                recordedX[i] += movedX[i] / POSITION_SCALE;
+                recordedY[i] += movedY[i] / POSITION_SCALE;
+            }
+            ticksSinceKeyframe++;
+        }
+
+        index(snapshot.tick, offset);
+    }
+
+    /**
+     * Returns true if the swarm of a tick consists of the recorded individuals in the same slots with the same speeds,
+     * so that it can be written as their movement.
+     *
+     * @param snapshot The tick.
+     * @return True if only the positions and headings changed.
+     */
+    private boolean isRecordedSwarm(Snapshot snapshot)
+    {
+        if (snapshot.size != recordedSize)
+            return false;
+
+        for (int i = 0; i < snapshot.size; i++)
+        {
+            if (snapshot.ids[i] != recordedIds[i] || snapshot.speed[i] != recordedSpeed[i])
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Quantizes the movement of every individual from its recorded position.
+     *
+     * @param snapshot The tick.
+     * @return False if an individual moved too far to be written as a movement.
+     */
+    private boolean quantizeMovement(Snapshot snapshot)
+    {
+        if (movedX.length < snapshot.size)
+        {
+            movedX = new short[snapshot.ids.length];
+            movedY = new short[snapshot.ids.length];
+        }
+        for (int i = 0; i < snapshot.size; i++)
+        {
+            int stepsX = Math.round((snapshot.x[i] - recordedX[i]) * POSITION_SCALE);
+            int stepsY = Math.round((snapshot.y[i] - recordedY[i]) * POSITION_SCALE);
+            if (stepsX < Short.MIN_VALUE || stepsX > Short.MAX_VALUE || stepsY < Short.MIN_VALUE || stepsY > Short.MAX_VALUE)
+                return false;
+
+            movedX[i] = (short) stepsX;
+            movedY[i] = (short) stepsY;
+        }
+        return true;
+    }
+
+    /**
+     * Quantizes a heading to its angle.
+     *
+     * @param dx The x component of the heading.
+     * @param dy The y component of the heading.
+     * @return The angle in steps of 1/{@link #HEADING_SCALE} radians.
+     */
+    static short encodeHeading(float dx, float dy)
+    {
+        long steps = Math.round(Math.atan2(dy, dx) * HEADING_SCALE);
+        return (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, steps));
+    }
+
+    /**
+     * Makes room for a record in the current segment, or maps the next one if it does not fit.
+     *
+     * @param size The size of the record.
+     * @return The offset of the record in the file.
+     * @throws IOException If the file cannot be extended, or the record is larger than a segment.
+     */
+    private long reserve(int size) throws IOException
+    {
+        if (size > SEGMENT_SIZE - HEADER_SIZE)
+        {
+            throw new IOException("A tick of " + size + " bytes does not fit into a segment of the recording");
+        }
+        if (segment.remaining() < size)
+        {
+            //the rest of the segment stays zero, which reads as padding
+            segmentStart += SEGMENT_SIZE;
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, segmentStart, SEGMENT_SIZE);
+        }
+        return segmentStart + segment.position();
+    }
+
+    /**
+     * Adds a record to the index. Ticks left out since the last record get no offset.
+     *
+     * @param tick   The tick of the record.
+     * @param offset The offset of the record.
+     */
+    private void index(long tick, long offset)
+    {
+        if (firstTick < 0)
+        {
+            firstTick = tick;
+        }
+        int entry = (int) (tick - firstTick);
+        if (entry >= recordOffsets.length)
+        {
+            int capacity = Math.max(entry + 1, recordOffsets.length * 2);
+            recordOffsets = Arrays.copyOf(recordOffsets, capacity);
+            keyframeOffsets = Arrays.copyOf(keyframeOffsets, capacity);
+        }
+        for (long t = lastTick + 1; t < tick && lastTick >= firstTick; t++)
+        {
+            recordOffsets[(int) (t - firstTick)] = -1;
+            keyframeOffsets[(int) (t - firstTick)] = -1;
+        }
+        recordOffsets[entry] = offset;
+        keyframeOffsets[entry] = keyframeOffset;
+        lastTick = tick;
+    }
+
+    /**
+     * Stops the recording: waits until the captured ticks are written, appends the index and closes the file. Detach
+     * the recorder from the simulation first, later ticks are not recorded.
+     *
+     * @throws IOException If the recording could not be written.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        if (closed)
+            return;
+
+        closed = true;
+        filled.add(end);
+        try
+        {
+            writer.join();
+        } catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        try
+        {
+            if (failure != null)
+                throw failure;
+
+            long dataEnd = segmentStart + segment.position();
+            int ticks = firstTick < 0 ? 0 : (int) (lastTick - firstTick + 1);
+            MappedByteBuffer index = channel.map(FileChannel.MapMode.READ_WRITE, dataEnd, (long) ticks * INDEX_ENTRY_SIZE);
+            for (int i = 0; i < ticks; i++)
+            {
+                index.putLong(recordOffsets[i]);
+                index.putLong(keyframeOffsets[i]);
+            }
+            index.force();
+            segment.force();
+            header.putLong(HEADER_FIRST_TICK, Math.max(firstTick, 0));
+            header.putLong(HEADER_TICKS, ticks);
+            header.putLong(HEADER_INDEX_OFFSET, dataEnd);
+            header.force();
+
+            try
+            {
+                //the mapping extended the file to whole segments
+                channel.truncate(dataEnd + (long) ticks * INDEX_ENTRY_SIZE);
+            } catch (IOException e)
+            {
+                //some platforms cannot truncate mapped files, the reader does not need it
+            }
+        } finally
+        {
+            channel.close();
+        }
+    }
+
+    /**
+     * The copy of a frame waiting to be encoded.
+     */
+    private static class Snapshot
+    {
+        private long tick;
+        private int size;
+        private int[] ids = new int[0];
+        private float[] x = new float[0], y = new float[0], dx = new float[0], dy = new float[0], speed = new float[0];
+
+        private boolean predatorActive;
+        private int predatorCount;
+        private float[] predatorX = new float[0], predatorY = new float[0], predatorAngle = new float[0];
+        private float[] previousPredatorX = new float[0], previousPredatorY = new float[0];
+        private int[] predatorKillAge = new int[0]; //milliseconds since the last kill
+
+        private float targetX, targetY;
+        private boolean manualTargetControl;
+
+        private int killCount;
+        private int[] killedIds = new int[16];
+
+        /**
+         * Copies a frame.
+         *
+         * @param frame The frame.
+         * @param now   The current System.currentTimeMillis(), to keep the kill times relative.
+         */
+        private void copy(Frame frame, long now)
+        {
+            tick = frame.getTick();
+            size = frame.size();
+            if (ids.length < size)
+            {
+                int capacity = size + size / 2;
+                ids = new int[capacity];
+                x = new float[capacity];
+                y = new float[capacity];
+                dx = new float[capacity];
+                dy = new float[capacity];
+                speed = new float[capacity];
+            }
+            System.arraycopy(frame.getIds(), 0, ids, 0, size);
+            System.arraycopy(frame.getX(), 0, x, 0, size);
+            System.arraycopy(frame.getY(), 0, y, 0, size);
+            System.arraycopy(frame.getDx(), 0, dx, 0, size);
+            System.arraycopy(frame.getDy(), 0, dy, 0, size);
+            System.arraycopy(frame.getSpeed(), 0, speed, 0, size);
+
+            predatorActive = frame.isPredatorActive();
+            predatorCount = frame.getPredatorCount();
+            if (predatorX.length < predatorCount)
+            {
+                predatorX = new float[predatorCount];
+                predatorY = new float[predatorCount];
+                predatorAngle = new float[predatorCount];
+                previousPredatorX = new float[predatorCount];
+                previousPredatorY = new float[predatorCount];
+                predatorKillAge = new int[predatorCount];
+            }
+            for (int p = 0; p < predatorCount; p++)
+            {
+                predatorX[p] = (float) frame.getPredatorX(p);
+                predatorY[p] = (float) frame.getPredatorY(p);
+                predatorAngle[p] = (float) frame.getPredatorAngle(p);
+                previousPredatorX[p] = (float) frame.getPreviousPredatorX(p);
+                previousPredatorY[p] = (float) frame.getPreviousPredatorY(p);
+                predatorKillAge[p] = (int) Math.min(now - frame.getLastPredatorKillTime(p), Integer.MAX_VALUE);
+            }
+
+            targetX = (float) frame.getTargetX();
+            targetY = (float) frame.getTargetY();
+            manualTargetControl = frame.isManualTargetControl();
+
+            killCount = frame.getKillCount();
+            if (killedIds.length < killCount)
+            {
+                killedIds = new int[killCount];
+            }
+            System.arraycopy(frame.getKilledIds(), 0, killedIds, 0, killCount);
+        }
+    }
+
+}
@@ -0,0 +1,344 @@
+package de.mlux1.swarmsim.logic;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         Plays back a recording of a {@link TrajectoryRecorder}. The file is mapped into memory, so only the parts of
+ *         the ticks that are shown are read from disk.
+ *         <p/>
+ *         Any tick is reached in constant time: the index gives the offset of its keyframe, from which at most
+ *         {@link Config#RECORD_KEYFRAME_INTERVAL} records are decoded. Stepping on from the tick read last only decodes
+ *         the records in between. Recordings that were not closed have no index; it is rebuilt by reading the records
+ *         once, up to the first one that was not written completely.
+ *         <p/>
+ *         Not thread-safe, a replay is read by one thread.
+ */
+public class TrajectoryReplay implements Closeable
+{
+
+    private final FileChannel channel;
+    private final int segmentSize;
+    private final long tickDuration;
+    private final ByteBuffer[] segments;
+    private final long firstTick;
+    private final LongBuffer index; //offset of the record and of its keyframe, by tick from the first tick on
+
+    private final Frame frame = new Frame(); //the tick read last
+    private long frameTick = -1; //the tick the frame was decoded up to, -1 if none
+    private long frameKeyframe = -1; //offset of the keyframe the frame was decoded from
+
+    //predators of the record read last
+    private double[] predatorX = new double[0], predatorY = new double[0], predatorAngle = new double[0];
+    private double[] previousPredatorX = new double[0], previousPredatorY = new double[0];
+    private long[] predatorKillTime = new long[0];
+    private int[] killedIds = new int[16];
+
+    /**
+     * Constructor. Opens a recording.
+     *
+     * @param file The recording.
+     * @throws IOException If the file cannot be read or is no recording.
+     */
+    public TrajectoryReplay(File file) throws IOException
+    {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try
+        {
+            if (channel.size() < TrajectoryRecorder.HEADER_SIZE)
+                throw new IOException(file + " is no recording");
+
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, TrajectoryRecorder.HEADER_SIZE);
+            if (header.getInt(TrajectoryRecorder.HEADER_MAGIC) != TrajectoryRecorder.MAGIC)
+                throw new IOException(file + " is no recording");
+            if (header.getInt(TrajectoryRecorder.HEADER_VERSION) != TrajectoryRecorder.VERSION)
+                throw new IOException(file + " was recorded in version " + header.getInt(TrajectoryRecorder.HEADER_VERSION)
+                        + ", only version " + TrajectoryRecorder.VERSION + " can be read");
+
+            segmentSize = header.getInt(TrajectoryRecorder.HEADER_SEGMENT_SIZE);
+            tickDuration = header.getLong(TrajectoryRecorder.HEADER_TICK_DURATION);
+            long indexOffset = header.getLong(TrajectoryRecorder.HEADER_INDEX_OFFSET);
+
+            long dataEnd = indexOffset > 0 ? indexOffset : channel.size();
+            segments = new ByteBuffer[(int) ((dataEnd + segmentSize - 1) / segmentSize)];
+            for (int s = 0; s < segments.length; s++)
+            {
+                long start = (long) s * segmentSize;
+                segments[s] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(segmentSize, dataEnd - start));
+            }
+
+            if (indexOffset > 0)
+            {
+                long ticks = header.getLong(TrajectoryRecorder.HEADER_TICKS);
+                firstTick = header.getLong(TrajectoryRecorder.HEADER_FIRST_TICK);
+                index = channel.map(FileChannel.MapMode.READ_ONLY, indexOffset,
+                        ticks * TrajectoryRecorder.INDEX_ENTRY_SIZE).asLongBuffer();
+            } else
+            {
+                long[] entries = rebuildIndex();
+                firstTick = entries.length > 0 ? segments[0].getLong(TrajectoryRecorder.HEADER_SIZE + 1) : 0;
+                index = LongBuffer.wrap(entries);
+            }
+            if (index.limit() == 0)
+                throw new IOException(file + " contains no ticks");
+        } catch (IOException e)
+        {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads all records of a recording that was not closed.
+     *
+     * @return The index entries, offset of the record and of its keyframe by tick.
+     */
+    private long[] rebuildIndex()
+    {
+        long[] entries = new long[1024];
+        int count = 0;
+        long lastTick = -1;
+        long keyframe = -1;
+        int s = 0;
+        int position = TrajectoryRecorder.HEADER_SIZE;
+        while (s < segments.length)
+        {
+            ByteBuffer segment = segments[s];
+            byte type = position < segment.limit() ? segment.get(position) : TrajectoryRecorder.PADDING;
+            if (type == TrajectoryRecorder.PADDING)
+            {
+                s++;
+                position = 0;
+                continue;
+            }
+            if (position + TrajectoryRecorder.RECORD_HEADER_SIZE > segment.limit())
+                break;
+
+            long tick = segment.getLong(position + 1);
+            int size = recordSize(segment, position);
+            boolean known = type == TrajectoryRecorder.KEYFRAME || type == TrajectoryRecorder.DELTA;
+            if (!known || size < 0 || position + size > segment.limit() || (lastTick >= 0 && tick <= lastTick)
+                    || (type == TrajectoryRecorder.DELTA && tick != lastTick + 1))
+                break; //not written completely
+
+            if (type == TrajectoryRecorder.KEYFRAME)
+            {
+                keyframe = (long) s * segmentSize + position;
+            }
+            int ticks = lastTick >= 0 ? (int) (tick - lastTick) : 1;
+            if ((count + ticks) * 2 > entries.length)
+            {
+                entries = Arrays.copyOf(entries, Math.max(entries.length * 2, (count + ticks) * 2));
+            }
+            //ticks left out get no offset
+            for (int i = 1; i < ticks; i++)
+            {
+                entries[2 * count] = -1;
+                entries[2 * count + 1] = -1;
+                count++;
+            }
+            entries[2 * count] = (long) s * segmentSize + position;
+            entries[2 * count + 1] = keyframe;
+            count++;
+            lastTick = tick;
+            position += size;
+        }
+        return Arrays.copyOf(entries, 2 * count);
+    }
+
+    /**
+     * Computes the size of a record from its header.
+     *
+     * @param segment  The segment of the record.
+     * @param position The position of the record in the segment.
+     * @return The size of the record, or -1 if its header is not valid.
+     */
+    private static int recordSize(ByteBuffer segment, int position)
+    {
+        int size = segment.getInt(position + 9);
+        int predators = segment.get(position + TrajectoryRecorder.RECORD_HEADER_SIZE - 1);
+        int predatorsSize = predators * TrajectoryRecorder.PREDATOR_SIZE;
+        int killsPosition = position + TrajectoryRecorder.RECORD_HEADER_SIZE + predatorsSize;
+        if (size < 0 || predators < 0 || killsPosition + 4 > segment.limit())
+            return -1;
+
+        int kills = segment.getInt(killsPosition);
+        if (kills < 0)
+            return -1;
+
+        int individualSize = segment.get(position) == TrajectoryRecorder.KEYFRAME
+                ? TrajectoryRecorder.KEYFRAME_INDIVIDUAL_SIZE : TrajectoryRecorder.DELTA_INDIVIDUAL_SIZE;
+        return TrajectoryRecorder.RECORD_HEADER_SIZE + predatorsSize + 4 + kills * 4 + size * individualSize;
+    }
+
+    /**
+     * @return The first recorded tick.
+     */
+    public long getFirstTick()
+    {
+        return firstTick;
+    }
+
+    /**
+     * @return The last recorded tick.
+     */
+    public long getLastTick()
+    {
+        return firstTick + index.limit() / 2 - 1;
+    }
+
+    /**
+     * @return The nanoseconds of simulated time per tick.
+     */
+    public long getTickDuration()
+    {
+        return tickDuration;
+    }
+
+    /**
+     * Returns the frame of a tick. Ticks the recorder left out show the recorded tick before them.
+     *
+     * @param tick The tick, limited to the recorded ones.
+     * @param time The System.nanoTime() at which the tick is due, for interpolation.
+     * @return The frame, valid until the next call.
+     */
+    public Frame read(long tick, long time)
+    {
+        long entry = Math.max(0, Math.min(tick - firstTick, index.limit() / 2 - 1));
+        while (index.get((int) (2 * entry)) < 0)
+        {
+            entry--;
+        }
+        long keyframe = index.get((int) (2 * entry + 1));
+
+        //go on from the frame if it was decoded from the same keyframe up to an earlier tick
+        long next;
+        if (keyframe == frameKeyframe && frameTick >= 0 && frameTick - firstTick <= entry)
+        {
+            next = frameTick - firstTick + 1;
+        } else
+        {
+            next = entry;
+            while (index.get((int) (2 * next)) != keyframe)
+            {
+                next--;
+            }
+        }
+        for (; next <= entry; next++)
+        {
+            decode(index.get((int) (2 * next)), next == entry);
+        }
+        frameTick = firstTick + entry;
+        frameKeyframe = keyframe;
+
+        frame.resize(frame.getTick(), time, tickDuration, frame.size());
+        return frame;
+    }
+
+    /**
+     * Decodes a record into the frame: replaces the frame by a keyframe, or moves the individuals of the frame.
+     *
+     * @param offset   The offset of the record.
+     * @param headings False to skip the headings, for records passed on the way to the tick read.
+     */
+    private void decode(long offset, boolean headings)
+    {
+        ByteBuffer in = segments[(int) (offset / segmentSize)];
+        in.position((int) (offset % segmentSize));
+        byte type = in.get();
+        long tick = in.getLong();
+        int size = in.getInt();
+        float targetX = in.getFloat();
+        float targetY = in.getFloat();
+        boolean manualTargetControl = in.get() != 0;
+        boolean predatorActive = in.get() != 0;
+        int predatorCount = in.get();
+
+        if (predatorX.length < predatorCount)
+        {
+            predatorX = new double[predatorCount];
+            predatorY = new double[predatorCount];
+            predatorAngle = new double[predatorCount];
+            previousPredatorX = new double[predatorCount];
+            previousPredatorY = new double[predatorCount];
+            predatorKillTime = new long[predatorCount];
+        }
+        long now = System.currentTimeMillis();
+        for (int p = 0; p < predatorCount; p++)
+        {
+            predatorX[p] = in.getFloat();
+            predatorY[p] = in.getFloat();
+            predatorAngle[p] = in.getFloat();
+            previousPredatorX[p] = in.getFloat();
+            previousPredatorY[p] = in.getFloat();
+            predatorKillTime[p] = now - in.getInt();
+        }
+        frame.writePredators(predatorActive, predatorCount, predatorX, predatorY, predatorAngle, previousPredatorX,
+                previousPredatorY, predatorKillTime);
+        frame.writeTarget(targetX, targetY, manualTargetControl);
+
+        int kills = in.getInt();
+        if (killedIds.length < kills)
+        {
+            killedIds = new int[kills];
+        }
+        for (int i = 0; i < kills; i++)
+        {
+            killedIds[i] = in.getInt();
+        }
+        frame.writeKills(killedIds, kills);
+
+        frame.resize(tick, frame.getTime(), tickDuration, size);
+        int[] ids = frame.getIds();
+        float[] xs = frame.getX();
+        float[] ys = frame.getY();
+        float[] dxs = frame.getDx();
+        float[] dys = frame.getDy();
+        float[] speeds = frame.getSpeed();
+        for (int i = 0; i < size; i++)
+        {
+            if (type == TrajectoryRecorder.KEYFRAME)
+            {
+                ids[i] = in.getInt();
+                xs[i] = in.getFloat();
+                ys[i] = in.getFloat();
+            } else
+            {
+                xs[i] += in.getShort() / TrajectoryRecorder.POSITION_SCALE;
+                ys[i] += in.getShort() / TrajectoryRecorder.POSITION_SCALE;
+            }
+            short heading = in.getShort();
+            if (headings)
+            {
+                double angle = heading / TrajectoryRecorder.HEADING_SCALE;
+                dxs[i] = (float) Math.cos(angle);
+                dys[i] = (float) Math.sin(angle);
+            }
+            if (type == TrajectoryRecorder.KEYFRAME)
+            {
+                speeds[i] = in.getFloat();
+            }
+        }
+    }
+
+    /**
+     * Closes the file.
+     *
+     * @throws IOException If the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        channel.close();
+    }
+
+}
@@ -0,0 +1,175 @@
+package de.mlux1.swarmsim.logic;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         Fixed pool of worker threads that process an index range in parallel.
+ *         The range is handed out in chunks from a shared counter, so fast workers take over the work of slow ones.
+ *         The calling thread works along, which means that a pool of n threads starts n - 1 workers.
+ *         Idle workers park, and no objects are created per run.
+ */
+public class WorkerPool
+{
+
+    /**
+     * Work on a part of an index range.
+     */
+    public interface RangeTask
+    {
+        /**
+         * Processes the indices [from, to).
+         *
+         * @param from The first index.
+         * @param to   The index after the last index.
+         */
+        public void run(int from, int to);
+    }
+
+    private final Thread[] workers;
+
+    private volatile RangeTask task;
+    private volatile int end, chunkSize;
+    private volatile int generation; //incremented for every run, workers wait for a new one
+    private volatile Thread caller;
+    private volatile Throwable failure;
+    private volatile boolean shutdown = false;
+
+    private final AtomicInteger next = new AtomicInteger(); //next index to hand out
+    private final AtomicInteger pending = new AtomicInteger(); //workers still busy with the current run
+
+    /**
+     * Constructor.
+     *
+     * @param threads The number of threads including the calling thread.
+     * @param name    The name prefix of the worker threads.
+     */
+    public WorkerPool(int threads, String name)
+    {
+        workers = new Thread[Math.max(threads, 1) - 1];
+        for (int i = 0; i < workers.length; i++)
+        {
+            workers[i] = new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    workerLoop();
+                }
+            }, name + "-" + (i + 1));
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    /**
+     * Processes [0, end) in chunks of chunkSize and returns when all are done.
+     *
+     * @param end       The index after the last index.
+     * @param chunkSize The number of indices handed out at once.
+     * @param task      The task to run.
+     */
+    public void run(int end, int chunkSize, RangeTask task)
+    {
+        if (workers.length == 0)
+        {
+            task.run(0, end);
+            return;
+        }
+
+        this.task = task;
+        this.end = end;
+        this.chunkSize = Math.max(chunkSize, 1);
+        this.caller = Thread.currentThread();
+        this.failure = null;
+        next.set(0);
+        pending.set(workers.length);
+        generation++; //publishes the run to the workers
+        for (Thread worker : workers)
+        {
+            LockSupport.unpark(worker);
+        }
+
+        work();
+        while (pending.get() > 0)
+        {
+            LockSupport.park(this);
+        }
+        this.task = null;
+
+        if (failure != null)
+        {
+            throw new IllegalStateException("Worker failed", failure);
+        }
+    }
+
+    /**
+     * Takes chunks of the current run until none are left.
+     */
+    private void work()
+    {
+        RangeTask task = this.task;
+        int end = this.end;
+        int chunkSize = this.chunkSize;
+        int from;
+        while ((from = next.getAndAdd(chunkSize)) < end)
+        {
+            task.run(from, Math.min(from + chunkSize, end));
+        }
+    }
+
+    /**
+     * Main loop of a worker thread.
+     */
+    private void workerLoop()
+    {
+        int seen = 0;
+        while (!shutdown)
+        {
+            if (generation == seen)
+            {
+                LockSupport.park(this);
+                continue;
+            }
+            seen = generation;
+
+            try
+            {
+                work();
+            } catch (Throwable t)
+            {
+                failure = t;
+            }
+            if (pending.decrementAndGet() == 0)
+            {
+                LockSupport.unpark(caller);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of threads including the calling thread.
+     *
+     * @return The number of threads.
+     */
+    public int getThreads()
+    {
+        return workers.length + 1;
+    }
+
+    /**
+     * Stops the worker threads once they are idle.
+     */
+    public void shutdown()
+    {
+        shutdown = true;
+        for (Thread worker : workers)
+        {
+            LockSupport.unpark(worker);
+        }
+    }
+
+}
@@ -0,0 +1,275 @@
+package de.mlux1.swarmsim.logic.event;
+
+import java.util.Arrays;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         Hands the events of the simulation to its subscribers without letting them slow the simulation down.
+ *         Publishing only queues the event for every matching subscription and schedules its delivery on the executor
+ *         of the subscription, the listener is never called by the publishing thread.
+ *         <p/>
+ *         Every subscription can thin out its events: a decimation delivers only every n-th event, and a minimum
+ *         interval drops the events that follow the last delivered one too closely. Both are decided when the event is
+ *         published, so a slow listener does not even queue the dropped ones. A subscription that still falls behind
+ *         drops new events once {@link #MAX_PENDING_EVENTS} are queued for it.
+ */
+public class EventBus
+{
+
+    public static final int MAX_PENDING_EVENTS = 1024; //queued events per subscription, newer ones are dropped
+
+    private final Object lock = new Object(); //guards replacing the subscriptions
+    private volatile Subscription<?>[] subscriptions = new Subscription<?>[0]; //replaced as a whole, so reading allocates nothing
+
+    /**
+     * Subscribes a listener to all events of a type, delivered on a thread of its own.
+     *
+     * @param type     The type of the events, subtypes are delivered as well.
+     * @param listener The listener.
+     * @return The subscription, to cancel it.
+     */
+    public <E extends SimulationEvent> Subscription<E> subscribe(Class<E> type, SimulationListener<? super E> listener)
+    {
+        return subscribe(type, listener, null, 1, 0);
+    }
+
+    /**
+     * Subscribes a listener to the events of a type.
+     *
+     * @param type             The type of the events, subtypes are delivered as well.
+     * @param listener         The listener.
+     * @param executor         The executor to deliver the events on, or null for a thread of the subscription's own.
+     *                         The listener is not called concurrently, even if the executor has several threads.
+     * @param decimation       Only every decimation-th event is delivered, 1 delivers all.
+     * @param minIntervalNanos The least time between two delivered events, in nanoseconds, 0 for no limit.
+     * @return The subscription, to cancel it.
+     */
+    public <E extends SimulationEvent> Subscription<E> subscribe(Class<E> type, SimulationListener<? super E> listener,
+                                                                 Executor executor, int decimation, long minIntervalNanos)
+    {
+        Subscription<E> subscription = new Subscription<E>(type, listener, executor, decimation, minIntervalNanos);
+        synchronized (lock)
+        {
+            Subscription<?>[] added = Arrays.copyOf(subscriptions, subscriptions.length + 1);
+            added[added.length - 1] = subscription;
+            subscriptions = added;
+        }
+        return subscription;
+    }
+
+    /**
+     * Returns true if any subscription receives the events of a type. Lets the publisher skip creating events nobody
+     * listens to.
+     *
+     * @param type The type of the events.
+     * @return True if the events have subscribers.
+     */
+    public boolean hasSubscribers(Class<? extends SimulationEvent> type)
+    {
+        Subscription<?>[] current = subscriptions;
+        for (int i = 0; i < current.length; i++)
+        {
+            if (current[i].type.isAssignableFrom(type))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Queues an event for all subscriptions of its type. Returns immediately.
+     *
+     * @param event The event.
+     */
+    public void publish(SimulationEvent event)
+    {
+        long now = System.nanoTime();
+        Subscription<?>[] current = subscriptions;
+        for (int i = 0; i < current.length; i++)
+        {
+            current[i].offer(event, now);
+        }
+    }
+
+    /**
+     * The delivery of the events of one type to one listener.
+     *
+     * @param <E> The type of the events.
+     */
+    public class Subscription<E extends SimulationEvent>
+    {
+
+        private final Class<E> type;
+        private final SimulationListener<? super E> listener;
+        private final Executor executor;
+        private final ExecutorService ownExecutor; //the executor created for the subscription, null if given
+        private final int decimation;
+        private final long minIntervalNanos;
+
+        private final ConcurrentLinkedQueue<E> queue = new ConcurrentLinkedQueue<E>();
+        private final AtomicInteger pending = new AtomicInteger(); //events in the queue
+        private final AtomicBoolean scheduled = new AtomicBoolean(); //a delivery run is on the executor
+        private final AtomicLong published = new AtomicLong(); //events of the type so far, for the decimation
+        private final AtomicLong dropped = new AtomicLong();
+        private volatile long lastOfferTime; //System.nanoTime() of the last accepted event
+        private volatile boolean offered = false; //an event was accepted already
+        private volatile boolean cancelled = false;
+
+        private final Runnable delivery = new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                deliver();
+            }
+        };
+
+        /**
+         * Constructor.
+         *
+         * @see EventBus#subscribe(Class, SimulationListener, Executor, int, long)
+         */
+        private Subscription(Class<E> type, SimulationListener<? super E> listener, Executor executor, int decimation,
+                             long minIntervalNanos)
+        {
+            this.type = type;
+            this.listener = listener;
+            this.decimation = Math.max(decimation, 1);
+            this.minIntervalNanos = Math.max(minIntervalNanos, 0);
+            if (executor == null)
+            {
+                final String name = "event-" + type.getSimpleName();
+                ownExecutor = Executors.newSingleThreadExecutor(new ThreadFactory()
+                {
+                    @Override
+                    public Thread newThread(Runnable runnable)
+                    {
+                        Thread thread = new Thread(runnable, name);
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+                this.executor = ownExecutor;
+            } else
+            {
+                ownExecutor = null;
+                this.executor = executor;
+            }
+        }
+
+        /**
+         * Queues an event if it is of the type of the subscription and passes the decimation and the rate limit.
+         *
+         * @param event The event.
+         * @param now   The current System.nanoTime().
+         */
+        private void offer(SimulationEvent event, long now)
+        {
+            if (cancelled || !type.isInstance(event))
+                return;
+
+            if ((published.getAndIncrement() % decimation) != 0)
+                return;
+            if (minIntervalNanos > 0 && offered && now - lastOfferTime < minIntervalNanos)
+                return;
+            if (pending.get() >= MAX_PENDING_EVENTS)
+            {
+                dropped.incrementAndGet();
+                return;
+            }
+            lastOfferTime = now;
+            offered = true;
+
+            queue.offer(type.cast(event));
+            pending.incrementAndGet();
+            if (scheduled.compareAndSet(false, true))
+            {
+                try
+                {
+                    executor.execute(delivery);
+                } catch (RejectedExecutionException e)
+                {
+                    //the executor is shut down, nobody is going to receive the events
+                    scheduled.set(false);
+                    cancel();
+                }
+            }
+        }
+
+        /**
+         * Delivers the queued events in order. Runs on the executor, one run at a time.
+         */
+        private void deliver()
+        {
+            while (true)
+            {
+                E event;
+                while (!cancelled && (event = queue.poll()) != null)
+                {
+                    pending.decrementAndGet();
+                    try
+                    {
+                        listener.onEvent(event);
+                    } catch (RuntimeException e)
+                    {
+                        //a failing listener must not stop the delivery of the following events
+                        e.printStackTrace();
+                    }
+                }
+                scheduled.set(false);
+
+                //an event queued after the last poll found the run still scheduled, so continue with it
+                if (cancelled || queue.isEmpty() || !scheduled.compareAndSet(false, true))
+                    return;
+            }
+        }
+
+        /**
+         * Stops the delivery: queued events are discarded, and the thread of the subscription is stopped if it has one.
+         */
+        public void cancel()
+        {
+            cancelled = true;
+            synchronized (lock)
+            {
+                Subscription<?>[] current = subscriptions;
+                for (int i = 0; i < current.length; i++)
+                {
+                    if (current[i] == this)
+                    {
+                        Subscription<?>[] removed = new Subscription<?>[current.length - 1];
+                        System.arraycopy(current, 0, removed, 0, i);
+                        System.arraycopy(current, i + 1, removed, i, removed.length - i);
+                        subscriptions = removed;
+                        break;
+                    }
+                }
+            }
+            queue.clear();
+            if (ownExecutor != null)
+            {
+                ownExecutor.shutdown();
+            }
+        }
+
+        /**
+         * Returns the number of events dropped because the listener fell too far behind. Events left out by the
+         * decimation or the rate limit are not counted.
+         *
+         * @return The number of dropped events.
+         */
+        public long getDroppedEvents()
+        {
+            return dropped.get();
+        }
+
+    }
+
+}
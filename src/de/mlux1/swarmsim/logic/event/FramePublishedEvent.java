@@ -0,0 +1,62 @@
+package de.mlux1.swarmsim.logic.event;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         A tick is finished and its frame is published, see {@link de.mlux1.swarmsim.logic.AppState#getFrames()}.
+ */
+public class FramePublishedEvent extends SimulationEvent
+{
+
+    private final long time; //System.nanoTime() the tick was due at
+    private final int swarmSize;
+    private final long killCount; //individuals killed up to this tick
+
+    /**
+     * Constructor.
+     *
+     * @param tick      The number of the tick.
+     * @param time      The System.nanoTime() the tick was due at.
+     * @param swarmSize The number of individuals at the end of the tick.
+     * @param killCount The number of individuals killed up to the tick.
+     */
+    public FramePublishedEvent(long tick, long time, int swarmSize, long killCount)
+    {
+        super(tick);
+        this.time = time;
+        this.swarmSize = swarmSize;
+        this.killCount = killCount;
+    }
+
+    /**
+     * Returns the System.nanoTime() the tick was due at.
+     *
+     * @return The time of the tick.
+     */
+    public long getTime()
+    {
+        return time;
+    }
+
+    /**
+     * Returns the number of individuals at the end of the tick.
+     *
+     * @return The swarm size.
+     */
+    public int getSwarmSize()
+    {
+        return swarmSize;
+    }
+
+    /**
+     * Returns the number of individuals killed up to the tick.
+     *
+     * @return The number of killed individuals.
+     */
+    public long getKillCount()
+    {
+        return killCount;
+    }
+
+}
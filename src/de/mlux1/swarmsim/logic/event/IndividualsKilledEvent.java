@@ -0,0 +1,49 @@
+package de.mlux1.swarmsim.logic.event;
+
+import java.util.Arrays;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         The predator killed individuals in a tick.
+ */
+public class IndividualsKilledEvent extends SimulationEvent
+{
+
+    private final int[] ids; //ids of the killed individuals, sorted
+
+    /**
+     * Constructor.
+     *
+     * @param tick  The number of the tick.
+     * @param ids   The array holding the ids of the killed individuals, it is copied.
+     * @param count The number of killed individuals.
+     */
+    public IndividualsKilledEvent(long tick, int[] ids, int count)
+    {
+        super(tick);
+        this.ids = Arrays.copyOf(ids, count);
+    }
+
+    /**
+     * Returns the number of individuals killed in the tick.
+     *
+     * @return The number of killed individuals.
+     */
+    public int getCount()
+    {
+        return ids.length;
+    }
+
+    /**
+     * Returns the ids of the individuals killed in the tick.
+     *
+     * @return A copy of the sorted ids.
+     */
+    public int[] getIds()
+    {
+        return ids.clone();
+    }
+
+}
@@ -0,0 +1,69 @@
+package de.mlux1.swarmsim.logic.event;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         A parameter of the simulation was set. Published by the thread that set it; most parameters take effect
+ *         at the start of the next tick.
+ */
+public class ParametersChangedEvent extends SimulationEvent
+{
+
+    /**
+     * The parameters of the simulation.
+     */
+    public enum Parameter
+    {
+        SWARM_SIZE, SPEED, ALIGNMENT_PRIORITY, SEPARATION_PRIORITY, COHESION_PRIORITY, PREDATOR_ACTIVE,
+        PREDATOR_LETHAL, PREDATOR_COUNT, PREDATOR_SPEED, MANUAL_TARGET_CONTROL, ESCAPE_STRATEGY, TICK_THREADS,
+        NEIGHBOR_INDEX, NEIGHBOUR_KERNEL, VECTOR_HEADINGS
+    }
+
+    private final Parameter parameter;
+    private final Object value; //the new value, boxed
+
+    /**
+     * Constructor.
+     *
+     * @param tick      The number of the last tick.
+     * @param parameter The parameter.
+     * @param value     The new value.
+     */
+    public ParametersChangedEvent(long tick, Parameter parameter, Object value)
+    {
+        super(tick);
+        this.parameter = parameter;
+        this.value = value;
+    }
+
+    /**
+     * Returns the parameter that was set.
+     *
+     * @return The parameter.
+     */
+    public Parameter getParameter()
+    {
+        return parameter;
+    }
+
+    /**
+     * Returns the new value of the parameter: an Integer, a Boolean or the selected strategy, index or kernel.
+     *
+     * @return The new value.
+     */
+    public Object getValue()
+    {
+        return value;
+    }
+
+    /**
+     * @see Object#toString()
+     */
+    @Override
+    public String toString()
+    {
+        return parameter + " = " + value;
+    }
+
+}
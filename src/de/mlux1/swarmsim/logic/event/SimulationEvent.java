@@ -0,0 +1,35 @@
+package de.mlux1.swarmsim.logic.event;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         Something that happened in the simulation, published on the {@link EventBus}. Events are immutable, so they
+ *         can be delivered on any thread after the simulation went on.
+ */
+public abstract class SimulationEvent
+{
+
+    private final long tick; //tick the event happened in
+
+    /**
+     * Constructor.
+     *
+     * @param tick The number of the tick the event happened in.
+     */
+    protected SimulationEvent(long tick)
+    {
+        this.tick = tick;
+    }
+
+    /**
+     * Returns the number of the tick the event happened in. Events published between ticks belong to the last one.
+     *
+     * @return The tick.
+     */
+    public long getTick()
+    {
+        return tick;
+    }
+
+}
@@ -0,0 +1,21 @@
+package de.mlux1.swarmsim.logic.event;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         Receives the events of one type from the {@link EventBus}.
+ *
+ * @param <E> The type of the events.
+ */
+public interface SimulationListener<E extends SimulationEvent>
+{
+
+    /**
+     * Is called on the executor of the subscription, never concurrently for the same subscription.
+     *
+     * @param event The event.
+     */
+    public void onEvent(E event);
+
+}
@@ -0,0 +1,62 @@
+package de.mlux1.swarmsim.logic.event;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         The target got a new position, either by the simulation or by the user. Published once per tick at most, with
+ *         the position the target has in that tick.
+ */
+public class TargetMovedEvent extends SimulationEvent
+{
+
+    private final double x, y;
+    private final boolean manual; //moved by the user
+
+    /**
+     * Constructor.
+     *
+     * @param tick   The number of the tick.
+     * @param x      The new x-coordinate.
+     * @param y      The new y-coordinate.
+     * @param manual True if the target is controlled by the user.
+     */
+    public TargetMovedEvent(long tick, double x, double y, boolean manual)
+    {
+        super(tick);
+        this.x = x;
+        this.y = y;
+        this.manual = manual;
+    }
+
+    /**
+     * Returns the new x-coordinate of the target.
+     *
+     * @return The x-coordinate.
+     */
+    public double getX()
+    {
+        return x;
+    }
+
+    /**
+     * Returns the new y-coordinate of the target.
+     *
+     * @return The y-coordinate.
+     */
+    public double getY()
+    {
+        return y;
+    }
+
+    /**
+     * Returns true if the target is controlled by the user.
+     *
+     * @return True on manual target control.
+     */
+    public boolean isManual()
+    {
+        return manual;
+    }
+
+}
@@ -0,0 +1,130 @@
+package de.mlux1.swarmsim.logic.index;
+
+import de.mlux1.swarmsim.logic.SwarmState;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         Index that picks a backend on every rebuild by measuring the density of the swarm.
+ *         Small swarms use brute force. Otherwise the swarm is sorted into the uniform grid, which also measures the
+ *         mean cell occupancy. If that shows a clustered swarm, the quadtree is built and used instead.
+ */
+public class AdaptiveNeighborIndex extends NeighborIndex
+{
+
+    public static final int BRUTE_FORCE_LIMIT = 64; //up to this size brute force beats any index
+    public static final double CLUSTERED_OCCUPANCY = 24; //mean cell occupancy above which the quadtree is used
+
+    private final double cellSize, width, height;
+    private final NeighborIndex bruteForce = new BruteForceNeighborIndex();
+    private final GridNeighborIndex grid;
+    private final NeighborIndex quadtree = new QuadtreeNeighborIndex();
+
+    private NeighborIndex active; //the backend chosen at the last rebuild
+
+    /**
+     * Constructor.
+     *
+     * @param cellSize The cell size of the uniform grid.
+     * @param width    The width of the field.
+     * @param height   The height of the field.
+     */
+    public AdaptiveNeighborIndex(double cellSize, double width, double height)
+    {
+        this.cellSize = cellSize;
+        this.width = width;
+        this.height = height;
+        grid = new GridNeighborIndex(cellSize, width, height);
+        active = bruteForce;
+    }
+
+    /**
+     * @see NeighborIndex#rebuild(de.mlux1.swarmsim.logic.SwarmState, int, int)
+     */
+    @Override
+    public void rebuild(SwarmState swarm, int from, int to)
+    {
+        if (to - from <= BRUTE_FORCE_LIMIT)
+        {
+            active = bruteForce;
+        } else
+        {
+            grid.rebuild(swarm, from, to);
+            active = grid;
+            if (grid.getMeanOccupancy() > CLUSTERED_OCCUPANCY)
+            {
+                active = quadtree;
+            }
+        }
+        if (active != grid)
+        {
+            active.rebuild(swarm, from, to);
+        }
+    }
+
+    /**
+     * @see NeighborIndex#newInstance()
+     */
+    @Override
+    public NeighborIndex newInstance()
+    {
+        return new AdaptiveNeighborIndex(cellSize, width, height);
+    }
+
+    /**
+     * @see NeighborIndex#withCellSize(double)
+     */
+    @Override
+    public NeighborIndex withCellSize(double cellSize)
+    {
+        return cellSize == this.cellSize ? this : new AdaptiveNeighborIndex(cellSize, width, height);
+    }
+
+    /**
+     * @see NeighborIndex#query(double, double, double, CandidateRanges)
+     */
+    @Override
+    public void query(double x, double y, double radius, CandidateRanges ranges)
+    {
+        active.query(x, y, radius, ranges);
+    }
+
+    /**
+     * @see NeighborIndex#getSlot(int)
+     */
+    @Override
+    public int getSlot(int index)
+    {
+        return active.getSlot(index);
+    }
+
+    /**
+     * @see NeighborIndex#getSlots()
+     */
+    @Override
+    public int[] getSlots()
+    {
+        return active.getSlots();
+    }
+
+    /**
+     * Returns the backend chosen at the last rebuild.
+     *
+     * @return The active backend.
+     */
+    public NeighborIndex getActive()
+    {
+        return active;
+    }
+
+    /**
+     * @see NeighborIndex#getTitle()
+     */
+    @Override
+    public String getTitle()
+    {
+        return "Adaptive";
+    }
+
+}
@@ -0,0 +1,87 @@
+package de.mlux1.swarmsim.logic.index;
+
+import de.mlux1.swarmsim.logic.SwarmState;
+
+import java.util.Arrays;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         Index that does not index at all: every query visits the whole swarm.
+ *         This is the original O(n^2) behaviour and still the fastest choice for small swarms.
+ */
+public class BruteForceNeighborIndex extends NeighborIndex
+{
+
+    private int from, to; //the indexed slots
+    private int[] slots = new int[0]; //identity, index order is slot order
+
+    /**
+     * @see NeighborIndex#rebuild(de.mlux1.swarmsim.logic.SwarmState, int, int)
+     */
+    @Override
+    public void rebuild(SwarmState swarm, int from, int to)
+    {
+        this.from = from;
+        this.to = to;
+        if (slots.length < to)
+        {
+            int filled = slots.length;
+            slots = Arrays.copyOf(slots, to + to / 2);
+            for (int i = filled; i < slots.length; i++)
+            {
+                slots[i] = i;
+            }
+        }
+    }
+
+    /**
+     * @see NeighborIndex#query(double, double, double, CandidateRanges)
+     */
+    @Override
+    public void query(double x, double y, double radius, CandidateRanges ranges)
+    {
+        ranges.clear();
+        ranges.add(from, to);
+    }
+
+    /**
+     * @see NeighborIndex#newInstance()
+     */
+    @Override
+    public NeighborIndex newInstance()
+    {
+        return new BruteForceNeighborIndex();
+    }
+
+    /**
+     * The index order is the slot order.
+     *
+     * @see NeighborIndex#getSlot(int)
+     */
+    @Override
+    public int getSlot(int index)
+    {
+        return index;
+    }
+
+    /**
+     * @see NeighborIndex#getSlots()
+     */
+    @Override
+    public int[] getSlots()
+    {
+        return slots;
+    }
+
+    /**
+     * @see NeighborIndex#getTitle()
+     */
+    @Override
+    public String getTitle()
+    {
+        return "Brute force";
+    }
+
+}
@@ -0,0 +1,80 @@
+package de.mlux1.swarmsim.logic.index;
+
+import java.util.Arrays;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         Reusable list of index ranges [start, end) that a neighbour query has to visit.
+ *         Ranges that touch each other are merged when added.
+ */
+public class CandidateRanges
+{
+
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private int size;
+
+    /**
+     * Removes all ranges.
+     */
+    public void clear()
+    {
+        size = 0;
+    }
+
+    /**
+     * Adds the range [start, end). Empty ranges are ignored.
+     *
+     * @param start The first index of the range.
+     * @param end   The index after the last index of the range.
+     */
+    public void add(int start, int end)
+    {
+        if (start >= end)
+            return;
+
+        if (size > 0 && ends[size - 1] == start)
+        {
+            ends[size - 1] = end;
+            return;
+        }
+
+        if (size == starts.length)
+        {
+            starts = Arrays.copyOf(starts, size * 2);
+            ends = Arrays.copyOf(ends, size * 2);
+        }
+        starts[size] = start;
+        ends[size] = end;
+        size++;
+    }
+
+    /**
+     * @return The number of ranges.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * @param range The number of the range.
+     * @return The first index of the range.
+     */
+    public int getStart(int range)
+    {
+        return starts[range];
+    }
+
+    /**
+     * @param range The number of the range.
+     * @return The index after the last index of the range.
+     */
+    public int getEnd(int range)
+    {
+        return ends[range];
+    }
+
+}
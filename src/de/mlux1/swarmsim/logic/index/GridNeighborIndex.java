@@ -0,0 +1,191 @@
+package de.mlux1.swarmsim.logic.index;
+
+import de.mlux1.swarmsim.logic.SwarmState;
+
+import java.util.Arrays;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         Uniform grid (cell list) over the swarm. The individuals are bucket sorted into square cells once per tick,
+ *         so a neighbour query with a radius up to the cell size only has to visit the 3x3 block of cells around a
+ *         position. Cells are stored row by row, which means that the cells of one block row form one contiguous range.
+ *         Positions outside of the field are clamped into the border cells.
+ */
+public class GridNeighborIndex extends NeighborIndex
+{
+
+    private final double cellSize;
+    private final double width, height;
+    private final int columns, rows;
+
+    private final int[] cellStart; //start index into sorted for each cell, plus one end marker
+    private int[] cellOf = new int[0]; //cell of each individual of the last rebuild
+    private int[] sorted = new int[0]; //slots ordered by cell
+    private double meanOccupancy; //average number of individuals in the cell of an individual
+
+    /**
+     * Constructor.
+     *
+     * @param cellSize The edge length of a cell, queries should use a radius up to this size.
+     * @param width    The width of the field.
+     * @param height   The height of the field.
+     */
+    public GridNeighborIndex(double cellSize, double width, double height)
+    {
+        this.cellSize = cellSize;
+        this.width = width;
+        this.height = height;
+        this.columns = Math.max(1, (int) Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        this.cellStart = new int[columns * rows + 1];
+    }
+
+    /**
+     * Sorts all individuals into their cells using a counting sort.
+     *
+     * @see NeighborIndex#rebuild(de.mlux1.swarmsim.logic.SwarmState, int, int)
+     */
+    @Override
+    public void rebuild(SwarmState swarm, int from, int to)
+    {
+        int n = to - from;
+        if (sorted.length < n)
+        {
+            sorted = new int[n + n / 2];
+            cellOf = new int[sorted.length];
+        }
+        double[] xs = swarm.getX();
+        double[] ys = swarm.getY();
+
+        //count the individuals per cell
+        Arrays.fill(cellStart, 0);
+        for (int i = 0; i < n; i++)
+        {
+            int cell = getRow(ys[from + i]) * columns + getColumn(xs[from + i]);
+            cellOf[i] = cell;
+            cellStart[cell + 1]++;
+        }
+
+        //prefix sum gives the start of each cell
+        long occupancySum = 0;
+        for (int cell = 0; cell < columns * rows; cell++)
+        {
+            occupancySum += (long) cellStart[cell + 1] * cellStart[cell + 1];
+            cellStart[cell + 1] += cellStart[cell];
+        }
+        meanOccupancy = n > 0 ? (double) occupancySum / n : 0;
+
+        //scatter, using the start of each cell as insertion pointer
+        for (int i = 0; i < n; i++)
+        {
+            sorted[cellStart[cellOf[i]]++] = from + i;
+        }
+        //the scatter moved every start one cell ahead, shift them back
+        for (int cell = columns * rows; cell > 0; cell--)
+        {
+            cellStart[cell] = cellStart[cell - 1];
+        }
+        cellStart[0] = 0;
+    }
+
+    /**
+     * Adds one range per row of the block of cells that covers the query circle.
+     *
+     * @see NeighborIndex#query(double, double, double, CandidateRanges)
+     */
+    @Override
+    public void query(double x, double y, double radius, CandidateRanges ranges)
+    {
+        ranges.clear();
+        int firstColumn = getColumn(x - radius);
+        int lastColumn = getColumn(x + radius);
+        int lastRow = getRow(y + radius);
+        for (int row = getRow(y - radius); row <= lastRow; row++)
+        {
+            ranges.add(cellStart[row * columns + firstColumn], cellStart[row * columns + lastColumn + 1]);
+        }
+    }
+
+    /**
+     * @see NeighborIndex#newInstance()
+     */
+    @Override
+    public NeighborIndex newInstance()
+    {
+        return new GridNeighborIndex(cellSize, width, height);
+    }
+
+    /**
+     * @see NeighborIndex#withCellSize(double)
+     */
+    @Override
+    public NeighborIndex withCellSize(double cellSize)
+    {
+        return cellSize == this.cellSize ? this : new GridNeighborIndex(cellSize, width, height);
+    }
+
+    /**
+     * Returns the column of the cell containing x, clamped to the grid.
+     *
+     * @param x The x-coordinate.
+     * @return The column index.
+     */
+    private int getColumn(double x)
+    {
+        int column = (int) Math.floor(x / cellSize);
+        return column < 0 ? 0 : (column >= columns ? columns - 1 : column);
+    }
+
+    /**
+     * Returns the row of the cell containing y, clamped to the grid.
+     *
+     * @param y The y-coordinate.
+     * @return The row index.
+     */
+    private int getRow(double y)
+    {
+        int row = (int) Math.floor(y / cellSize);
+        return row < 0 ? 0 : (row >= rows ? rows - 1 : row);
+    }
+
+    /**
+     * Returns the average number of individuals sharing the cell of an individual, measured at the last rebuild.
+     * A high value means that the swarm is clustered relative to the cell size.
+     *
+     * @return The mean cell occupancy.
+     */
+    public double getMeanOccupancy()
+    {
+        return meanOccupancy;
+    }
+
+    /**
+     * @see NeighborIndex#getSlot(int)
+     */
+    @Override
+    public int getSlot(int index)
+    {
+        return sorted[index];
+    }
+
+    /**
+     * @see NeighborIndex#getSlots()
+     */
+    @Override
+    public int[] getSlots()
+    {
+        return sorted;
+    }
+
+    /**
+     * @see NeighborIndex#getTitle()
+     */
+    @Override
+    public String getTitle()
+    {
+        return "Uniform grid";
+    }
+
+}
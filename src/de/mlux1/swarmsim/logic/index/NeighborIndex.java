@@ -0,0 +1,100 @@
+package de.mlux1.swarmsim.logic.index;
+
+import de.mlux1.swarmsim.logic.SwarmState;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         Spatial index over the swarm that answers neighbour queries. It is rebuilt once per tick. Afterwards the
+ *         slots of the indexed individuals are available in an index specific order, and a query returns the ranges
+ *         of that order which may contain individuals within the query radius. The ranges can contain individuals
+ *         further away, so callers still have to check the distance.
+ *         <p/>
+ *         An index can also cover a range of slots only, e.g. the individuals of one species. Several indices of the
+ *         same kind and configuration are created by {@link #newInstance()}.
+ */
+public abstract class NeighborIndex
+{
+
+    /**
+     * Indexes the current positions of all individuals.
+     *
+     * @param swarm The swarm to index.
+     */
+    public void rebuild(SwarmState swarm)
+    {
+        rebuild(swarm, 0, swarm.size());
+    }
+
+    /**
+     * Indexes the current positions of the individuals in the slots [from, to). Queries only return these.
+     *
+     * @param swarm The swarm to index.
+     * @param from  The first slot.
+     * @param to    The slot after the last slot.
+     */
+    public abstract void rebuild(SwarmState swarm, int from, int to);
+
+    /**
+     * Creates an empty index of the same kind and configuration, to index another part of the swarm.
+     *
+     * @return The new index.
+     */
+    public abstract NeighborIndex newInstance();
+
+    /**
+     * Returns an index of the same kind for queries up to the given radius. Indices whose cells have another size
+     * create a new one with cells of this size; indices without cells are not affected and return themselves.
+     *
+     * @param cellSize The longest query radius.
+     * @return This index, or a new empty one.
+     */
+    public NeighborIndex withCellSize(double cellSize)
+    {
+        return this;
+    }
+
+    /**
+     * Collects the ranges that contain all individuals within radius around (x, y).
+     *
+     * @param x      The x-coordinate of the query center.
+     * @param y      The y-coordinate of the query center.
+     * @param radius The query radius.
+     * @param ranges The ranges to fill, cleared first.
+     */
+    public abstract void query(double x, double y, double radius, CandidateRanges ranges);
+
+    /**
+     * Returns the slot of the individual at the given position of the index order.
+     *
+     * @param index The position in index order.
+     * @return The slot in the swarm.
+     */
+    public abstract int getSlot(int index);
+
+    /**
+     * Returns the slots of all individuals in index order, for loops that run over whole ranges.
+     * The array is only valid until the next rebuild and may be longer than the swarm.
+     *
+     * @return The slot of each position in index order.
+     */
+    public abstract int[] getSlots();
+
+    /**
+     * The title of this index.
+     *
+     * @return The title of this index.
+     */
+    public abstract String getTitle();
+
+    /**
+     * @see Object#toString()
+     */
+    @Override
+    public String toString()
+    {
+        return getTitle();
+    }
+
+}
@@ -0,0 +1,281 @@
+package de.mlux1.swarmsim.logic.index;
+
+import de.mlux1.swarmsim.logic.SwarmState;
+
+import java.util.Arrays;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         Adaptive point quadtree over the swarm. A node is split into four quadrants as long as it holds more than
+ *         {@link #LEAF_CAPACITY} individuals, so dense clusters get small cells while empty space stays coarse.
+ *         The individuals are partitioned in place while building, which means that the individuals of every node
+ *         form one contiguous range. A query can therefore take nodes lying completely inside the query circle as a
+ *         whole and only has to descend into nodes crossing its border.
+ */
+public class QuadtreeNeighborIndex extends NeighborIndex
+{
+
+    public static final int LEAF_CAPACITY = 16;
+    public static final int MAX_DEPTH = 20; //stops splitting individuals sharing nearly the same position
+
+    private int[] sorted = new int[0]; //slots ordered by node
+    private double[] xs = new double[0], ys = new double[0]; //positions in the same order
+
+    /* nodes, the four children of a node are stored consecutively */
+    private int nodeCount;
+    private double[] nodeX = new double[64], nodeY = new double[64], nodeSize = new double[64]; //lower left corner and edge length
+    private int[] nodeStart = new int[64], nodeEnd = new int[64];
+    private int[] nodeFirstChild = new int[64]; //-1 for leaves
+
+    //traversal stack of the queries of each thread, queries run in parallel
+    private static final ThreadLocal<int[]> stacks = new ThreadLocal<int[]>()
+    {
+        @Override
+        protected int[] initialValue()
+        {
+            return new int[4 * MAX_DEPTH + 4];
+        }
+    };
+
+    /**
+     * @see NeighborIndex#rebuild(de.mlux1.swarmsim.logic.SwarmState, int, int)
+     */
+    @Override
+    public void rebuild(SwarmState swarm, int from, int to)
+    {
+        int n = to - from;
+        if (sorted.length < n)
+        {
+            sorted = new int[n + n / 2];
+            xs = new double[sorted.length];
+            ys = new double[sorted.length];
+        }
+
+        double[] swarmX = swarm.getX();
+        double[] swarmY = swarm.getY();
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (int i = 0; i < n; i++)
+        {
+            sorted[i] = from + i;
+            xs[i] = swarmX[from + i];
+            ys[i] = swarmY[from + i];
+            minX = Math.min(minX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxX = Math.max(maxX, xs[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+
+        nodeCount = 1;
+        if (n == 0)
+        {
+            setNode(0, 0, 0, 0, 0, 0);
+            return;
+        }
+        //the root is the bounding square, slightly enlarged so that the maximum lies inside
+        double rootSize = Math.max(maxX - minX, maxY - minY) * 1.0001 + 1e-9;
+        build(0, 0, n, minX, minY, rootSize, 0);
+    }
+
+    /**
+     * Builds the given node and splits it recursively if it holds too many individuals.
+     *
+     * @param node  The node to build.
+     * @param start The first index of the individuals of the node.
+     * @param end   The index after the last individual of the node.
+     * @param x     The x-coordinate of the lower left corner.
+     * @param y     The y-coordinate of the lower left corner.
+     * @param size  The edge length.
+     * @param depth The depth of the node.
+     */
+    private void build(int node, int start, int end, double x, double y, double size, int depth)
+    {
+        setNode(node, x, y, size, start, end);
+        if (end - start <= LEAF_CAPACITY || depth >= MAX_DEPTH)
+            return;
+
+        double half = size / 2;
+        int lowerEnd = partition(ys, start, end, y + half);
+        int lowerMid = partition(xs, start, lowerEnd, x + half);
+        int upperMid = partition(xs, lowerEnd, end, x + half);
+
+        int firstChild = nodeCount;
+        nodeCount += 4;
+        ensureNodeCapacity(nodeCount);
+        nodeFirstChild[node] = firstChild;
+
+        build(firstChild, start, lowerMid, x, y, half, depth + 1);
+        build(firstChild + 1, lowerMid, lowerEnd, x + half, y, half, depth + 1);
+        build(firstChild + 2, lowerEnd, upperMid, x, y + half, half, depth + 1);
+        build(firstChild + 3, upperMid, end, x + half, y + half, half, depth + 1);
+    }
+
+    /**
+     * Partitions the individuals in [start, end) so that all with a key below pivot come first.
+     *
+     * @param keys  The coordinates to partition by.
+     * @param start The first index.
+     * @param end   The index after the last index.
+     * @param pivot The split coordinate.
+     * @return The index of the first individual with a key of at least pivot.
+     */
+    private int partition(double[] keys, int start, int end, double pivot)
+    {
+        int i = start, j = end - 1;
+        while (i <= j)
+        {
+            if (keys[i] < pivot)
+            {
+                i++;
+            } else
+            {
+                swap(i, j--);
+            }
+        }
+        return i;
+    }
+
+    /**
+     * Swaps two individuals including their positions.
+     *
+     * @param i The first index.
+     * @param j The second index.
+     */
+    private void swap(int i, int j)
+    {
+        int slot = sorted[i];
+        sorted[i] = sorted[j];
+        sorted[j] = slot;
+        double t = xs[i];
+        xs[i] = xs[j];
+        xs[j] = t;
+        t = ys[i];
+        ys[i] = ys[j];
+        ys[j] = t;
+    }
+
+    /**
+     * Sets the data of a node and marks it as leaf.
+     *
+     * @param node  The node.
+     * @param x     The x-coordinate of the lower left corner.
+     * @param y     The y-coordinate of the lower left corner.
+     * @param size  The edge length.
+     * @param start The first index of the individuals of the node.
+     * @param end   The index after the last individual of the node.
+     */
+    private void setNode(int node, double x, double y, double size, int start, int end)
+    {
+        nodeX[node] = x;
+        nodeY[node] = y;
+        nodeSize[node] = size;
+        nodeStart[node] = start;
+        nodeEnd[node] = end;
+        nodeFirstChild[node] = -1;
+    }
+
+    /**
+     * Grows the node arrays to hold at least capacity nodes.
+     *
+     * @param capacity The needed number of nodes.
+     */
+    private void ensureNodeCapacity(int capacity)
+    {
+        if (capacity <= nodeStart.length)
+            return;
+
+        int newLength = Math.max(capacity, nodeStart.length * 2);
+        nodeX = Arrays.copyOf(nodeX, newLength);
+        nodeY = Arrays.copyOf(nodeY, newLength);
+        nodeSize = Arrays.copyOf(nodeSize, newLength);
+        nodeStart = Arrays.copyOf(nodeStart, newLength);
+        nodeEnd = Arrays.copyOf(nodeEnd, newLength);
+        nodeFirstChild = Arrays.copyOf(nodeFirstChild, newLength);
+    }
+
+    /**
+     * Adds the ranges of all leaves crossing the query circle, and of all nodes lying completely inside it.
+     *
+     * @see NeighborIndex#query(double, double, double, CandidateRanges)
+     */
+    @Override
+    public void query(double x, double y, double radius, CandidateRanges ranges)
+    {
+        ranges.clear();
+        double radiusSq = radius * radius;
+
+        int[] stack = stacks.get();
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0)
+        {
+            int node = stack[--top];
+            if (nodeStart[node] == nodeEnd[node])
+                continue;
+
+            double minX = nodeX[node], minY = nodeY[node];
+            double maxX = minX + nodeSize[node], maxY = minY + nodeSize[node];
+
+            //distance to the nearest point of the node
+            double dx = Math.max(Math.max(minX - x, x - maxX), 0);
+            double dy = Math.max(Math.max(minY - y, y - maxY), 0);
+            if (dx * dx + dy * dy > radiusSq)
+                continue;
+
+            //distance to the farthest corner of the node
+            double fx = Math.max(x - minX, maxX - x);
+            double fy = Math.max(y - minY, maxY - y);
+            if (nodeFirstChild[node] < 0 || fx * fx + fy * fy <= radiusSq)
+            {
+                ranges.add(nodeStart[node], nodeEnd[node]);
+                continue;
+            }
+
+            //push the children in reverse, so that the ranges are added in ascending order
+            int firstChild = nodeFirstChild[node];
+            for (int child = 3; child >= 0; child--)
+            {
+                stack[top++] = firstChild + child;
+            }
+        }
+    }
+
+    /**
+     * @see NeighborIndex#newInstance()
+     */
+    @Override
+    public NeighborIndex newInstance()
+    {
+        return new QuadtreeNeighborIndex();
+    }
+
+    /**
+     * @see NeighborIndex#getSlot(int)
+     */
+    @Override
+    public int getSlot(int index)
+    {
+        return sorted[index];
+    }
+
+    /**
+     * @see NeighborIndex#getSlots()
+     */
+    @Override
+    public int[] getSlots()
+    {
+        return sorted;
+    }
+
+    /**
+     * @see NeighborIndex#getTitle()
+     */
+    @Override
+    public String getTitle()
+    {
+        return "Quadtree";
+    }
+
+}
@@ -0,0 +1,93 @@
+package de.mlux1.swarmsim.logic.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         Flight recorder event of a whole tick of the simulation, from moving the predators to publishing the frame.
+ *         Where the time goes within the tick is told by the {@link TickPhaseEvent}s.
+ *         <p/>
+ *         Recorded by the standard tools, e.g. <code>java -XX:StartFlightRecording=filename=run.jfr ...</code> or
+ *         <code>jcmd &lt;pid&gt; JFR.start</code>. While no recording takes it, no event is created.
+ */
+@Name("de.mlux1.swarmsim.Tick")
+@Label("Tick")
+@Category({"Swarm Simulation", "Simulation"})
+@Description("A tick of the simulation")
+@StackTrace(false)
+public class TickEvent extends Event
+{
+
+    private static final EventType TYPE = EventType.getEventType(TickEvent.class);
+
+    @Label("Tick")
+    private long tick;
+
+    @Label("Agents")
+    @Description("Individuals at the start of the tick")
+    private int agents;
+
+    @Label("Predators")
+    private int predators;
+
+    @Label("Neighbours Visited")
+    @Description("Neighbour candidates looked at by the steering of all individuals")
+    private long neighboursVisited;
+
+    @Label("Kills")
+    @Description("Individuals killed in the tick")
+    private int kills;
+
+    @Label("Threads")
+    @Description("Threads that steered the individuals")
+    private int threads;
+
+    /**
+     * Creates the event of a tick and starts its timing, if the event is recorded.
+     *
+     * @param tick      The number of ticks simulated before.
+     * @param agents    The number of individuals.
+     * @param predators The number of predators.
+     * @param threads   The number of threads that steer the individuals.
+     * @return The event, or null if it is not recorded.
+     */
+    public static TickEvent start(long tick, int agents, int predators, int threads)
+    {
+        if (!TYPE.isEnabled())
+            return null;
+
+        TickEvent event = new TickEvent();
+        event.tick = tick;
+        event.agents = agents;
+        event.predators = predators;
+        event.threads = threads;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the timing of the tick and commits the event.
+     *
+     * @param event             The event returned by {@link #start(long, int, int, int)}, may be null.
+     * @param neighboursVisited The number of neighbour candidates looked at.
+     * @param kills             The number of individuals killed.
+     */
+    public static void finish(TickEvent event, long neighboursVisited, int kills)
+    {
+        if (event == null)
+            return;
+
+        event.neighboursVisited = neighboursVisited;
+        event.kills = kills;
+        event.commit();
+    }
+
+}
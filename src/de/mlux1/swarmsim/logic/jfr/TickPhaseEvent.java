@@ -0,0 +1,84 @@
+package de.mlux1.swarmsim.logic.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         Flight recorder event of one phase of a tick, or of the sleep of the simulation thread between two ticks.
+ *         The phases of a tick follow each other without gaps, so their durations add up to the {@link TickEvent}.
+ *         <p/>
+ *         While no recording takes it, no event is created, so a tick allocates nothing for its phases.
+ */
+@Name("de.mlux1.swarmsim.TickPhase")
+@Label("Tick Phase")
+@Category({"Swarm Simulation", "Simulation"})
+@Description("A phase of a tick of the simulation")
+@StackTrace(false)
+public class TickPhaseEvent extends Event
+{
+
+    //the phases, in the order a tick runs them
+    public static final String PREDATORS = "predators"; //moving the predators and applying their number and speed
+    public static final String RESIZE = "resize"; //applying the requested sizes and speeds of the species
+    public static final String INDEX = "index"; //rebuilding the neighbour indices and preparing the escape strategies
+    public static final String KILL_DETECTION = "kill detection"; //finding the individuals caught by a predator
+    public static final String STEERING = "steering"; //neighbour queries, escape strategies and movement of all individuals
+    public static final String KILL_REMOVAL = "kill removal"; //removing the killed individuals
+    public static final String PUBLISHING = "publishing"; //handing the frame to the renderer and recorder, notifying the listeners
+    public static final String SLEEP = "sleep"; //waiting for the next tick to be due
+
+    private static final EventType TYPE = EventType.getEventType(TickPhaseEvent.class);
+
+    @Label("Phase")
+    private String phase;
+
+    @Label("Tick")
+    private long tick;
+
+    @Label("Agents")
+    @Description("Individuals the phase worked on")
+    private int agents;
+
+    /**
+     * Creates the event of a phase and starts its timing, if the event is recorded.
+     *
+     * @param phase The phase, one of the constants of this class.
+     * @param tick  The number of ticks simulated before the phase.
+     * @return The event, or null if it is not recorded.
+     */
+    public static TickPhaseEvent start(String phase, long tick)
+    {
+        if (!TYPE.isEnabled())
+            return null;
+
+        TickPhaseEvent event = new TickPhaseEvent();
+        event.phase = phase;
+        event.tick = tick;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the timing of the phase and commits the event.
+     *
+     * @param event  The event returned by {@link #start(String, long)}, may be null.
+     * @param agents The number of individuals the phase worked on.
+     */
+    public static void finish(TickPhaseEvent event, int agents)
+    {
+        if (event == null)
+            return;
+
+        event.agents = agents;
+        event.commit();
+    }
+
+}
@@ -0,0 +1,422 @@
+package de.mlux1.swarmsim.logic.jmx;
+
+import de.mlux1.swarmsim.logic.AppState;
+import de.mlux1.swarmsim.logic.Config;
+import de.mlux1.swarmsim.logic.LatencyHistogram;
+import de.mlux1.swarmsim.logic.strategy.escape.EscapeStrategies;
+import de.mlux1.swarmsim.logic.strategy.escape.EscapeStrategy;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         The simulation as a platform MBean, so that a running instance, with or without a window, can be watched and
+ *         tuned by jconsole, VisualVM or any other JMX client. Local clients attach to the process directly, remote
+ *         ones need the JMX agent of the JVM, e.g. <code>jcmd &lt;pid&gt; ManagementAgent.start jmxremote.port=9010</code>.
+ *         <p/>
+ *         Reading the counters does not touch the simulation thread. Writes are checked at once, so that a client sees
+ *         an invalid value rejected, and handed to the simulation thread, which applies them before its next tick.
+ */
+public class SimulationControl implements SimulationMXBean
+{
+
+    public static final String OBJECT_NAME = "de.mlux1.swarmsim:type=Simulation";
+
+    private static final long SAMPLE_INTERVAL = 1000000000L; //nanoseconds the rates are averaged over at least
+
+    private final AppState appState;
+
+    //the counters at the start of the current sample, and the rates of the last one
+    private long sampleTime = System.nanoTime();
+    private long sampleTicks;
+    private long sampleTickTotal;
+    private double tickRate = Double.NaN;
+    private double meanTickTime = Double.NaN;
+
+    /**
+     * Constructor.
+     *
+     * @param appState The simulation.
+     */
+    public SimulationControl(AppState appState)
+    {
+        this.appState = appState;
+        sampleTicks = appState.getTickLatencies().getCount();
+        sampleTickTotal = appState.getTickLatencies().getTotal();
+    }
+
+    /**
+     * Registers the simulation at the platform MBean server, replacing a simulation registered before.
+     *
+     * @param appState The simulation.
+     * @return The name it is registered under.
+     * @throws JMException If it cannot be registered.
+     */
+    public static ObjectName register(AppState appState) throws JMException
+    {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(OBJECT_NAME);
+        if (server.isRegistered(name))
+        {
+            server.unregisterMBean(name);
+        }
+        server.registerMBean(new SimulationControl(appState), name);
+        return name;
+    }
+
+    /**
+     * Computes the tick rate and mean tick time of the time since the last sample, once it is at least
+     * {@link #SAMPLE_INTERVAL} long. Clients poll every few seconds, so the rates are those of their poll interval;
+     * the attributes read in one poll share a sample.
+     */
+    private synchronized void sample()
+    {
+        long now = System.nanoTime();
+        long elapsed = now - sampleTime;
+        if (elapsed < SAMPLE_INTERVAL && !Double.isNaN(tickRate))
+            return;
+
+        LatencyHistogram latencies = appState.getTickLatencies();
+        long ticks = latencies.getCount();
+        long tickTotal = latencies.getTotal();
+        tickRate = elapsed > 0 ? (ticks - sampleTicks) * 1e9 / elapsed : 0;
+        meanTickTime = ticks > sampleTicks ? (tickTotal - sampleTickTotal) / 1e6 / (ticks - sampleTicks) : 0;
+        sampleTime = now;
+        sampleTicks = ticks;
+        sampleTickTotal = tickTotal;
+    }
+
+    /**
+     * Checks the value of an attribute.
+     *
+     * @param attribute The attribute.
+     * @param value     The value.
+     * @param min       The smallest valid value.
+     * @throws IllegalArgumentException If the value is below min.
+     */
+    private static void checkAtLeast(String attribute, int value, int min)
+    {
+        if (value < min)
+            throw new IllegalArgumentException(attribute + " must be at least " + min + ", not " + value);
+    }
+
+    /**
+     * Checks the value of an attribute that has a slider in the window.
+     *
+     * @param attribute The attribute.
+     * @param value     The value.
+     * @param min       The smallest valid value.
+     * @param max       The largest valid value.
+     * @throws IllegalArgumentException If the value is below min or above max.
+     */
+    private static void checkBetween(String attribute, int value, int min, int max)
+    {
+        checkAtLeast(attribute, value, min);
+        if (value > max)
+            throw new IllegalArgumentException(attribute + " must be at most " + max + ", not " + value);
+    }
+
+    /**
+     * @see SimulationMXBean#getTickCount()
+     */
+    @Override
+    public long getTickCount()
+    {
+        return appState.getTickCount();
+    }
+
+    /**
+     * @see SimulationMXBean#getTickRate()
+     */
+    @Override
+    public synchronized double getTickRate()
+    {
+        sample();
+        return tickRate;
+    }
+
+    /**
+     * @see SimulationMXBean#getDroppedTicks()
+     */
+    @Override
+    public long getDroppedTicks()
+    {
+        return appState.getDroppedTicks();
+    }
+
+    /**
+     * @see SimulationMXBean#getMeanTickTime()
+     */
+    @Override
+    public synchronized double getMeanTickTime()
+    {
+        sample();
+        return meanTickTime;
+    }
+
+    /**
+     * @see SimulationMXBean#getAgentCount()
+     */
+    @Override
+    public int getAgentCount()
+    {
+        return appState.getSwarm().size();
+    }
+
+    /**
+     * @see SimulationMXBean#getKillCount()
+     */
+    @Override
+    public long getKillCount()
+    {
+        return appState.getKillCount();
+    }
+
+    /**
+     * @see SimulationMXBean#getNeighboursPerAgent()
+     */
+    @Override
+    public double getNeighboursPerAgent()
+    {
+        int size = appState.getSwarm().size();
+        return size > 0 ? (double) appState.getVisitedNeighbours() / size : 0;
+    }
+
+    /**
+     * @see SimulationMXBean#getSwarmSize()
+     */
+    @Override
+    public int getSwarmSize()
+    {
+        return appState.getSwarmSize();
+    }
+
+    /**
+     * @see SimulationMXBean#setSwarmSize(int)
+     */
+    @Override
+    public void setSwarmSize(final int size)
+    {
+        checkBetween("SwarmSize", size, 0, appState.getRequestedConfig().getMaxNumIndividuals());
+        appState.invokeBetweenTicks(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                appState.setSwarmSize(size);
+            }
+        });
+    }
+
+    /**
+     * @see SimulationMXBean#getSpeed()
+     */
+    @Override
+    public int getSpeed()
+    {
+        return appState.getSpeed();
+    }
+
+    /**
+     * @see SimulationMXBean#setSpeed(int)
+     */
+    @Override
+    public void setSpeed(final int speed)
+    {
+        checkBetween("Speed", speed, Config.MIN_SPEED, Config.MAX_SPEED);
+        appState.invokeBetweenTicks(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                appState.setSpeed(speed);
+            }
+        });
+    }
+
+    /**
+     * @see SimulationMXBean#getAlignmentPriority()
+     */
+    @Override
+    public int getAlignmentPriority()
+    {
+        return appState.getAlignmentPriority();
+    }
+
+    /**
+     * @see SimulationMXBean#setAlignmentPriority(int)
+     */
+    @Override
+    public void setAlignmentPriority(final int priority)
+    {
+        checkAtLeast("AlignmentPriority", priority, 0);
+        appState.invokeBetweenTicks(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                appState.setAlignmentPriority(priority);
+            }
+        });
+    }
+
+    /**
+     * @see SimulationMXBean#getSeparationPriority()
+     */
+    @Override
+    public int getSeparationPriority()
+    {
+        return appState.getSeparationPriority();
+    }
+
+    /**
+     * @see SimulationMXBean#setSeparationPriority(int)
+     */
+    @Override
+    public void setSeparationPriority(final int priority)
+    {
+        checkAtLeast("SeparationPriority", priority, 0);
+        appState.invokeBetweenTicks(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                appState.setSeparationPriority(priority);
+            }
+        });
+    }
+
+    /**
+     * @see SimulationMXBean#getCohesionPriority()
+     */
+    @Override
+    public int getCohesionPriority()
+    {
+        return appState.getCohesionPriority();
+    }
+
+    /**
+     * @see SimulationMXBean#setCohesionPriority(int)
+     */
+    @Override
+    public void setCohesionPriority(final int priority)
+    {
+        checkAtLeast("CohesionPriority", priority, 0);
+        appState.invokeBetweenTicks(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                appState.setCohesionPriority(priority);
+            }
+        });
+    }
+
+    /**
+     * @see SimulationMXBean#isPredatorActive()
+     */
+    @Override
+    public boolean isPredatorActive()
+    {
+        return appState.isPredatorActive();
+    }
+
+    /**
+     * @see SimulationMXBean#setPredatorActive(boolean)
+     */
+    @Override
+    public void setPredatorActive(final boolean active)
+    {
+        appState.invokeBetweenTicks(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                appState.setPredatorActive(active);
+            }
+        });
+    }
+
+    /**
+     * @see SimulationMXBean#isPredatorLethal()
+     */
+    @Override
+    public boolean isPredatorLethal()
+    {
+        return appState.isPredatorLethal();
+    }
+
+    /**
+     * @see SimulationMXBean#setPredatorLethal(boolean)
+     */
+    @Override
+    public void setPredatorLethal(final boolean lethal)
+    {
+        appState.invokeBetweenTicks(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                appState.setPredatorLethal(lethal);
+            }
+        });
+    }
+
+    /**
+     * @see SimulationMXBean#getPredatorSpeed()
+     */
+    @Override
+    public int getPredatorSpeed()
+    {
+        return appState.getPredatorSpeed();
+    }
+
+    /**
+     * @see SimulationMXBean#setPredatorSpeed(int)
+     */
+    @Override
+    public void setPredatorSpeed(final int speed)
+    {
+        checkBetween("PredatorSpeed", speed, Config.MIN_SPEED, Config.MAX_PREDATOR_SPEED);
+        appState.invokeBetweenTicks(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                appState.setPredatorSpeed(speed);
+            }
+        });
+    }
+
+    /**
+     * @see SimulationMXBean#getEscapeStrategy()
+     */
+    @Override
+    public String getEscapeStrategy()
+    {
+        return EscapeStrategies.getName(appState.getEscapeStrategy());
+    }
+
+    /**
+     * @see SimulationMXBean#setEscapeStrategy(String)
+     */
+    @Override
+    public void setEscapeStrategy(String name)
+    {
+        final EscapeStrategy strategy = EscapeStrategies.forName(name);
+        appState.invokeBetweenTicks(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                appState.setEscapeStrategy(strategy);
+            }
+        });
+    }
+
+}
@@ -0,0 +1,144 @@
+package de.mlux1.swarmsim.logic.jmx;
+
+import de.mlux1.swarmsim.logic.Config;
+import de.mlux1.swarmsim.logic.RuntimeConfig;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         Management interface of the simulation, registered as {@link SimulationControl#OBJECT_NAME}. The counters are
+ *         read-only; the parameters of the default species and the predators are writable and take effect before the
+ *         next tick.
+ */
+public interface SimulationMXBean
+{
+
+    /**
+     * @return The number of ticks simulated so far.
+     */
+    long getTickCount();
+
+    /**
+     * @return The ticks simulated per second, over the last second or more.
+     */
+    double getTickRate();
+
+    /**
+     * @return The number of ticks skipped because the simulation could not keep its tick rate.
+     */
+    long getDroppedTicks();
+
+    /**
+     * @return The mean time a tick took, in milliseconds, over the last second or more.
+     */
+    double getMeanTickTime();
+
+    /**
+     * @return The number of individuals of all species.
+     */
+    int getAgentCount();
+
+    /**
+     * @return The number of individuals killed by the predators so far.
+     */
+    long getKillCount();
+
+    /**
+     * @return The neighbour candidates the steering looked at per individual in the last tick.
+     */
+    double getNeighboursPerAgent();
+
+    /**
+     * @return The requested size of the default species.
+     */
+    int getSwarmSize();
+
+    /**
+     * @param size The size of the default species, not negative and at most the maximum swarm size of the
+     *             configuration, see {@link RuntimeConfig#getMaxNumIndividuals()}.
+     */
+    void setSwarmSize(int size);
+
+    /**
+     * @return The speed of the individuals of the default species.
+     */
+    int getSpeed();
+
+    /**
+     * @param speed The speed of the individuals of the default species, positive and at most {@link Config#MAX_SPEED}.
+     */
+    void setSpeed(int speed);
+
+    /**
+     * @return The alignment priority of the default species.
+     */
+    int getAlignmentPriority();
+
+    /**
+     * @param priority The alignment priority of the default species, not negative.
+     */
+    void setAlignmentPriority(int priority);
+
+    /**
+     * @return The separation priority of the default species.
+     */
+    int getSeparationPriority();
+
+    /**
+     * @param priority The separation priority of the default species, not negative.
+     */
+    void setSeparationPriority(int priority);
+
+    /**
+     * @return The cohesion priority of the default species.
+     */
+    int getCohesionPriority();
+
+    /**
+     * @param priority The cohesion priority of the default species, not negative.
+     */
+    void setCohesionPriority(int priority);
+
+    /**
+     * @return True if the predators hunt.
+     */
+    boolean isPredatorActive();
+
+    /**
+     * @param active True to let the predators hunt.
+     */
+    void setPredatorActive(boolean active);
+
+    /**
+     * @return True if the predators kill the individuals they catch.
+     */
+    boolean isPredatorLethal();
+
+    /**
+     * @param lethal True to let the predators kill.
+     */
+    void setPredatorLethal(boolean lethal);
+
+    /**
+     * @return The speed of the predators.
+     */
+    int getPredatorSpeed();
+
+    /**
+     * @param speed The speed of the predators, positive and at most {@link Config#MAX_PREDATOR_SPEED}.
+     */
+    void setPredatorSpeed(int speed);
+
+    /**
+     * @return The name of the escape strategy of the default species.
+     */
+    String getEscapeStrategy();
+
+    /**
+     * @param name The name of an escape strategy: potential-field[:beta], right-angle, predictive-right-angle,
+     *             explosion, predator-direction or none.
+     */
+    void setEscapeStrategy(String name);
+
+}
@@ -0,0 +1,87 @@
+package de.mlux1.swarmsim.logic.kernel;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         Inner loop of the neighbour statistics: visits a range of candidates in index order and adds those near the
+ *         individual to its {@link NeighbourSums}, within the radii set there.
+ *         <p/>
+ *         Besides the scalar kernel there is a vectorized one based on the incubating Vector API. It is compiled and
+ *         loaded separately, so the simulation still builds and runs on JVMs without the jdk.incubator.vector module.
+ */
+public abstract class NeighbourKernel
+{
+
+    private static final String VECTOR_KERNEL_CLASS = "de.mlux1.swarmsim.logic.kernel.VectorNeighbourKernel";
+
+    /**
+     * Adds the candidates at the positions [from, to) of the index order to the sums. The individual itself is skipped.
+     *
+     * @param xs    The x-positions of the neighbours by slot.
+     * @param ys    The y-positions of the neighbours by slot.
+     * @param dxs   The x components of the neighbour headings by slot.
+     * @param dys   The y components of the neighbour headings by slot.
+     * @param slots The slot of each position in index order.
+     * @param from  The first position.
+     * @param to    The position after the last position.
+     * @param self  The slot of the individual.
+     * @param x     The x-position of the individual.
+     * @param y     The y-position of the individual.
+     * @param sums  The sums to add to.
+     */
+    public abstract void accumulate(double[] xs, double[] ys, double[] dxs, double[] dys, int[] slots, int from, int to,
+                                    int self, double x, double y, NeighbourSums sums);
+
+    /**
+     * The title of this kernel.
+     *
+     * @return The title of this kernel.
+     */
+    public abstract String getTitle();
+
+    /**
+     * @see Object#toString()
+     */
+    @Override
+    public String toString()
+    {
+        return getTitle();
+    }
+
+    /**
+     * Creates the vectorized kernel if the JVM runs with the jdk.incubator.vector module
+     * (--add-modules jdk.incubator.vector) and the kernel has been compiled.
+     *
+     * @return The vectorized kernel, or null if it is not available.
+     */
+    public static NeighbourKernel createVectorKernel()
+    {
+        try
+        {
+            return (NeighbourKernel) Class.forName(VECTOR_KERNEL_CLASS).getDeclaredConstructor().newInstance();
+        } catch (Exception e)
+        {
+            return null;
+        } catch (LinkageError e)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Creates all kernels available on this JVM, the scalar one first.
+     *
+     * @return The available kernels.
+     */
+    public static NeighbourKernel[] createAvailableKernels()
+    {
+        NeighbourKernel vector = createVectorKernel();
+        if (vector == null)
+        {
+            return new NeighbourKernel[]{new ScalarNeighbourKernel()};
+        }
+        return new NeighbourKernel[]{new ScalarNeighbourKernel(), vector};
+    }
+
+}
@@ -0,0 +1,115 @@
+package de.mlux1.swarmsim.logic.kernel;
+
+import de.mlux1.swarmsim.logic.Config;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         Sums over the neighbours of one individual, accumulated range by range by a {@link NeighbourKernel}:
+ *         the nearest neighbour, the positions within the cohesion radius and the headings within the alignment radius.
+ *         The radii are set per individual, since every species has its own.
+ */
+public class NeighbourSums
+{
+
+    double cohesionRadiusSq = Config.COHESION_RADIUS * Config.COHESION_RADIUS;
+    double alignmentRadiusSq = Config.ALIGNMENT_RADIUS * Config.ALIGNMENT_RADIUS;
+
+    double nearestDistanceSq; //squared distance to the nearest neighbour so far
+    int nearest; //slot of the nearest neighbour so far, -1 if none
+    double centerX, centerY; //sum of the positions within the cohesion radius
+    int cohesionCount; //number of individuals within the cohesion radius
+    double alignmentX, alignmentY; //sum of the headings within the alignment radius
+
+    /**
+     * Constructor.
+     */
+    public NeighbourSums()
+    {
+        reset();
+    }
+
+    /**
+     * Sets the radii within which the neighbours are added to the sums. They are kept by {@link #reset()}.
+     *
+     * @param cohesionRadius  The cohesion radius, 0 to add no positions.
+     * @param alignmentRadius The alignment radius, 0 to add no headings.
+     */
+    public void setRadii(double cohesionRadius, double alignmentRadius)
+    {
+        cohesionRadiusSq = cohesionRadius * cohesionRadius;
+        alignmentRadiusSq = alignmentRadius * alignmentRadius;
+    }
+
+    /**
+     * Clears the sums for the next individual.
+     */
+    public void reset()
+    {
+        nearestDistanceSq = Double.MAX_VALUE;
+        nearest = -1;
+        centerX = 0;
+        centerY = 0;
+        cohesionCount = 0;
+        alignmentX = 0;
+        alignmentY = 0;
+    }
+
+    /**
+     * @return The squared distance to the nearest neighbour, Double.MAX_VALUE if there is none.
+     */
+    public double getNearestDistanceSq()
+    {
+        return nearestDistanceSq;
+    }
+
+    /**
+     * @return The slot of the nearest neighbour, -1 if there is none.
+     */
+    public int getNearest()
+    {
+        return nearest;
+    }
+
+    /**
+     * @return The sum of the x-positions within the cohesion radius.
+     */
+    public double getCenterX()
+    {
+        return centerX;
+    }
+
+    /**
+     * @return The sum of the y-positions within the cohesion radius.
+     */
+    public double getCenterY()
+    {
+        return centerY;
+    }
+
+    /**
+     * @return The number of individuals within the cohesion radius.
+     */
+    public int getCohesionCount()
+    {
+        return cohesionCount;
+    }
+
+    /**
+     * @return The sum of the x components of the headings within the alignment radius.
+     */
+    public double getAlignmentX()
+    {
+        return alignmentX;
+    }
+
+    /**
+     * @return The sum of the y components of the headings within the alignment radius.
+     */
+    public double getAlignmentY()
+    {
+        return alignmentY;
+    }
+
+}
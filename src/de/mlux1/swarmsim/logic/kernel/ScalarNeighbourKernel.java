@@ -0,0 +1,85 @@
+package de.mlux1.swarmsim.logic.kernel;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         Kernel that visits one candidate after another.
+ */
+public class ScalarNeighbourKernel extends NeighbourKernel
+{
+
+    /**
+     * @see NeighbourKernel#accumulate(double[], double[], double[], double[], int[], int, int, int, double, double, NeighbourSums)
+     */
+    @Override
+    public void accumulate(double[] xs, double[] ys, double[] dxs, double[] dys, int[] slots, int from, int to,
+                           int self, double x, double y, NeighbourSums sums)
+    {
+        accumulateScalar(xs, ys, dxs, dys, slots, from, to, self, x, y, sums);
+    }
+
+    /**
+     * The scalar loop, also used by the vectorized kernel for the candidates that do not fill a vector.
+     *
+     * @see NeighbourKernel#accumulate(double[], double[], double[], double[], int[], int, int, int, double, double, NeighbourSums)
+     */
+    static void accumulateScalar(double[] xs, double[] ys, double[] dxs, double[] dys, int[] slots, int from, int to,
+                                 int self, double x, double y, NeighbourSums sums)
+    {
+        double nearestDistanceSq = sums.nearestDistanceSq;
+        int nearest = sums.nearest;
+        double centerX = sums.centerX, centerY = sums.centerY;
+        int cohesionCount = sums.cohesionCount;
+        double alignmentX = sums.alignmentX, alignmentY = sums.alignmentY;
+        double cohesionRadiusSq = sums.cohesionRadiusSq, alignmentRadiusSq = sums.alignmentRadiusSq;
+
+        for (int k = from; k < to; k++)
+        {
+            int other = slots[k];
+            if (other == self)
+                continue;
+
+            double dx = xs[other] - x;
+            double dy = ys[other] - y;
+            double distanceSq = dx * dx + dy * dy;
+
+            if (distanceSq < nearestDistanceSq)
+            {
+                nearestDistanceSq = distanceSq;
+                nearest = other;
+            }
+
+            if (distanceSq < cohesionRadiusSq)
+            {
+                centerX += xs[other];
+                centerY += ys[other];
+                cohesionCount++;
+            }
+
+            if (distanceSq < alignmentRadiusSq)
+            {
+                alignmentX += dxs[other];
+                alignmentY += dys[other];
+            }
+        }
+
+        sums.nearestDistanceSq = nearestDistanceSq;
+        sums.nearest = nearest;
+        sums.centerX = centerX;
+        sums.centerY = centerY;
+        sums.cohesionCount = cohesionCount;
+        sums.alignmentX = alignmentX;
+        sums.alignmentY = alignmentY;
+    }
+
+    /**
+     * @see NeighbourKernel#getTitle()
+     */
+    @Override
+    public String getTitle()
+    {
+        return "Scalar";
+    }
+
+}
@@ -0,0 +1,189 @@
+package de.mlux1.swarmsim.logic.kernel;
+
+import jdk.incubator.vector.*;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         Kernel that visits as many candidates at once as the preferred vector shape of the CPU holds doubles, up to
+ *         four. The positions and headings of a range are copied to consecutive arrays first, leaving out the
+ *         individual itself. Squared distances are then compared in lanes, and the cohesion and
+ *         alignment sums are added under the radius masks. Every lane keeps its own nearest candidate, the lanes are
+ *         merged at the end of the range so that the first nearest candidate wins, as in the scalar loop.
+ *         The candidates that do not fill a vector, and ranges too short to be worth it, are handed to the scalar loop.
+ *         <p/>
+ *         Only compiled and loaded with --add-modules jdk.incubator.vector, see {@link NeighbourKernel#createVectorKernel()}.
+ *         The sums are added in a different order than by the scalar kernel, so results may differ in the last bits.
+ */
+public class VectorNeighbourKernel extends NeighbourKernel
+{
+
+    //at most 256 bits: the incubator module of JDK 17 does not compile 512 bit gathers and masks reliably
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED.vectorBitSize() > 256
+            ? DoubleVector.SPECIES_256 : DoubleVector.SPECIES_PREFERRED;
+    private static final int LANES = DOUBLES.length();
+    private static final int MIN_VECTOR_RANGE = 4 * LANES; //shorter ranges do not pay for the setup and reductions
+
+    private static final DoubleVector IOTA = DoubleVector.zero(DOUBLES).addIndex(1); //0, 1, 2, ... per lane
+    private static final DoubleVector ONE = DoubleVector.broadcast(DOUBLES, 1);
+    private static final DoubleVector MAX = DoubleVector.broadcast(DOUBLES, Double.MAX_VALUE);
+
+    //candidates packed to consecutive memory, per thread
+    private final ThreadLocal<Packed> packed = new ThreadLocal<Packed>()
+    {
+        @Override
+        protected Packed initialValue()
+        {
+            return new Packed();
+        }
+    };
+
+    /**
+     * @see NeighbourKernel#accumulate(double[], double[], double[], double[], int[], int, int, int, double, double, NeighbourSums)
+     */
+    @Override
+    public void accumulate(double[] xs, double[] ys, double[] dxs, double[] dys, int[] slots, int from, int to,
+                           int self, double x, double y, NeighbourSums sums)
+    {
+        if (to - from < MIN_VECTOR_RANGE)
+        {
+            ScalarNeighbourKernel.accumulateScalar(xs, ys, dxs, dys, slots, from, to, self, x, y, sums);
+            return;
+        }
+
+        //gathers by index map are not compiled to vector code by JDK 17, so the candidates are copied first
+        Packed packed = this.packed.get();
+        int size = packed.pack(xs, ys, dxs, dys, slots, from, to, self);
+        double[] px = packed.x, py = packed.y, pdx = packed.dx, pdy = packed.dy;
+        int bound = size / LANES * LANES;
+        double cohesionRadiusSq = sums.cohesionRadiusSq, alignmentRadiusSq = sums.alignmentRadiusSq;
+
+        //the sums start from vectors created here: constants as loop inputs keep JDK 17 from compiling to vector code
+        DoubleVector nearestDistanceSq = DoubleVector.broadcast(DOUBLES, Double.MAX_VALUE);
+        DoubleVector nearestPosition = DoubleVector.broadcast(DOUBLES, -1);
+        DoubleVector centerX = DoubleVector.zero(DOUBLES), centerY = DoubleVector.zero(DOUBLES);
+        DoubleVector cohesionCount = DoubleVector.zero(DOUBLES);
+        DoubleVector alignmentX = DoubleVector.zero(DOUBLES), alignmentY = DoubleVector.zero(DOUBLES);
+        DoubleVector cohesionRadius = DoubleVector.broadcast(DOUBLES, cohesionRadiusSq);
+        DoubleVector alignmentRadius = DoubleVector.broadcast(DOUBLES, alignmentRadiusSq);
+
+        for (int k = 0; k < bound; k += LANES)
+        {
+            DoubleVector otherX = DoubleVector.fromArray(DOUBLES, px, k);
+            DoubleVector otherY = DoubleVector.fromArray(DOUBLES, py, k);
+            DoubleVector dx = otherX.sub(x);
+            DoubleVector dy = otherY.sub(y);
+            DoubleVector distanceSq = dx.mul(dx).add(dy.mul(dy));
+
+            VectorMask<Double> nearer = distanceSq.compare(VectorOperators.LT, nearestDistanceSq);
+            nearestDistanceSq = nearestDistanceSq.blend(distanceSq, nearer);
+            nearestPosition = nearestPosition.blend(IOTA.add(k), nearer);
+
+            VectorMask<Double> cohesion = distanceSq.compare(VectorOperators.LT, cohesionRadius);
+            centerX = centerX.add(otherX, cohesion);
+            centerY = centerY.add(otherY, cohesion);
+            cohesionCount = cohesionCount.add(ONE, cohesion);
+
+            VectorMask<Double> alignment = distanceSq.compare(VectorOperators.LT, alignmentRadius);
+            alignmentX = alignmentX.add(DoubleVector.fromArray(DOUBLES, pdx, k), alignment);
+            alignmentY = alignmentY.add(DoubleVector.fromArray(DOUBLES, pdy, k), alignment);
+        }
+
+        //the nearest of all lanes, on ties the one visited first
+        double rangeNearestSq = nearestDistanceSq.reduceLanes(VectorOperators.MIN);
+        if (rangeNearestSq < sums.nearestDistanceSq)
+        {
+            VectorMask<Double> further = nearestDistanceSq.compare(VectorOperators.NE, rangeNearestSq);
+            int position = (int) nearestPosition.blend(MAX, further).reduceLanes(VectorOperators.MIN);
+            sums.nearestDistanceSq = rangeNearestSq;
+            sums.nearest = packed.slots[position];
+        }
+
+        sums.centerX += centerX.reduceLanes(VectorOperators.ADD);
+        sums.centerY += centerY.reduceLanes(VectorOperators.ADD);
+        sums.cohesionCount += (int) cohesionCount.reduceLanes(VectorOperators.ADD);
+        sums.alignmentX += alignmentX.reduceLanes(VectorOperators.ADD);
+        sums.alignmentY += alignmentY.reduceLanes(VectorOperators.ADD);
+
+        for (int k = bound; k < size; k++)
+        {
+            double dx = px[k] - x;
+            double dy = py[k] - y;
+            double distanceSq = dx * dx + dy * dy;
+
+            if (distanceSq < sums.nearestDistanceSq)
+            {
+                sums.nearestDistanceSq = distanceSq;
+                sums.nearest = packed.slots[k];
+            }
+
+            if (distanceSq < cohesionRadiusSq)
+            {
+                sums.centerX += px[k];
+                sums.centerY += py[k];
+                sums.cohesionCount++;
+            }
+
+            if (distanceSq < alignmentRadiusSq)
+            {
+                sums.alignmentX += pdx[k];
+                sums.alignmentY += pdy[k];
+            }
+        }
+    }
+
+    /**
+     * Candidates of a range without the individual itself, copied to consecutive memory.
+     */
+    private static class Packed
+    {
+
+        private double[] x = new double[0], y = new double[0], dx = new double[0], dy = new double[0];
+        private int[] slots = new int[0];
+
+        /**
+         * Copies the candidates of a range.
+         *
+         * @return The number of copied candidates.
+         */
+        int pack(double[] xs, double[] ys, double[] dxs, double[] dys, int[] slots, int from, int to, int self)
+        {
+            if (x.length < to - from)
+            {
+                int capacity = (to - from) * 2;
+                x = new double[capacity];
+                y = new double[capacity];
+                dx = new double[capacity];
+                dy = new double[capacity];
+                this.slots = new int[capacity];
+            }
+
+            int size = 0;
+            for (int k = from; k < to; k++)
+            {
+                int other = slots[k];
+                if (other == self)
+                    continue;
+
+                x[size] = xs[other];
+                y[size] = ys[other];
+                dx[size] = dxs[other];
+                dy[size] = dys[other];
+                this.slots[size++] = other;
+            }
+            return size;
+        }
+
+    }
+
+    /**
+     * @see NeighbourKernel#getTitle()
+     */
+    @Override
+    public String getTitle()
+    {
+        return "Vector (" + LANES + " lanes)";
+    }
+
+}
@@ -1,7 +1,7 @@
 package de.mlux1.swarmsim.logic.strategy;
 
 import de.mlux1.swarmsim.logic.Direction;
-import de.mlux1.swarmsim.logic.Individual;
+import de.mlux1.swarmsim.logic.SwarmState;
 
 /**
  * @author mlux
@@ -14,11 +14,14 @@ public interface MovementStrategy
 
     /**
      * Calculates the steering angle the individual should move to with the concrete strategy.
+     * The result is written to a direction of the caller, so that no objects are created per individual.
      *
-     * @param individual The individual.
-     * @return The direction angle split in dx, dy.
+     * @param swarm     The swarm.
+     * @param slot      The slot of the individual in the swarm.
+     * @param direction Receives the direction angle split in dx, dy.
+     * @return True if the strategy steers the individual, false if it leaves it alone and direction is unchanged.
      */
-    public Direction calculateSteeringAngle(Individual individual);
+    public boolean calculateSteeringAngle(SwarmState swarm, int slot, Direction direction);
 
     /**
      * Returns if the steering should be relative.
@@ -1,64 +1,69 @@
 package de.mlux1.swarmsim.logic.strategy;
 
-import de.mlux1.swarmsim.logic.AppState;
 import de.mlux1.swarmsim.logic.Direction;
-import de.mlux1.swarmsim.logic.Individual;
+import de.mlux1.swarmsim.logic.Species;
 import de.mlux1.swarmsim.logic.SwarmInformation;
+import de.mlux1.swarmsim.logic.SwarmState;
 
 /**
  * @author mlux
  *         Date: 22.08.11
  *         <p/>
- *         Main class for computing swarm movement with separation, alignment, cohesion.
+ *         Main class for computing swarm movement with separation, alignment, cohesion, weighted by the priorities of
+ *         the species of the individual.
  */
 public class SwarmMovementStrategy implements MovementStrategy
 {
 
     /**
-     * @see MovementStrategy#calculateSteeringAngle(de.mlux1.swarmsim.logic.Individual)
+     * @see MovementStrategy#calculateSteeringAngle(de.mlux1.swarmsim.logic.SwarmState, int, de.mlux1.swarmsim.logic.Direction)
      */
     @Override
-    public Direction calculateSteeringAngle(Individual individual)
+    public boolean calculateSteeringAngle(SwarmState swarm, int slot, Direction direction)
     {
         double finalDX = 0, finalDY = 0; //final x,y-Diffs for the resulting angle.
         double dx, dy;
         double dist;
 
-        SwarmInformation information = SwarmInformation.compute(individual);
+        SwarmInformation information = SwarmInformation.compute(swarm, slot);
+        Species species = information.getSpecies();
+        double x = swarm.getX()[slot];
+        double y = swarm.getY()[slot];
 
         /**
          * Separation
          */
         if (information.isNearestNeighbourTooNear())
         {
-            dx = information.getNearestNeighbourX() - individual.getX();
-            dy = information.getNearestNeighbourY() - individual.getY();
+            dx = information.getNearestNeighbourX() - x;
+            dy = information.getNearestNeighbourY() - y;
+            dist = information.getNearestNeighbourDistance();
             //turn away faster if neighbour is nearer (divide by distance)
-            finalDX -= dx / information.getNearestNeighbourDistance() * AppState.getInstance().getSeparationPriority();
-            finalDY -= dy / information.getNearestNeighbourDistance() * AppState.getInstance().getSeparationPriority();
+            finalDX -= dx / dist * species.getSeparationPriority();
+            finalDY -= dy / dist * species.getSeparationPriority();
         }
 
         /**
          * Alignment
          */
-        double averageAngle = information.getAverageAngle();
-        finalDX += Math.cos(averageAngle) * AppState.getInstance().getAlignmentPriority();
-        finalDY += Math.sin(averageAngle) * AppState.getInstance().getAlignmentPriority();
+        finalDX += information.getAverageDx() * species.getAlignmentPriority();
+        finalDY += information.getAverageDy() * species.getAlignmentPriority();
 
         /**
          * Cohesion
          */
         if (information.seesCohesionNeighbours())
         {
-            dx = information.getSwarmCenterX() - individual.getX();
-            dy = information.getSwarmCenterY() - individual.getY();
+            dx = information.getSwarmCenterX() - x;
+            dy = information.getSwarmCenterY() - y;
             dist = Math.sqrt(dx * dx + dy * dy);
             //turn faster if center is nearer (divide by distance)
-            finalDX += dx / dist * AppState.getInstance().getCohesionPriority();
-            finalDY += dy / dist * AppState.getInstance().getCohesionPriority();
+            finalDX += dx / dist * species.getCohesionPriority();
+            finalDY += dy / dist * species.getCohesionPriority();
         }
 
-        return new Direction(finalDX, finalDY);
+        direction.set(finalDX, finalDY);
+        return true;
     }
 
     /**
@@ -3,7 +3,7 @@ package de.mlux1.swarmsim.logic.strategy;
 import de.mlux1.swarmsim.logic.AppState;
 import de.mlux1.swarmsim.logic.Config;
 import de.mlux1.swarmsim.logic.Direction;
-import de.mlux1.swarmsim.logic.Individual;
+import de.mlux1.swarmsim.logic.SwarmState;
 
 /**
  * @author mlux
@@ -15,18 +15,19 @@ public class TargetMovementStrategy implements MovementStrategy
 {
 
     /**
-     * @see MovementStrategy#calculateSteeringAngle(de.mlux1.swarmsim.logic.Individual)
+     * @see MovementStrategy#calculateSteeringAngle(de.mlux1.swarmsim.logic.SwarmState, int, de.mlux1.swarmsim.logic.Direction)
      */
     @Override
-    public Direction calculateSteeringAngle(Individual individual)
+    public boolean calculateSteeringAngle(SwarmState swarm, int slot, Direction direction)
     {
-        double dx = AppState.getInstance().getTargetX() - individual.getX();
-        double dy = AppState.getInstance().getTargetY() - individual.getY();
+        double dx = AppState.getInstance().getTargetX() - swarm.getX()[slot];
+        double dy = AppState.getInstance().getTargetY() - swarm.getY()[slot];
         double dist = Math.sqrt(dx * dx + dy * dy);
         //turn faster if target is nearer (divide by distance)
         dx = dx / dist * Config.DEFAULT_TARGET_PRIORITY;
         dy = dy / dist * Config.DEFAULT_TARGET_PRIORITY;
-        return new Direction(dx, dy);
+        direction.set(dx, dy);
+        return true;
     }
 
     /**
@@ -0,0 +1,79 @@
+package de.mlux1.swarmsim.logic.strategy.escape;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         Names of the escape strategies, as given on the command line and over JMX: potential-field[:beta],
+ *         right-angle, predictive-right-angle, explosion, predator-direction and none.
+ */
+public class EscapeStrategies
+{
+
+    public static final String POTENTIAL_FIELD = "potential-field";
+    public static final double DEFAULT_BETA = 0.5;
+
+    /* Utility class - no constructor visible */
+    private EscapeStrategies()
+    {
+    }
+
+    /**
+     * Creates the escape strategy of the given name.
+     *
+     * @param name The name, potential-field may be followed by <code>:beta</code>.
+     * @return The strategy.
+     * @throws IllegalArgumentException If there is no strategy of this name.
+     */
+    public static EscapeStrategy forName(String name)
+    {
+        if (name.startsWith(POTENTIAL_FIELD))
+        {
+            String beta = name.substring(POTENTIAL_FIELD.length());
+            if (beta.isEmpty())
+                return new PotentialFieldEscapeStrategy(DEFAULT_BETA);
+            if (beta.startsWith(":"))
+                return new PotentialFieldEscapeStrategy(Double.parseDouble(beta.substring(1)));
+        } else if ("right-angle".equals(name))
+        {
+            return new RightAngleEscapeStrategy();
+        } else if ("predictive-right-angle".equals(name))
+        {
+            return new PredictiveRightAngleEscapeStrategy();
+        } else if ("explosion".equals(name))
+        {
+            return new ExplosionEscapeStrategy();
+        } else if ("predator-direction".equals(name))
+        {
+            return new PredatorDirectionEscapeStrategy();
+        } else if ("none".equals(name))
+        {
+            return new NoEscapeStrategy();
+        }
+        throw new IllegalArgumentException("Unknown escape strategy " + name);
+    }
+
+    /**
+     * Returns the name of an escape strategy, the one {@link #forName(String)} creates it from.
+     *
+     * @param strategy The strategy.
+     * @return The name, or the title for strategies without a name.
+     */
+    public static String getName(EscapeStrategy strategy)
+    {
+        if (strategy instanceof PotentialFieldEscapeStrategy)
+            return POTENTIAL_FIELD + ":" + ((PotentialFieldEscapeStrategy) strategy).getBeta();
+        if (strategy instanceof RightAngleEscapeStrategy)
+            return "right-angle";
+        if (strategy instanceof PredictiveRightAngleEscapeStrategy)
+            return "predictive-right-angle";
+        if (strategy instanceof ExplosionEscapeStrategy)
+            return "explosion";
+        if (strategy instanceof PredatorDirectionEscapeStrategy)
+            return "predator-direction";
+        if (strategy instanceof NoEscapeStrategy)
+            return "none";
+        return strategy.getTitle();
+    }
+
+}
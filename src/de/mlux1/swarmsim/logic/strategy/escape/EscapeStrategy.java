@@ -1,7 +1,12 @@
 package de.mlux1.swarmsim.logic.strategy.escape;
 
+import de.mlux1.swarmsim.logic.CheckpointInput;
+import de.mlux1.swarmsim.logic.CheckpointOutput;
+import de.mlux1.swarmsim.logic.SwarmState;
 import de.mlux1.swarmsim.logic.strategy.MovementStrategy;
 
+import java.io.IOException;
+
 /**
  * @author mlux
  *         Date: 30.08.11
@@ -18,6 +23,38 @@ public abstract class EscapeStrategy implements MovementStrategy
      */
     public abstract String getTitle();
 
+    /**
+     * Called by the simulation thread before the individuals are steered in a tick, once for every species that uses
+     * this strategy. Strategies that keep state per individual prepare it here, since the steering may run in
+     * parallel. Does nothing by default.
+     *
+     * @param swarm The swarm that is steered.
+     * @param tick  The number of the tick.
+     */
+    public void beginTick(SwarmState swarm, long tick)
+    {
+    }
+
+    /**
+     * Writes the parameters of this strategy and the state it keeps per individual to a checkpoint. Strategies are
+     * restored by their no-argument constructor and {@link #readState(CheckpointInput)}. Writes nothing by default.
+     *
+     * @param out The checkpoint.
+     */
+    public void writeState(CheckpointOutput out)
+    {
+    }
+
+    /**
+     * Restores what {@link #writeState(CheckpointOutput)} wrote. Reads nothing by default.
+     *
+     * @param in The checkpoint.
+     * @throws IOException If the checkpoint cannot be read.
+     */
+    public void readState(CheckpointInput in) throws IOException
+    {
+    }
+
     /**
      * @see Object#toString()
      */
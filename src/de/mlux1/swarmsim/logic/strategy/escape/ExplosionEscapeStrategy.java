@@ -1,49 +1,74 @@
 package de.mlux1.swarmsim.logic.strategy.escape;
 
+import de.mlux1.swarmsim.logic.AppState;
+import de.mlux1.swarmsim.logic.CheckpointInput;
+import de.mlux1.swarmsim.logic.CheckpointOutput;
+import de.mlux1.swarmsim.logic.Config;
 import de.mlux1.swarmsim.logic.Direction;
-import de.mlux1.swarmsim.logic.Individual;
+import de.mlux1.swarmsim.logic.RandomStreams;
+import de.mlux1.swarmsim.logic.SwarmState;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.io.IOException;
 
 /**
  * @author mlux
  *         Date: 30.08.11
  *         <p/>
  *         Escape strategy that lets explode the swarm in randomized directions.
- *         It will hold the new direction for a specified time interval.
+ *         It will hold the new direction for a specified number of ticks.
  */
 public class ExplosionEscapeStrategy extends EscapeStrategy
 {
 
-    public static final long TIME_INTERVAL = 1000;
+    public static final int HOLD_TICKS = Config.FRAME_RATE; //one second at the nominal tick rate
 
-    private Map<Individual, Long> times = new HashMap<Individual, Long>();
-    private Map<Individual, Direction> dirs = new HashMap<Individual, Direction>();
+    private final HeldDirections held = new HeldDirections();
 
     /**
-     * @see de.mlux1.swarmsim.logic.strategy.MovementStrategy#calculateSteeringAngle(de.mlux1.swarmsim.logic.Individual)
+     * @see EscapeStrategy#beginTick(SwarmState, long)
      */
     @Override
-    public Direction calculateSteeringAngle(Individual individual)
+    public void beginTick(SwarmState swarm, long tick)
     {
-        Long time = times.get(individual);
-        if (time != null && time > System.currentTimeMillis())
-        {
-            return dirs.get(individual);
-        } else
+        held.beginTick(swarm, tick);
+    }
+
+    /**
+     * @see EscapeStrategy#writeState(CheckpointOutput)
+     */
+    @Override
+    public void writeState(CheckpointOutput out)
+    {
+        held.writeTo(out);
+    }
+
+    /**
+     * @see EscapeStrategy#readState(CheckpointInput)
+     */
+    @Override
+    public void readState(CheckpointInput in) throws IOException
+    {
+        held.readFrom(in);
+    }
+
+    /**
+     * @see de.mlux1.swarmsim.logic.strategy.MovementStrategy#calculateSteeringAngle(de.mlux1.swarmsim.logic.SwarmState, int, de.mlux1.swarmsim.logic.Direction)
+     */
+    @Override
+    public boolean calculateSteeringAngle(SwarmState swarm, int slot, Direction direction)
+    {
+        int id = swarm.getId(slot);
+        if (held.get(swarm, id, direction))
+            return true;
+
+        if (AppState.getInstance().isPredatorInRange(swarm.getX()[slot], swarm.getY()[slot]))
         {
-            times.remove(individual);
-            dirs.remove(individual);
-            if (individual.isPredatorInRange())
-            {
-                Direction dir = new Direction(Math.random() * 2 * Math.PI);
-                dirs.put(individual, dir);
-                times.put(individual, System.currentTimeMillis() + TIME_INTERVAL);
-                return dir;
-            }
+            double angle = RandomStreams.current().nextDouble() * 2 * Math.PI;
+            direction.set(Math.cos(angle), Math.sin(angle));
+            held.hold(swarm, id, direction.getDx(), direction.getDy(), HOLD_TICKS);
+            return true;
         }
-        return null;
+        return false;
     }
 
     /**
@@ -0,0 +1,121 @@
+package de.mlux1.swarmsim.logic.strategy.escape;
+
+import de.mlux1.swarmsim.logic.CheckpointInput;
+import de.mlux1.swarmsim.logic.CheckpointOutput;
+import de.mlux1.swarmsim.logic.Direction;
+import de.mlux1.swarmsim.logic.SwarmState;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         Escape directions that individuals hold for a number of ticks. The directions are kept in primitive columns
+ *         indexed by the id of the individual, so looking one up is an array read. Expiry is counted in ticks, so an
+ *         individual holds its direction for the same simulated time however fast the ticks run.
+ *         <p/>
+ *         An entry is only valid for the generation of the id it was set for, so removed individuals leave nothing
+ *         behind for the ones that get their ids later. The columns only grow with the ids in use.
+ */
+class HeldDirections
+{
+
+    private long[] holdUntil = new long[0]; //tick from which on each id no longer holds its direction
+    private int[] generation = new int[0]; //generation of the id the direction was set for
+    private double[] heldDx = new double[0], heldDy = new double[0];
+    private long tick; //the current tick
+
+    /**
+     * Starts a tick: makes room for all ids of the swarm. Must be called before the individuals are steered.
+     *
+     * @param swarm The swarm.
+     * @param tick  The number of the tick.
+     */
+    void beginTick(SwarmState swarm, long tick)
+    {
+        this.tick = tick;
+        int bound = swarm.getIdBound();
+        if (holdUntil.length < bound)
+        {
+            int capacity = Math.max(bound, holdUntil.length * 2);
+            holdUntil = Arrays.copyOf(holdUntil, capacity);
+            generation = Arrays.copyOf(generation, capacity);
+            heldDx = Arrays.copyOf(heldDx, capacity);
+            heldDy = Arrays.copyOf(heldDy, capacity);
+        }
+    }
+
+    /**
+     * Returns the direction an individual still holds.
+     *
+     * @param swarm     The swarm.
+     * @param id        The id of the individual.
+     * @param direction Receives the held direction.
+     * @return True if the individual holds a direction, otherwise false.
+     */
+    boolean get(SwarmState swarm, int id, Direction direction)
+    {
+        if (id >= holdUntil.length || holdUntil[id] <= tick || generation[id] != swarm.getGeneration(id))
+            return false;
+
+        direction.set(heldDx[id], heldDy[id]);
+        return true;
+    }
+
+    /**
+     * Lets an individual hold a direction, starting with the current tick.
+     *
+     * @param swarm The swarm.
+     * @param id    The id of the individual.
+     * @param dx    The x component of the direction.
+     * @param dy    The y component of the direction.
+     * @param ticks The number of ticks to hold it.
+     */
+    void hold(SwarmState swarm, int id, double dx, double dy, int ticks)
+    {
+        if (id >= holdUntil.length)
+            return; //not prepared by beginTick, the direction is used for this tick only
+
+        holdUntil[id] = tick + ticks;
+        generation[id] = swarm.getGeneration(id);
+        heldDx[id] = dx;
+        heldDy[id] = dy;
+    }
+
+    /**
+     * Writes the held directions to a checkpoint. Their expiry is kept as tick numbers, so it stays valid for a
+     * simulation restored at the same tick.
+     *
+     * @param out The checkpoint.
+     */
+    void writeTo(CheckpointOutput out)
+    {
+        out.putInt(holdUntil.length);
+        out.putLongs(holdUntil, holdUntil.length);
+        out.putInts(generation, generation.length);
+        out.putDoubles(heldDx, heldDx.length);
+        out.putDoubles(heldDy, heldDy.length);
+    }
+
+    /**
+     * Replaces the held directions by the ones of a checkpoint.
+     *
+     * @param in The checkpoint.
+     * @throws IOException If the checkpoint cannot be read.
+     */
+    void readFrom(CheckpointInput in) throws IOException
+    {
+        int capacity = in.getCount(Integer.MAX_VALUE);
+        holdUntil = new long[capacity];
+        generation = new int[capacity];
+        heldDx = new double[capacity];
+        heldDy = new double[capacity];
+        in.getLongs(holdUntil, capacity);
+        in.getInts(generation, capacity);
+        in.getDoubles(heldDx, capacity);
+        in.getDoubles(heldDy, capacity);
+    }
+
+}
@@ -1,7 +1,7 @@
 package de.mlux1.swarmsim.logic.strategy.escape;
 
 import de.mlux1.swarmsim.logic.Direction;
-import de.mlux1.swarmsim.logic.Individual;
+import de.mlux1.swarmsim.logic.SwarmState;
 
 /**
  * @author mlux
@@ -13,12 +13,12 @@ public class NoEscapeStrategy extends EscapeStrategy
 {
 
     /**
-     * @see de.mlux1.swarmsim.logic.strategy.MovementStrategy#calculateSteeringAngle(de.mlux1.swarmsim.logic.Individual)
+     * @see de.mlux1.swarmsim.logic.strategy.MovementStrategy#calculateSteeringAngle(de.mlux1.swarmsim.logic.SwarmState, int, de.mlux1.swarmsim.logic.Direction)
      */
     @Override
-    public Direction calculateSteeringAngle(Individual individual)
+    public boolean calculateSteeringAngle(SwarmState swarm, int slot, Direction direction)
     {
-        return null;
+        return false;
     }
 
     /**
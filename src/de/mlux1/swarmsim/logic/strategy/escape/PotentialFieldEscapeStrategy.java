@@ -1,17 +1,19 @@
 package de.mlux1.swarmsim.logic.strategy.escape;
 
 import de.mlux1.swarmsim.logic.AppState;
-import de.mlux1.swarmsim.logic.Config;
+import de.mlux1.swarmsim.logic.CheckpointInput;
+import de.mlux1.swarmsim.logic.CheckpointOutput;
 import de.mlux1.swarmsim.logic.Direction;
-import de.mlux1.swarmsim.logic.Individual;
+import de.mlux1.swarmsim.logic.SwarmState;
 
+import java.io.IOException;
 import java.text.DecimalFormat;
 
 /**
  * @author mlux
  *         Date: 27.08.11
  *         <p/>
- *         Escape strategy that uses potential fields.
+ *         Escape strategy that uses potential fields. Only the nearest predator repels.
  *         See "Potential fields tutorial, MA Goodrich - Class Notes, 2002"
  */
 public class PotentialFieldEscapeStrategy extends EscapeStrategy
@@ -30,25 +32,49 @@ public class PotentialFieldEscapeStrategy extends EscapeStrategy
     }
 
     /**
-     * @see de.mlux1.swarmsim.logic.strategy.MovementStrategy#calculateSteeringAngle(de.mlux1.swarmsim.logic.Individual)
+     * Returns how strongly the nearest predator repels.
+     *
+     * @return The beta of the potential field.
+     */
+    public double getBeta()
+    {
+        return beta;
+    }
+
+    /**
+     * @see de.mlux1.swarmsim.logic.strategy.MovementStrategy#calculateSteeringAngle(de.mlux1.swarmsim.logic.SwarmState, int, de.mlux1.swarmsim.logic.Direction)
      */
     @Override
-    public Direction calculateSteeringAngle(Individual individual)
+    public boolean calculateSteeringAngle(SwarmState swarm, int slot, Direction direction)
     {
-        if (individual.isPredatorInRange())
+        double x = swarm.getX()[slot];
+        double y = swarm.getY()[slot];
+        int predator = AppState.getInstance().getNearestPredator(x, y);
+        if (predator >= 0)
         {
-            double dx = AppState.getInstance().getPredator().getX() - individual.getX();
-            double dy = AppState.getInstance().getPredator().getY() - individual.getY();
-            double angleToPredator = Math.atan2(dy, dx);
-
+            SwarmState predators = AppState.getInstance().getPredators();
+            double dx = predators.getX()[predator] - x;
+            double dy = predators.getY()[predator] - y;
             double dist = Math.sqrt(dx * dx + dy * dy);
+            if (dist > 0)
+            {
+                //unit vector to the predator
+                dx /= dist;
+                dy /= dist;
+            } else
+            {
+                dx = 1;
+                dy = 0;
+            }
 
-            double iDx = -1 * beta * (Config.MAX_PREDATOR_DISTANCE - dist) * Math.cos(angleToPredator);
-            double iDy = -1 * beta * (Config.MAX_PREDATOR_DISTANCE - dist) * Math.sin(angleToPredator);
+            double maxDistance = AppState.getInstance().getConfig().getMaxPredatorDistance();
+            double iDx = -1 * beta * (maxDistance - dist) * dx;
+            double iDy = -1 * beta * (maxDistance - dist) * dy;
 
-            return new Direction(iDx, iDy);
+            direction.set(iDx, iDy);
+            return true;
         }
-        return null;
+        return false;
     }
 
     /**
@@ -68,4 +94,22 @@ public class PotentialFieldEscapeStrategy extends EscapeStrategy
     {
         return String.format("Potential field (beta = %s)", decimalFormat.format(beta));
     }
+
+    /**
+     * @see EscapeStrategy#writeState(CheckpointOutput)
+     */
+    @Override
+    public void writeState(CheckpointOutput out)
+    {
+        out.putDouble(beta);
+    }
+
+    /**
+     * @see EscapeStrategy#readState(CheckpointInput)
+     */
+    @Override
+    public void readState(CheckpointInput in) throws IOException
+    {
+        beta = in.getDouble();
+    }
 }
@@ -1,12 +1,14 @@
 package de.mlux1.swarmsim.logic.strategy.escape;
 
 import de.mlux1.swarmsim.logic.AppState;
+import de.mlux1.swarmsim.logic.CheckpointInput;
+import de.mlux1.swarmsim.logic.CheckpointOutput;
+import de.mlux1.swarmsim.logic.Config;
 import de.mlux1.swarmsim.logic.Direction;
-import de.mlux1.swarmsim.logic.Individual;
+import de.mlux1.swarmsim.logic.RandomStreams;
+import de.mlux1.swarmsim.logic.SwarmState;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Random;
+import java.io.IOException;
 
 /**
  * @author mlux
@@ -14,46 +16,66 @@ import java.util.Random;
  *         <p/>
  *         Escape strategy that lets individuals flee in the direction of the predator itself so they're
  *         running away. It also generates an offset so that individuals have a chance to get out of the
- *         predator range.
+ *         predator range. If several predators are in range, the nearest one counts.
  */
 public class PredatorDirectionEscapeStrategy extends EscapeStrategy
 {
 
-    public static final long TIME_INTERVAL = 1000;
+    public static final int HOLD_TICKS = Config.FRAME_RATE; //one second at the nominal tick rate
 
-    private Map<Individual, Long> times = new HashMap<Individual, Long>();
-    private Map<Individual, Direction> dirs = new HashMap<Individual, Direction>();
+    private final HeldDirections held = new HeldDirections();
 
-    private Random random = new Random(System.currentTimeMillis());
+    /**
+     * @see EscapeStrategy#beginTick(SwarmState, long)
+     */
+    @Override
+    public void beginTick(SwarmState swarm, long tick)
+    {
+        held.beginTick(swarm, tick);
+    }
 
     /**
-     * @see de.mlux1.swarmsim.logic.strategy.MovementStrategy#calculateSteeringAngle(de.mlux1.swarmsim.logic.Individual)
+     * @see EscapeStrategy#writeState(CheckpointOutput)
      */
     @Override
-    public Direction calculateSteeringAngle(Individual individual)
+    public void writeState(CheckpointOutput out)
     {
-        Long time = times.get(individual);
-        if (time != null && time > System.currentTimeMillis())
-        {
-            return dirs.get(individual);
-        } else
+        held.writeTo(out);
+    }
+
+    /**
+     * @see EscapeStrategy#readState(CheckpointInput)
+     */
+    @Override
+    public void readState(CheckpointInput in) throws IOException
+    {
+        held.readFrom(in);
+    }
+
+    /**
+     * @see de.mlux1.swarmsim.logic.strategy.MovementStrategy#calculateSteeringAngle(de.mlux1.swarmsim.logic.SwarmState, int, de.mlux1.swarmsim.logic.Direction)
+     */
+    @Override
+    public boolean calculateSteeringAngle(SwarmState swarm, int slot, Direction direction)
+    {
+        int id = swarm.getId(slot);
+        if (held.get(swarm, id, direction))
+            return true;
+
+        int predator = AppState.getInstance().getNearestPredator(swarm.getX()[slot], swarm.getY()[slot]);
+        if (predator >= 0)
         {
-            times.remove(individual);
-            dirs.remove(individual);
-            if (individual.isPredatorInRange())
-            {
-                Direction dir = new Direction(AppState.getInstance().getPredator().getAngle());
-                double offsetDX = Math.random() * Math.PI / 8;
-                double offsetDY = Math.random() * Math.PI / 8;
-                offsetDX = random.nextBoolean() ? -offsetDX : offsetDX;
-                offsetDY = random.nextBoolean() ? -offsetDY : offsetDY;
-                dir = dir.add(new Direction(offsetDX, offsetDY));
-                dirs.put(individual, dir);
-                times.put(individual, System.currentTimeMillis() + TIME_INTERVAL);
-                return dir;
-            }
+            SwarmState predators = AppState.getInstance().getPredators();
+            RandomStreams.Stream random = RandomStreams.current();
+            double offsetDX = random.nextDouble() * Math.PI / 8;
+            double offsetDY = random.nextDouble() * Math.PI / 8;
+            offsetDX = random.nextBoolean() ? -offsetDX : offsetDX;
+            offsetDY = random.nextBoolean() ? -offsetDY : offsetDY;
+            direction.set(predators.getDx()[predator] + offsetDX, predators.getDy()[predator] + offsetDY);
+            held.hold(swarm, id, direction.getDx(), direction.getDy(), HOLD_TICKS);
+            return true;
         }
-        return null;
+        return false;
     }
 
     /**
@@ -2,7 +2,7 @@ package de.mlux1.swarmsim.logic.strategy.escape;
 
 import de.mlux1.swarmsim.logic.AppState;
 import de.mlux1.swarmsim.logic.Direction;
-import de.mlux1.swarmsim.logic.Individual;
+import de.mlux1.swarmsim.logic.SwarmState;
 
 /**
  * @author mlux
@@ -10,40 +10,49 @@ import de.mlux1.swarmsim.logic.Individual;
  *         <p/>
  *         Escape strategy that lets individuals move in right angle to movement angle of predator.
  *         In addition to that it predicts movement of the predator and the individual itself to determine
- *         in which direction ("which one is the right angle") to go.
+ *         in which direction ("which one is the right angle") to go. Only the nearest predator is taken into account.
  */
 public class PredictiveRightAngleEscapeStrategy extends EscapeStrategy
 {
 
     /**
-     * @see de.mlux1.swarmsim.logic.strategy.MovementStrategy#calculateSteeringAngle(de.mlux1.swarmsim.logic.Individual)
+     * @see de.mlux1.swarmsim.logic.strategy.MovementStrategy#calculateSteeringAngle(de.mlux1.swarmsim.logic.SwarmState, int, de.mlux1.swarmsim.logic.Direction)
      */
     @Override
-    public Direction calculateSteeringAngle(Individual individual)
+    public boolean calculateSteeringAngle(SwarmState swarm, int slot, Direction direction)
     {
-        if (individual.isPredatorInRange())
+        double x = swarm.getX()[slot];
+        double y = swarm.getY()[slot];
+        int predator = AppState.getInstance().getNearestPredator(x, y);
+        if (predator >= 0)
         {
             //calculate right angle to the predator direction
-            double offset = Math.PI / 2;
-            double newAngle = AppState.getInstance().getPredator().getAngle() + offset;
+            SwarmState predators = AppState.getInstance().getPredators();
+            double predatorDx = predators.getDx()[predator];
+            double predatorDy = predators.getDy()[predator];
+            double predatorSpeed = predators.getSpeed()[predator];
+            double newDx = -predatorDy;
+            double newDy = predatorDx;
 
-            //simulate one step of movement
-            Individual i = new Individual(individual);
-            Individual p = new Individual(AppState.getInstance().getPredator());
-            double distBefore = i.getDistanceTo(p);
-            i.setAngle(newAngle);
-            i.update();
-            p.update();
+            //simulate one step of movement of the individual and the predator
+            double speed = swarm.getSpeed()[slot];
+            double dx = predators.getX()[predator] - x;
+            double dy = predators.getY()[predator] - y;
+            double distBeforeSq = dx * dx + dy * dy;
+            dx += predatorDx * predatorSpeed - newDx * speed;
+            dy += predatorDy * predatorSpeed - newDy * speed;
             //if the distance to predator has decreased, switch direction
-            double distAfter = i.getDistanceTo(p);
-            if (distAfter < distBefore)
+            double distAfterSq = dx * dx + dy * dy;
+            if (distAfterSq < distBeforeSq)
             {
-                newAngle = newAngle + Math.PI;
+                newDx = -newDx;
+                newDy = -newDy;
             }
 
-            return new Direction(newAngle);
+            direction.set(newDx, newDy);
+            return true;
         }
-        return null;
+        return false;
     }
 
     /**
@@ -1,56 +1,84 @@
 package de.mlux1.swarmsim.logic.strategy.escape;
 
 import de.mlux1.swarmsim.logic.AppState;
+import de.mlux1.swarmsim.logic.CheckpointInput;
+import de.mlux1.swarmsim.logic.CheckpointOutput;
+import de.mlux1.swarmsim.logic.Config;
 import de.mlux1.swarmsim.logic.Direction;
-import de.mlux1.swarmsim.logic.Individual;
+import de.mlux1.swarmsim.logic.RandomStreams;
+import de.mlux1.swarmsim.logic.SwarmState;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Random;
+import java.io.IOException;
 
 /**
  * @author mlux
  *         Date: 27.08.11
  *         <p/>
  *         Escape strategy that lets individuals move in right angle to movement angle of predator.
- *         It will hold the new direction for a specified time interval.
+ *         It will hold the new direction for a specified number of ticks. The heading is taken from the nearest predator.
  */
 public class RightAngleEscapeStrategy extends EscapeStrategy
 {
 
-    public static final long TIME_INTERVAL = 1000;
+    public static final int HOLD_TICKS = Config.FRAME_RATE; //one second at the nominal tick rate
 
-    private Map<Individual, Long> times = new HashMap<Individual, Long>();
-    private Map<Individual, Direction> dirs = new HashMap<Individual, Direction>();
+    private final HeldDirections held = new HeldDirections();
 
-    private Random random = new Random(System.currentTimeMillis());
+    /**
+     * @see EscapeStrategy#beginTick(SwarmState, long)
+     */
+    @Override
+    public void beginTick(SwarmState swarm, long tick)
+    {
+        held.beginTick(swarm, tick);
+    }
 
     /**
-     * @see de.mlux1.swarmsim.logic.strategy.MovementStrategy#calculateSteeringAngle(de.mlux1.swarmsim.logic.Individual)
+     * @see EscapeStrategy#writeState(CheckpointOutput)
      */
     @Override
-    public Direction calculateSteeringAngle(Individual individual)
+    public void writeState(CheckpointOutput out)
     {
-        Long time = times.get(individual);
-        if (time != null && time > System.currentTimeMillis())
-        {
-            return dirs.get(individual);
-        } else
+        held.writeTo(out);
+    }
+
+    /**
+     * @see EscapeStrategy#readState(CheckpointInput)
+     */
+    @Override
+    public void readState(CheckpointInput in) throws IOException
+    {
+        held.readFrom(in);
+    }
+
+    /**
+     * @see de.mlux1.swarmsim.logic.strategy.MovementStrategy#calculateSteeringAngle(de.mlux1.swarmsim.logic.SwarmState, int, de.mlux1.swarmsim.logic.Direction)
+     */
+    @Override
+    public boolean calculateSteeringAngle(SwarmState swarm, int slot, Direction direction)
+    {
+        int id = swarm.getId(slot);
+        if (held.get(swarm, id, direction))
+            return true;
+
+        int predator = AppState.getInstance().getNearestPredator(swarm.getX()[slot], swarm.getY()[slot]);
+        if (predator >= 0)
         {
-            times.remove(individual);
-            dirs.remove(individual);
-            if (individual.isPredatorInRange())
+            //the heading of the predator turned by a right angle to either side
+            SwarmState predators = AppState.getInstance().getPredators();
+            double predatorDx = predators.getDx()[predator];
+            double predatorDy = predators.getDy()[predator];
+            if (RandomStreams.current().nextBoolean())
             {
-                double offset = Math.PI / 2;
-                offset = random.nextBoolean() ? offset : -offset;
-                double newAngle = AppState.getInstance().getPredator().getAngle() + offset;
-                Direction dir = new Direction(newAngle);
-                dirs.put(individual, dir);
-                times.put(individual, System.currentTimeMillis() + TIME_INTERVAL);
-                return dir;
+                direction.set(-predatorDy, predatorDx);
+            } else
+            {
+                direction.set(predatorDy, -predatorDx);
             }
+            held.hold(swarm, id, direction.getDx(), direction.getDy(), HOLD_TICKS);
+            return true;
         }
-        return null;
+        return false;
     }
 
     /**
@@ -0,0 +1,171 @@
+package de.mlux1.swarmsim.ui;
+
+import de.mlux1.swarmsim.logic.AppState;
+import de.mlux1.swarmsim.logic.Config;
+import de.mlux1.swarmsim.logic.Frame;
+import de.mlux1.swarmsim.logic.LatencyHistogram;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferStrategy;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         Field that is rendered actively: a thread of its own paints every frame into the back buffer of a
+ *         {@link BufferStrategy} and shows it, at the target rate of {@link Config#RENDER_FRAME_RATE}. Neither repaint
+ *         requests nor the load of the event dispatch thread delay a frame.
+ *         <p/>
+ *         Page flipping is requested, so that a frame is shown with the next refresh of the display where the platform
+ *         supports it. Otherwise the back buffer is copied. The render thread runs while the canvas is displayable.
+ */
+@SuppressWarnings("serial")
+public class ActiveCanvas extends Canvas
+{
+
+    private static final long FRAME_DURATION = 1000000000L / Config.RENDER_FRAME_RATE; //nanoseconds per frame
+
+    private final FieldPainter painter = new FieldPainter();
+    private volatile Thread renderer; //the render thread, null while not displayable
+
+    /**
+     * Constructor.
+     *
+     * @param uiController The Controller to use for manual target control.
+     */
+    public ActiveCanvas(UIController uiController)
+    {
+        setBackground(CanvasPanel.BG_COLOR);
+        setForeground(UIManager.getColor("Panel.foreground")); //the individuals look as on the passive panel
+        setPreferredSize(new Dimension(CanvasPanel.WIDTH, CanvasPanel.HEIGHT));
+        setIgnoreRepaint(true); //all painting is done by the render thread
+
+        addMouseListener(uiController);
+        addMouseMotionListener(uiController);
+    }
+
+    /**
+     * Creates the buffers and starts the render thread, once the canvas can be drawn.
+     *
+     * @see Canvas#addNotify()
+     */
+    @Override
+    public void addNotify()
+    {
+        super.addNotify();
+        try
+        {
+            createBufferStrategy(2, new BufferCapabilities(new ImageCapabilities(true), new ImageCapabilities(true),
+                    BufferCapabilities.FlipContents.UNDEFINED));
+        } catch (AWTException e)
+        {
+            //no page flipping on this platform, blit the back buffer instead
+            createBufferStrategy(2);
+        }
+
+        Thread thread = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                render();
+            }
+        }, "render");
+        thread.setDaemon(true);
+        renderer = thread;
+        thread.start();
+    }
+
+    /**
+     * Stops the render thread before the buffers are released.
+     *
+     * @see Canvas#removeNotify()
+     */
+    @Override
+    public void removeNotify()
+    {
+        Thread thread = renderer;
+        renderer = null;
+        if (thread != null)
+        {
+            thread.interrupt();
+            try
+            {
+                thread.join();
+            } catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+        super.removeNotify();
+    }
+
+    /**
+     * The render loop: shows a frame, then waits for the next frame to be due. Frames that cannot be rendered in
+     * time are dropped instead of being rendered back to back.
+     */
+    private void render()
+    {
+        BufferStrategy strategy = getBufferStrategy();
+        long frameDueTime = System.nanoTime();
+        while (renderer == Thread.currentThread())
+        {
+            showFrame(strategy);
+
+            frameDueTime += FRAME_DURATION;
+            long now = System.nanoTime();
+            if (now - frameDueTime > FRAME_DURATION)
+            {
+                frameDueTime = now;
+            }
+            long wait;
+            while ((wait = frameDueTime - System.nanoTime()) > 0 && renderer == Thread.currentThread())
+            {
+                LockSupport.parkNanos(wait);
+            }
+        }
+    }
+
+    /**
+     * Paints the latest frame into the back buffer and shows it. Repeated if the buffer contents got lost meanwhile.
+     *
+     * @param strategy The buffer strategy.
+     */
+    private void showFrame(BufferStrategy strategy)
+    {
+        do
+        {
+            do
+            {
+                Graphics2D g = (Graphics2D) strategy.getDrawGraphics();
+                try
+                {
+                    //only read published frames, the swarm itself is changed by the simulation thread
+                    Frame frame = AppState.getInstance().getFrames().getLatestFrame();
+                    painter.paint(g, frame, System.nanoTime(), getBackground(), getForeground());
+                } finally
+                {
+                    g.dispose();
+                }
+            } while (strategy.contentsRestored());
+
+            strategy.show();
+        } while (strategy.contentsLost());
+
+        //flush the window system queue, so the frame is not held back
+        Toolkit.getDefaultToolkit().sync();
+    }
+
+    /**
+     * Returns the histogram of the time the frames of this canvas took to paint.
+     *
+     * @return The paint latencies.
+     */
+    public LatencyHistogram getPaintLatencies()
+    {
+        return painter.getPaintLatencies();
+    }
+
+}
@@ -0,0 +1,194 @@
+package de.mlux1.swarmsim.ui;
+
+import de.mlux1.swarmsim.logic.AppState;
+import de.mlux1.swarmsim.logic.Config;
+import de.mlux1.swarmsim.logic.Frame;
+import de.mlux1.swarmsim.logic.LatencyHistogram;
+import de.mlux1.swarmsim.logic.WorkerPool;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         Paints a frame of the field: the swarm interpolated between the last two ticks, the target and the predator.
+ *         Shared by the passive {@link CanvasPanel} and the actively rendered {@link ActiveCanvas}.
+ *         <p/>
+ *         Swarms of the configured minimum size and more, see {@link AppState#getConfig()}, are shown as a density
+ *         heatmap with the mean heading of every cell, see {@link HeatmapRasterizer}. Smaller swarms are drawn
+ *         individual by individual.
+ */
+public class FieldPainter
+{
+
+    private Image[] predatorImages = new Image[6];
+    private Image predatorEcstasyImage;
+    private boolean predatorImagesLoaded = false;
+    private Image clickHintImage;
+
+    private final WorkerPool workerPool; //shared by both rasterizers, null on a single processor
+    private final SwarmRasterizer rasterizer;
+    private final HeatmapRasterizer heatmapRasterizer;
+    private final LatencyHistogram paintLatencies = new LatencyHistogram(); //time each frame took to paint
+
+    /**
+     * Constructor. Loads the images of the predator and the click hint.
+     */
+    public FieldPainter()
+    {
+        int threads = Runtime.getRuntime().availableProcessors();
+        workerPool = threads > 1 ? new WorkerPool(threads, "render-worker") : null;
+        rasterizer = new SwarmRasterizer(CanvasPanel.WIDTH, CanvasPanel.HEIGHT, CanvasPanel.INDIVIDUAL_SIZE, workerPool);
+        heatmapRasterizer = new HeatmapRasterizer(CanvasPanel.WIDTH, CanvasPanel.HEIGHT, Config.LOD_CELL_SIZE,
+                CanvasPanel.PREDATOR_COLOR, workerPool);
+
+        try
+        {
+            for (int i = 0; i < 6; i++)
+            {
+                String fileName = String.format(CanvasPanel.PREDATOR_IMAGE_FILE, i + 1);
+                BufferedImage img = ImageUtils.loadImage(fileName);
+                img = ImageUtils.resize(img, CanvasPanel.PREDATOR_SIZE, CanvasPanel.PREDATOR_SIZE);
+                predatorImages[i] = ImageUtils.transformColorToTransparency(img, new Color(0f, 1f, 0f));
+            }
+            BufferedImage img = ImageUtils.loadImage(CanvasPanel.PREDATOR_ECSTASY_IMAGE_FILE);
+            img = ImageUtils.resize(img, CanvasPanel.PREDATOR_SIZE, CanvasPanel.PREDATOR_SIZE);
+            predatorEcstasyImage = ImageUtils.transformColorToTransparency(img, new Color(0f, 1f, 0f));
+
+            predatorImagesLoaded = true;
+        } catch (IOException e)
+        {
+            System.err.println("Cannot load predator images! Falling back to painted predator.");
+            e.printStackTrace();
+        }
+
+        try
+        {
+            BufferedImage img = ImageUtils.loadImage(CanvasPanel.CLICK_HINT_IMAGE_FILE);
+            clickHintImage = ImageUtils.transformColorToTransparency(img, new Color(0f, 1f, 0f));
+        } catch (IOException e)
+        {
+            System.err.println("Cannot load click hint image!");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Paints a frame. Every call is timed by a flight recorder event, see {@link PaintEvent}.
+     *
+     * @param g          The 2D Canvas to use.
+     * @param frame      The frame to paint.
+     * @param now        The current System.nanoTime(), to interpolate the frame.
+     * @param background The color of the field.
+     * @param foreground The color of the individuals.
+     */
+    public void paint(Graphics2D g, Frame frame, long now, Color background, Color foreground)
+    {
+        long start = System.nanoTime();
+        PaintEvent event = PaintEvent.start();
+
+        //the frame shows the end of its tick, step back along the headings for the part of the tick not yet passed
+        float back = 1 - frame.getInterpolation(now);
+        BufferedImage swarm;
+        boolean heatmap = frame.size() >= AppState.getInstance().getConfig().getLodMinIndividuals();
+        if (heatmap)
+        {
+            //a cell moves less than a pixel per tick, so the heatmap is not interpolated
+            swarm = heatmapRasterizer.render(frame, background.getRGB(), foreground.getRGB());
+        } else
+        {
+            swarm = rasterizer.render(frame, back, background.getRGB(), foreground.getRGB());
+        }
+        g.drawImage(swarm, 0, 0, null);
+
+        drawTarget(g, frame);
+        drawPredators(g, frame, 1 - back);
+
+        PaintEvent.finish(event, frame, heatmap);
+        paintLatencies.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Returns the histogram of the time the frames took to paint. Its count is the number of frames painted.
+     *
+     * @return The paint latencies.
+     */
+    public LatencyHistogram getPaintLatencies()
+    {
+        return paintLatencies;
+    }
+
+    /**
+     * Draws the target on the screen.
+     *
+     * @param graphics The 2D Canvas to use.
+     * @param frame    The frame to draw.
+     */
+    private void drawTarget(Graphics2D graphics, Frame frame)
+    {
+        double x = frame.getTargetX();
+        double y = frame.getTargetY();
+
+        //click hint
+        if (!frame.isManualTargetControl() && clickHintImage != null)
+        {
+            graphics.drawImage(clickHintImage, (int) (x - clickHintImage.getWidth(null) / 2), (int) (y - clickHintImage.getHeight(null) / 2), null);
+        }
+
+        //transparency
+        AlphaComposite ac = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.5f);
+        Composite orig = graphics.getComposite();
+        graphics.setComposite(ac);
+        graphics.setColor(CanvasPanel.TARGET_COLOR);
+        graphics.fillOval((int) x - CanvasPanel.TARGET_SIZE / 2, (int) y - CanvasPanel.TARGET_SIZE / 2, CanvasPanel.TARGET_SIZE, CanvasPanel.TARGET_SIZE);
+
+        graphics.setComposite(orig);
+    }
+
+    /**
+     * Draws the predators on the screen.
+     *
+     * @param graphics The 2D Canvas to use.
+     * @param frame    The frame to draw.
+     * @param alpha    The interpolation between the tick before (0) and the tick of the frame (1).
+     */
+    private void drawPredators(Graphics2D graphics, Frame frame, float alpha)
+    {
+        if (!frame.isPredatorActive())
+            return;
+
+        long now = System.currentTimeMillis();
+        for (int p = 0; p < frame.getPredatorCount(); p++)
+        {
+            double predatorX = frame.getPreviousPredatorX(p) + (frame.getPredatorX(p) - frame.getPreviousPredatorX(p)) * alpha;
+            double predatorY = frame.getPreviousPredatorY(p) + (frame.getPredatorY(p) - frame.getPreviousPredatorY(p)) * alpha;
+
+            if (predatorImagesLoaded)
+            {
+                Image predatorImage;
+                if (now - frame.getLastPredatorKillTime(p) < CanvasPanel.PREDATOR_KILL_ECSTASY_TIME)
+                {
+                    predatorImage = predatorEcstasyImage;
+                } else
+                {
+                    double predatorAngle = frame.getPredatorAngle(p);
+                    //we need to convert the atan2() angle to a [0,2*PI] angle
+                    predatorAngle = (predatorAngle > 0 ? predatorAngle : (2 * Math.PI + predatorAngle));
+                    //there are six images, so divide the current angle by six
+                    int numImage = (int) Math.ceil(predatorAngle / (2 * Math.PI / 6));
+                    predatorImage = predatorImages[numImage - 1];
+                }
+
+                graphics.drawImage(predatorImage, (int) (predatorX - CanvasPanel.PREDATOR_SIZE / 2), (int) (predatorY - CanvasPanel.PREDATOR_SIZE / 2), null);
+            } else
+            {
+                graphics.setColor(CanvasPanel.PREDATOR_COLOR);
+                graphics.fillOval((int) predatorX - CanvasPanel.PREDATOR_SIZE / 2, (int) predatorY - CanvasPanel.PREDATOR_SIZE / 2, CanvasPanel.PREDATOR_SIZE, CanvasPanel.PREDATOR_SIZE);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,200 @@
+package de.mlux1.swarmsim.ui;
+
+import de.mlux1.swarmsim.logic.Frame;
+import de.mlux1.swarmsim.logic.WorkerPool;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         Coarse renderer for swarms too large to draw every individual. The individuals are counted into square cells
+ *         in one pass over the frame, together with the sum of their headings. Every cell is then filled with a color
+ *         for its density and gets a glyph along the mean heading of its individuals, whose length shows how aligned
+ *         they are. The densities are scaled logarithmically to the densest cell of the frame.
+ *         <p/>
+ *         Rows of cells are filled in parallel. Nothing is allocated per frame.
+ */
+public class HeatmapRasterizer
+{
+
+    private static final int PALETTE_SIZE = 256;
+
+    private final int width, height;
+    private final int cellSize; //pixels per side of a cell
+    private final int columns, rows;
+    private final BufferedImage image;
+    private final int[] pixels; //the raster of the image, row by row
+    private final WorkerPool workerPool;
+
+    private final int[] palette = new int[PALETTE_SIZE]; //density colors from empty to densest
+    private int glyphColor;
+
+    private final int[] counts; //individuals per cell
+    private final float[] headingX, headingY; //sum of the headings per cell
+    private float densityScale; //palette index per logarithmic count
+
+    private final WorkerPool.RangeTask rasterTask = new WorkerPool.RangeTask()
+    {
+        @Override
+        public void run(int from, int to)
+        {
+            for (int row = from; row < to; row++)
+            {
+                rasterize(row);
+            }
+        }
+    };
+
+    /**
+     * Constructor.
+     *
+     * @param width      The width of the image.
+     * @param height     The height of the image.
+     * @param cellSize   The pixels per side of a cell.
+     * @param hot        The color of the densest cells.
+     * @param workerPool The pool to fill the rows of cells with, or null to fill them on the calling thread.
+     */
+    public HeatmapRasterizer(int width, int height, int cellSize, Color hot, WorkerPool workerPool)
+    {
+        this.width = width;
+        this.height = height;
+        this.cellSize = cellSize;
+        this.workerPool = workerPool;
+        columns = (width + cellSize - 1) / cellSize;
+        rows = (height + cellSize - 1) / cellSize;
+        image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        counts = new int[columns * rows];
+        headingX = new float[columns * rows];
+        headingY = new float[columns * rows];
+        palette[PALETTE_SIZE - 1] = hot.getRGB();
+    }
+
+    /**
+     * Draws the swarm of a frame into the image.
+     *
+     * @param frame      The frame to draw.
+     * @param background The RGB value of empty cells.
+     * @param foreground The RGB value of the glyphs.
+     * @return The image, valid until the next call.
+     */
+    public BufferedImage render(Frame frame, int background, int foreground)
+    {
+        if (palette[0] != background)
+        {
+            fillPalette(background, palette[PALETTE_SIZE - 1]);
+        }
+        glyphColor = foreground;
+
+        //splat all individuals into their cells
+        Arrays.fill(counts, 0);
+        Arrays.fill(headingX, 0);
+        Arrays.fill(headingY, 0);
+        float[] xs = frame.getX();
+        float[] ys = frame.getY();
+        float[] dxs = frame.getDx();
+        float[] dys = frame.getDy();
+        int maxCount = 0;
+        for (int i = 0; i < frame.size(); i++)
+        {
+            int column = Math.max(0, Math.min(columns - 1, (int) xs[i] / cellSize));
+            int row = Math.max(0, Math.min(rows - 1, (int) ys[i] / cellSize));
+            int cell = row * columns + column;
+            headingX[cell] += dxs[i];
+            headingY[cell] += dys[i];
+            if (++counts[cell] > maxCount)
+            {
+                maxCount = counts[cell];
+            }
+        }
+        densityScale = maxCount > 0 ? (PALETTE_SIZE - 1) / (float) Math.log(1 + maxCount) : 0;
+
+        if (workerPool != null)
+        {
+            workerPool.run(rows, 1, rasterTask);
+        } else
+        {
+            rasterTask.run(0, rows);
+        }
+        return image;
+    }
+
+    /**
+     * Blends the palette linearly from the background to the color of the densest cells.
+     *
+     * @param background The RGB value of empty cells.
+     * @param hot        The RGB value of the densest cells.
+     */
+    private void fillPalette(int background, int hot)
+    {
+        for (int i = 0; i < PALETTE_SIZE; i++)
+        {
+            float t = i / (float) (PALETTE_SIZE - 1);
+            int r = (int) (((background >> 16) & 0xff) * (1 - t) + ((hot >> 16) & 0xff) * t);
+            int g = (int) (((background >> 8) & 0xff) * (1 - t) + ((hot >> 8) & 0xff) * t);
+            int b = (int) ((background & 0xff) * (1 - t) + (hot & 0xff) * t);
+            palette[i] = 0xff000000 | (r << 16) | (g << 8) | b;
+        }
+    }
+
+    /**
+     * Fills a row of cells with their density colors and draws their glyphs.
+     *
+     * @param row The row of cells.
+     */
+    private void rasterize(int row)
+    {
+        int top = row * cellSize;
+        int bottom = Math.min(top + cellSize, height);
+        for (int column = 0; column < columns; column++)
+        {
+            int cell = row * columns + column;
+            int left = column * cellSize;
+            int right = Math.min(left + cellSize, width);
+            int color = palette[(int) (Math.log(1 + counts[cell]) * densityScale)];
+            for (int y = top; y < bottom; y++)
+            {
+                Arrays.fill(pixels, y * width + left, y * width + right, color);
+            }
+
+            if (counts[cell] > 0)
+            {
+                //from the center along the mean heading, as long as the headings agree
+                float dx = headingX[cell] / counts[cell];
+                float dy = headingY[cell] / counts[cell];
+                float half = (cellSize - 1) / 2f;
+                drawGlyph(left + half, top + half, dx * half, dy * half, left, right, top, bottom);
+            }
+        }
+    }
+
+    /**
+     * Draws a line from a point, one pixel per step along the longer axis, clipped to a cell.
+     */
+    private void drawGlyph(float x, float y, float dx, float dy, int left, int right, int top, int bottom)
+    {
+        int steps = (int) Math.ceil(Math.max(Math.abs(dx), Math.abs(dy)));
+        if (steps > 0)
+        {
+            dx /= steps;
+            dy /= steps;
+        }
+        for (int s = 0; s <= steps; s++)
+        {
+            int px = Math.round(x);
+            int py = Math.round(y);
+            if (px >= left && px < right && py >= top && py < bottom)
+            {
+                pixels[py * width + px] = glyphColor;
+            }
+            x += dx;
+            y += dy;
+        }
+    }
+
+}
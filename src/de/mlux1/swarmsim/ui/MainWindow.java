@@ -1,6 +1,11 @@
 package de.mlux1.swarmsim.ui;
 
+import de.mlux1.swarmsim.logic.AppState;
 import de.mlux1.swarmsim.logic.Config;
+import de.mlux1.swarmsim.logic.LatencyHistogram;
+import de.mlux1.swarmsim.logic.SwarmInformation;
+import de.mlux1.swarmsim.logic.index.*;
+import de.mlux1.swarmsim.logic.kernel.NeighbourKernel;
 import de.mlux1.swarmsim.logic.strategy.escape.*;
 
 import javax.swing.*;
@@ -26,13 +31,22 @@ public class MainWindow extends JFrame
     public static final String TITLE_PREDATOR = "Predator active";
     public static final String TITLE_PREDATOR_LETHAL = "Predator lethal";
     public static final String TITLE_PREDATOR_SPEED = "Predator speed:";
+    public static final String TITLE_PREDATOR_COUNT = "Predators:";
     public static final String TITLE_STRATEGY = "Swarm escape strategy:";
+    public static final String TITLE_NEIGHBOR_INDEX = "Neighbour index:";
+    public static final String TITLE_TICK_THREADS = "Threads:";
+    public static final String TITLE_NEIGHBOUR_KERNEL = "Kernel:";
+    public static final String TITLE_VECTOR_HEADINGS = "Vector headings";
+    public static final String TITLE_PERFORMANCE = "Performance";
 
     public static final Color CONTROLS_BG_COLOR = new Color(0.4f, 0.4f, 0.4f, 0.05f); //background color of the controls
 
     private UIController controller; //controller for input redirection
+    private boolean activeRendering; //render the field on a thread of its own, see ActiveCanvas
     private LabeledSlider predatorSpeedSlider;
+    private LabeledSlider predatorCountSlider;
     private LabeledSlider swarmSizeSlider;
+    private PerformancePanel performancePanel; //hidden until toggled
 
     /**
      * Constructor.
@@ -40,10 +54,23 @@ public class MainWindow extends JFrame
      * @param controller The Controller to use for inputs.
      */
     public MainWindow(UIController controller)
+    {
+        this(controller, false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param controller      The Controller to use for inputs.
+     * @param activeRendering True to render the field actively by an {@link ActiveCanvas}, with the controls around
+     *                        it, instead of repainting a {@link CanvasPanel} below the controls.
+     */
+    public MainWindow(UIController controller, boolean activeRendering)
     {
         super(TITLE);
 
         this.controller = controller;
+        this.activeRendering = activeRendering;
 
         SwingUtilities.invokeLater(new Runnable()
         {
@@ -59,8 +86,23 @@ public class MainWindow extends JFrame
      */
     private void initialize()
     {
-        JPanel cvs = new CanvasPanel(controller);
-        cvs.setLayout(new BorderLayout());
+        JPanel cvs;
+        LatencyHistogram paintLatencies;
+        if (activeRendering)
+        {
+            //a heavyweight canvas would hide lightweight controls on top of it, so they are placed around it
+            cvs = new JPanel(new BorderLayout());
+            cvs.setBackground(CanvasPanel.BG_COLOR);
+            ActiveCanvas canvas = new ActiveCanvas(controller);
+            paintLatencies = canvas.getPaintLatencies();
+            cvs.add(canvas, BorderLayout.CENTER);
+        } else
+        {
+            CanvasPanel canvas = new CanvasPanel(controller);
+            paintLatencies = canvas.getPaintLatencies();
+            cvs = canvas;
+            cvs.setLayout(new BorderLayout());
+        }
 
         //swarm controls
         JPanel swarmControls = new JPanel();
@@ -73,7 +115,30 @@ public class MainWindow extends JFrame
         predatorControls.setBackground(CONTROLS_BG_COLOR);
         addPredatorControls(predatorControls);
         addEscapeStrategyControls(predatorControls);
-        cvs.add(predatorControls, BorderLayout.PAGE_END);
+
+        //simulation engine controls
+        JPanel engineControls = new JPanel();
+        engineControls.setBackground(CONTROLS_BG_COLOR);
+        addNeighborIndexControls(engineControls);
+        addNeighbourKernelControls(engineControls);
+        addVectorHeadingsControls(engineControls);
+        addTickThreadsControls(engineControls);
+        addPerformanceControls(engineControls);
+
+        JPanel bottomControls = new JPanel();
+        bottomControls.setOpaque(false);
+        bottomControls.setLayout(new BoxLayout(bottomControls, BoxLayout.PAGE_AXIS));
+        bottomControls.add(predatorControls);
+        bottomControls.add(engineControls);
+        cvs.add(bottomControls, BorderLayout.PAGE_END);
+
+        //performance overlay, at the right of the field
+        JPanel performanceControls = new JPanel(new BorderLayout());
+        performanceControls.setOpaque(false);
+        performancePanel = new PerformancePanel(AppState.getInstance(), paintLatencies);
+        performancePanel.setVisible(false);
+        performanceControls.add(performancePanel, BorderLayout.PAGE_START);
+        cvs.add(performanceControls, BorderLayout.LINE_END);
 
         getContentPane().add(cvs);
 
@@ -91,7 +156,8 @@ public class MainWindow extends JFrame
      */
     private void addSwarmControls(JPanel panel)
     {
-        swarmSizeSlider = new LabeledSlider(controller, TITLE_SWARM_SIZE, Config.MIN_NUM_INDIVIDUALS, Config.MAX_NUM_INDIVIDUALS, Config.DEFAULT_NUM_INDIVIDUALS);
+        int maxSwarmSize = AppState.getInstance().getRequestedConfig().getMaxNumIndividuals();
+        swarmSizeSlider = new LabeledSlider(controller, TITLE_SWARM_SIZE, Config.MIN_NUM_INDIVIDUALS, maxSwarmSize, Math.min(Config.DEFAULT_NUM_INDIVIDUALS, maxSwarmSize));
         panel.add(swarmSizeSlider);
 
         LabeledSlider speedPrioritySlider = new LabeledSlider(controller, TITLE_INDIVIDUAL_SPEED, Config.MIN_SPEED, Config.MAX_SPEED, Config.DEFAULT_SPEED);
@@ -132,8 +198,11 @@ public class MainWindow extends JFrame
         panel.add(predatorPanel);
 
         predatorSpeedSlider = new LabeledSlider(controller, TITLE_PREDATOR_SPEED, Config.MIN_SPEED, Config.MAX_PREDATOR_SPEED, Config.DEFAULT_PREDATOR_SPEED);
-        setPredatorSpeedSliderEnabled(false);
         panel.add(predatorSpeedSlider);
+
+        predatorCountSlider = new LabeledSlider(controller, TITLE_PREDATOR_COUNT, Config.MIN_PREDATOR_COUNT, Config.MAX_PREDATOR_COUNT, Config.DEFAULT_PREDATOR_COUNT);
+        panel.add(predatorCountSlider);
+        setPredatorSlidersEnabled(false);
     }
 
     /**
@@ -165,13 +234,100 @@ public class MainWindow extends JFrame
     }
 
     /**
-     * Enables the slider for predator speed.
+     * Adds neighbour index controls to the given panel.
+     *
+     * @param panel The panel to add the controls to.
+     */
+    private void addNeighborIndexControls(JPanel panel)
+    {
+        JComboBox<NeighborIndex> comboBox = new JComboBox<NeighborIndex>(new NeighborIndex[]{
+                new AdaptiveNeighborIndex(SwarmInformation.QUERY_RADIUS, CanvasPanel.WIDTH, CanvasPanel.HEIGHT),
+                new BruteForceNeighborIndex(),
+                new GridNeighborIndex(SwarmInformation.QUERY_RADIUS, CanvasPanel.WIDTH, CanvasPanel.HEIGHT),
+                new QuadtreeNeighborIndex()
+        });
+        comboBox.setOpaque(false);
+        comboBox.addActionListener(controller);
+        panel.add(new JLabel(TITLE_NEIGHBOR_INDEX));
+        panel.add(comboBox);
+    }
+
+    /**
+     * Adds neighbour kernel controls to the given panel. Only the kernels available on this JVM are offered.
+     *
+     * @param panel The panel to add the controls to.
+     */
+    private void addNeighbourKernelControls(JPanel panel)
+    {
+        JComboBox<NeighbourKernel> comboBox = new JComboBox<NeighbourKernel>(NeighbourKernel.createAvailableKernels());
+        comboBox.setOpaque(false);
+        comboBox.addActionListener(controller);
+        panel.add(Box.createHorizontalStrut(50));
+        panel.add(new JLabel(TITLE_NEIGHBOUR_KERNEL));
+        panel.add(comboBox);
+    }
+
+    /**
+     * Adds the control to steer the heading vectors instead of the angles to the given panel.
+     *
+     * @param panel The panel to add the controls to.
+     */
+    private void addVectorHeadingsControls(JPanel panel)
+    {
+        JCheckBox vectorHeadingsCb = new JCheckBox(TITLE_VECTOR_HEADINGS, Config.DEFAULT_VECTOR_HEADINGS);
+        vectorHeadingsCb.addActionListener(controller);
+        vectorHeadingsCb.setOpaque(false);
+        panel.add(Box.createHorizontalStrut(50));
+        panel.add(vectorHeadingsCb);
+    }
+
+    /**
+     * Adds the control for the number of simulation threads to the given panel.
+     *
+     * @param panel The panel to add the controls to.
+     */
+    private void addTickThreadsControls(JPanel panel)
+    {
+        LabeledSlider tickThreadsSlider = new LabeledSlider(controller, TITLE_TICK_THREADS, Config.MIN_TICK_THREADS, Config.MAX_TICK_THREADS, Config.DEFAULT_TICK_THREADS);
+        panel.add(Box.createHorizontalStrut(50));
+        panel.add(tickThreadsSlider);
+    }
+
+    /**
+     * Adds the control that shows the performance panel to the given panel.
+     *
+     * @param panel The panel to add the controls to.
+     */
+    private void addPerformanceControls(JPanel panel)
+    {
+        JCheckBox performanceCb = new JCheckBox(TITLE_PERFORMANCE);
+        performanceCb.addActionListener(controller);
+        performanceCb.setOpaque(false);
+        panel.add(Box.createHorizontalStrut(50));
+        panel.add(performanceCb);
+    }
+
+    /**
+     * Shows or hides the performance panel.
+     *
+     * @param visible True to show the panel.
+     */
+    public void setPerformanceVisible(boolean visible)
+    {
+        performancePanel.setVisible(visible);
+        //the actively rendered field makes room for the panel, the passive one shows it on top of the swarm
+        pack();
+    }
+
+    /**
+     * Enables the sliders for predator speed and count.
      *
-     * @param enabled True if the slider should be enabled, otherwise false.
+     * @param enabled True if the sliders should be enabled, otherwise false.
      */
-    public void setPredatorSpeedSliderEnabled(boolean enabled)
+    public void setPredatorSlidersEnabled(boolean enabled)
     {
         predatorSpeedSlider.setEnabled(enabled);
+        predatorCountSlider.setEnabled(enabled);
     }
 
     /**
@@ -0,0 +1,74 @@
+package de.mlux1.swarmsim.ui;
+
+import de.mlux1.swarmsim.logic.Frame;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         Flight recorder event of painting a frame of the field, by {@link CanvasPanel#paintComponent(java.awt.Graphics)}
+ *         or by the render thread of the {@link ActiveCanvas}. Shown next to the tick events of the simulation, it tells
+ *         whether a slow frame was slow to simulate or to paint.
+ */
+@Name("de.mlux1.swarmsim.Paint")
+@Label("Paint")
+@Category({"Swarm Simulation", "Rendering"})
+@Description("Painting a frame of the field")
+@StackTrace(false)
+class PaintEvent extends Event
+{
+
+    private static final EventType TYPE = EventType.getEventType(PaintEvent.class);
+
+    @Label("Tick")
+    @Description("Tick of the painted frame")
+    private long tick;
+
+    @Label("Agents")
+    private int agents;
+
+    @Label("Heatmap")
+    @Description("The swarm was painted as a density heatmap instead of individual by individual")
+    private boolean heatmap;
+
+    /**
+     * Creates the event of painting a frame and starts its timing, if the event is recorded.
+     *
+     * @return The event, or null if it is not recorded.
+     */
+    static PaintEvent start()
+    {
+        if (!TYPE.isEnabled())
+            return null;
+
+        PaintEvent event = new PaintEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the timing and commits the event.
+     *
+     * @param event   The event returned by {@link #start()}, may be null.
+     * @param frame   The painted frame.
+     * @param heatmap True if the frame was painted as a density heatmap.
+     */
+    static void finish(PaintEvent event, Frame frame, boolean heatmap)
+    {
+        if (event == null)
+            return;
+
+        event.tick = frame.getTick();
+        event.agents = frame.size();
+        event.heatmap = heatmap;
+        event.commit();
+    }
+
+}
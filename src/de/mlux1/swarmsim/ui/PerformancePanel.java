@@ -0,0 +1,157 @@
+package de.mlux1.swarmsim.ui;
+
+import de.mlux1.swarmsim.logic.AppState;
+import de.mlux1.swarmsim.logic.Config;
+import de.mlux1.swarmsim.logic.JvmStatistics;
+import de.mlux1.swarmsim.logic.LatencyHistogram;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         Panel that shows how the simulation performs, updated every {@link #UPDATE_INTERVAL} milliseconds: ticks and
+ *         frames per second, the median, 99th percentile and longest tick and paint, the allocation rate and the
+ *         garbage collections. All values are read from counters the simulation and render threads keep anyway, so
+ *         showing the panel does not slow them down. Tick times above the budget of a tick are shown in red.
+ */
+@SuppressWarnings("serial")
+public class PerformancePanel extends JPanel
+{
+
+    public static final int UPDATE_INTERVAL = 500; //milliseconds
+    public static final Color OVER_BUDGET_COLOR = new Color(0xcf, 0x08, 0x08);
+
+    private final AppState appState;
+    private final LatencyHistogram.Interval ticks; //reads the tick latencies of the last update interval
+    private final LatencyHistogram.Interval paints;
+
+    private long lastTime = System.nanoTime();
+    private long lastTickCount;
+    private long lastDroppedTicks;
+    private long lastAllocatedBytes = JvmStatistics.getAllocatedBytes();
+    private long lastCollectionCount = JvmStatistics.getCollectionCount();
+    private long lastCollectionTime = JvmStatistics.getCollectionTime();
+
+    private final JLabel tickRateLabel = new JLabel();
+    private final JLabel tickTimeLabel = new JLabel();
+    private final JLabel frameRateLabel = new JLabel();
+    private final JLabel paintTimeLabel = new JLabel();
+    private final JLabel neighboursLabel = new JLabel();
+    private final JLabel allocationLabel = new JLabel();
+    private final JLabel collectionLabel = new JLabel();
+
+    /**
+     * Constructor. Starts the updates.
+     *
+     * @param appState       The simulation.
+     * @param paintLatencies The paint latencies of the field, see {@link FieldPainter#getPaintLatencies()}.
+     */
+    public PerformancePanel(AppState appState, LatencyHistogram paintLatencies)
+    {
+        super(new GridLayout(0, 2, 10, 2));
+        this.appState = appState;
+        ticks = new LatencyHistogram.Interval(appState.getTickLatencies());
+        paints = new LatencyHistogram.Interval(paintLatencies);
+        lastTickCount = appState.getTickCount();
+        lastDroppedTicks = appState.getDroppedTicks();
+
+        setBackground(MainWindow.CONTROLS_BG_COLOR);
+        setBorder(BorderFactory.createEmptyBorder(5, 10, 5, 10));
+        addRow("Ticks/s:", tickRateLabel);
+        addRow("Tick p50/p99/max:", tickTimeLabel);
+        addRow("Frames/s:", frameRateLabel);
+        addRow("Paint p50/p99/max:", paintTimeLabel);
+        addRow("Neighbours/agent:", neighboursLabel);
+        addRow("Allocation:", allocationLabel);
+        addRow("GC pauses:", collectionLabel);
+
+        Timer updateTimer = new Timer(UPDATE_INTERVAL, new ActionListener()
+        {
+            @Override
+            public void actionPerformed(ActionEvent e)
+            {
+                update();
+            }
+        });
+        updateTimer.start();
+    }
+
+    /**
+     * Adds a row of a title and the label of its value.
+     *
+     * @param title The title.
+     * @param value The label of the value.
+     */
+    private void addRow(String title, JLabel value)
+    {
+        add(new JLabel(title));
+        add(value);
+    }
+
+    /**
+     * Reads the counters and shows what happened since the last update. The intervals are read while the panel is
+     * hidden, too, so that it shows the last interval as soon as it is shown again.
+     */
+    private void update()
+    {
+        long now = System.nanoTime();
+        double seconds = (now - lastTime) / 1e9;
+        lastTime = now;
+        ticks.next();
+        paints.next();
+
+        long tickCount = appState.getTickCount();
+        long droppedTicks = appState.getDroppedTicks();
+        long allocatedBytes = JvmStatistics.getAllocatedBytes();
+        long collectionCount = JvmStatistics.getCollectionCount();
+        long collectionTime = JvmStatistics.getCollectionTime();
+
+        if (isShowing() && seconds > 0)
+        {
+            long dropped = droppedTicks - lastDroppedTicks;
+            int frameRate = appState.getConfig().getFrameRate();
+            double tickBudget = 1000.0 / frameRate; //milliseconds
+            tickRateLabel.setText(String.format("%.1f of %d%s", (tickCount - lastTickCount) / seconds, frameRate,
+                    dropped > 0 ? ", " + dropped + " dropped" : ""));
+            tickTimeLabel.setText(formatLatencies(ticks) + String.format(" of %.1f ms", tickBudget));
+            tickTimeLabel.setForeground(ticks.getPercentile(99) / 1e6 > tickBudget ? OVER_BUDGET_COLOR : getForeground());
+            frameRateLabel.setText(String.format("%.1f of %d", paints.getCount() / seconds, Config.RENDER_FRAME_RATE));
+            paintTimeLabel.setText(formatLatencies(paints));
+            int size = appState.getSwarm().size();
+            neighboursLabel.setText(size > 0 ? String.format("%.1f", (double) appState.getVisitedNeighbours() / size) : "-");
+            //threads that ended take their allocations with them, so the difference may be negative
+            allocationLabel.setText(allocatedBytes >= 0 && lastAllocatedBytes >= 0
+                    ? String.format("%.1f MB/s", Math.max(allocatedBytes - lastAllocatedBytes, 0) / seconds / (1 << 20))
+                    : "not counted");
+            collectionLabel.setText(String.format("%d, %d in %d ms now", collectionCount,
+                    collectionCount - lastCollectionCount, collectionTime - lastCollectionTime));
+        }
+
+        lastTickCount = tickCount;
+        lastDroppedTicks = droppedTicks;
+        lastAllocatedBytes = allocatedBytes;
+        lastCollectionCount = collectionCount;
+        lastCollectionTime = collectionTime;
+    }
+
+    /**
+     * Formats the median, 99th percentile and longest duration of an interval.
+     *
+     * @param interval The interval.
+     * @return The durations in milliseconds.
+     */
+    private static String formatLatencies(LatencyHistogram.Interval interval)
+    {
+        if (interval.getCount() == 0)
+            return "-";
+
+        return String.format("%.2f / %.2f / %.2f ms", interval.getPercentile(50) / 1e6, interval.getPercentile(99) / 1e6,
+                interval.getMax() / 1e6);
+    }
+
+}
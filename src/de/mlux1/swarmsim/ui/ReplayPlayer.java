@@ -0,0 +1,111 @@
+package de.mlux1.swarmsim.ui;
+
+import de.mlux1.swarmsim.logic.Frame;
+import de.mlux1.swarmsim.logic.TrajectoryReplay;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         Plays a recording back at the rate it was recorded at: tells which tick is shown at which time, and reads its
+ *         frame from the {@link TrajectoryReplay}. Seeking jumps to a tick without reading the ones in between. The
+ *         playback stops at the last tick, a paused playback stays at its tick.
+ */
+public class ReplayPlayer
+{
+
+    private final TrajectoryReplay replay;
+    private long startTick; //the tick due at startTime
+    private long startTime; //System.nanoTime() at which startTick was due
+    private boolean paused = false;
+
+    /**
+     * Constructor. The playback starts at the first tick.
+     *
+     * @param replay The recording to play.
+     */
+    public ReplayPlayer(TrajectoryReplay replay)
+    {
+        this.replay = replay;
+        startTick = replay.getFirstTick();
+        startTime = System.nanoTime();
+    }
+
+    /**
+     * @return The first recorded tick.
+     */
+    public long getFirstTick()
+    {
+        return replay.getFirstTick();
+    }
+
+    /**
+     * @return The last recorded tick.
+     */
+    public long getLastTick()
+    {
+        return replay.getLastTick();
+    }
+
+    /**
+     * Returns the tick shown at a time.
+     *
+     * @param now The System.nanoTime().
+     * @return The tick.
+     */
+    public synchronized long getTick(long now)
+    {
+        if (paused)
+            return startTick;
+
+        return Math.min(startTick + (now - startTime) / replay.getTickDuration(), replay.getLastTick());
+    }
+
+    /**
+     * Returns the frame shown at a time.
+     *
+     * @param now The current System.nanoTime().
+     * @return The frame, valid until the next call.
+     */
+    public synchronized Frame getFrame(long now)
+    {
+        long tick = getTick(now);
+        long tickDuration = replay.getTickDuration();
+        //a paused playback shows its tick as it ends, not interpolated from the one before
+        long due = paused ? now - tickDuration : startTime + (tick - startTick) * tickDuration;
+        return replay.read(tick, due);
+    }
+
+    /**
+     * Continues the playback from a tick.
+     *
+     * @param tick The tick, limited to the recorded ones.
+     */
+    public synchronized void seek(long tick)
+    {
+        startTick = Math.max(replay.getFirstTick(), Math.min(tick, replay.getLastTick()));
+        startTime = System.nanoTime();
+    }
+
+    /**
+     * @return True if the playback is paused.
+     */
+    public synchronized boolean isPaused()
+    {
+        return paused;
+    }
+
+    /**
+     * Pauses or continues the playback.
+     *
+     * @param paused True to pause.
+     */
+    public synchronized void setPaused(boolean paused)
+    {
+        long now = System.nanoTime();
+        startTick = getTick(now);
+        startTime = now;
+        this.paused = paused;
+    }
+
+}
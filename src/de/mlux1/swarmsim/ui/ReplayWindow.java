@@ -0,0 +1,122 @@
+package de.mlux1.swarmsim.ui;
+
+import de.mlux1.swarmsim.logic.Config;
+
+import javax.swing.*;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         Window that plays a recording back: the field, and below it a slider to seek to any tick and a button to
+ *         pause the playback. Nothing is simulated.
+ */
+@SuppressWarnings("serial")
+public class ReplayWindow extends JFrame
+{
+
+    public static final String TITLE = "Swarm simulation - replay";
+    public static final String TITLE_PAUSE = "Pause";
+    public static final String TITLE_PLAY = "Play";
+
+    private final ReplayPlayer player;
+    private JSlider tickSlider;
+    private JLabel tickLabel;
+    private boolean updatingSlider = false; //the slider follows the playback, it is not moved by the user
+
+    /**
+     * Constructor.
+     *
+     * @param player The playback to show.
+     */
+    public ReplayWindow(ReplayPlayer player)
+    {
+        super(TITLE);
+        this.player = player;
+
+        SwingUtilities.invokeLater(new Runnable()
+        {
+            public void run()
+            {
+                initialize();
+            }
+        });
+    }
+
+    /**
+     * Initializes all child elements.
+     */
+    private void initialize()
+    {
+        JPanel cvs = new CanvasPanel(null, player);
+        cvs.setLayout(new BorderLayout());
+
+        JPanel controls = new JPanel(new BorderLayout());
+        controls.setBackground(MainWindow.CONTROLS_BG_COLOR);
+
+        final JButton pauseButton = new JButton(TITLE_PAUSE);
+        pauseButton.setOpaque(false);
+        pauseButton.addActionListener(new ActionListener()
+        {
+            @Override
+            public void actionPerformed(ActionEvent e)
+            {
+                player.setPaused(!player.isPaused());
+                pauseButton.setText(player.isPaused() ? TITLE_PLAY : TITLE_PAUSE);
+            }
+        });
+        controls.add(pauseButton, BorderLayout.LINE_START);
+
+        tickSlider = new JSlider((int) player.getFirstTick(), (int) player.getLastTick(), (int) player.getFirstTick());
+        tickSlider.setOpaque(false);
+        tickSlider.addChangeListener(new ChangeListener()
+        {
+            @Override
+            public void stateChanged(ChangeEvent e)
+            {
+                if (!updatingSlider)
+                {
+                    player.seek(tickSlider.getValue());
+                }
+            }
+        });
+        controls.add(tickSlider, BorderLayout.CENTER);
+
+        tickLabel = new JLabel();
+        tickLabel.setBorder(BorderFactory.createEmptyBorder(0, 10, 0, 10));
+        controls.add(tickLabel, BorderLayout.LINE_END);
+        cvs.add(controls, BorderLayout.PAGE_END);
+
+        //let the slider follow the playback
+        Timer followTimer = new Timer(1000 / Config.RENDER_FRAME_RATE, new ActionListener()
+        {
+            @Override
+            public void actionPerformed(ActionEvent e)
+            {
+                long tick = player.getTick(System.nanoTime());
+                tickLabel.setText("Tick " + tick + " / " + player.getLastTick());
+                if (!tickSlider.getValueIsAdjusting())
+                {
+                    updatingSlider = true;
+                    tickSlider.setValue((int) tick);
+                    updatingSlider = false;
+                }
+            }
+        });
+        followTimer.start();
+
+        getContentPane().add(cvs);
+
+        setResizable(false);
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        pack();
+        setLocationRelativeTo(null);
+        setVisible(true);
+    }
+
+}
@@ -0,0 +1,211 @@
+package de.mlux1.swarmsim.ui;
+
+import de.mlux1.swarmsim.logic.Frame;
+import de.mlux1.swarmsim.logic.WorkerPool;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+/**
+ * @author mlux
+ *         Date: 18.10.26
+ *         <p/>
+ *         Software renderer that draws the individuals of a frame as short lines straight into the pixels of an image.
+ *         The image is split into bands of rows, which are rasterized in parallel. Every band only draws the
+ *         individuals that reach into it, which are sorted into the bands beforehand. Lines are clipped to their band,
+ *         so no pixel is written by two threads.
+ *         <p/>
+ *         Neither the image nor the band lists are reallocated while the swarm does not grow.
+ */
+public class SwarmRasterizer
+{
+
+    private static final int BAND_HEIGHT = 32; //rows of a band
+
+    private final int width, height;
+    private final BufferedImage image;
+    private final int[] pixels; //the raster of the image, row by row
+    private final int bands;
+    private final WorkerPool workerPool;
+
+    private final int length; //length of the line of an individual
+    private final int bandsPerLine; //most bands the line of an individual can reach into
+    private int background, foreground;
+
+    //start and end points of the lines of the current frame
+    private float[] startX = new float[0], startY = new float[0], endX = new float[0], endY = new float[0];
+    private final int[] bandStart; //start of the individuals of each band in bandEntries, one more than bands
+    private int[] bandEntries = new int[0]; //individuals sorted by band, an individual can reach into several bands
+
+    private final WorkerPool.RangeTask rasterTask = new WorkerPool.RangeTask()
+    {
+        @Override
+        public void run(int from, int to)
+        {
+            for (int band = from; band < to; band++)
+            {
+                rasterize(band);
+            }
+        }
+    };
+
+    /**
+     * Constructor.
+     *
+     * @param width      The width of the image.
+     * @param height     The height of the image.
+     * @param length     The length of the line of an individual.
+     * @param workerPool The pool to rasterize the bands with, or null to rasterize on the calling thread.
+     */
+    public SwarmRasterizer(int width, int height, int length, WorkerPool workerPool)
+    {
+        this.width = width;
+        this.height = height;
+        this.length = length;
+        bandsPerLine = length / BAND_HEIGHT + 2;
+        image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        bands = (height + BAND_HEIGHT - 1) / BAND_HEIGHT;
+        bandStart = new int[bands + 1];
+        this.workerPool = workerPool;
+    }
+
+    /**
+     * Draws the swarm of a frame into the image.
+     *
+     * @param frame      The frame to draw.
+     * @param back       The part of the tick to step back along the headings, see {@link Frame#getInterpolation(long)}.
+     * @param background The RGB value of the background.
+     * @param foreground The RGB value of the individuals.
+     * @return The image, valid until the next call.
+     */
+    public BufferedImage render(Frame frame, float back, int background, int foreground)
+    {
+        this.background = background;
+        this.foreground = foreground;
+
+        int size = frame.size();
+        if (startX.length < size)
+        {
+            int capacity = size + size / 2;
+            startX = new float[capacity];
+            startY = new float[capacity];
+            endX = new float[capacity];
+            endY = new float[capacity];
+            bandEntries = new int[bandsPerLine * capacity];
+        }
+
+        //interpolate the lines and count the individuals of each band
+        float[] xs = frame.getX();
+        float[] ys = frame.getY();
+        float[] dxs = frame.getDx();
+        float[] dys = frame.getDy();
+        float[] speeds = frame.getSpeed();
+        Arrays.fill(bandStart, 0);
+        for (int i = 0; i < size; i++)
+        {
+            float step = back * speeds[i];
+            startX[i] = xs[i] - dxs[i] * step;
+            startY[i] = ys[i] - dys[i] * step;
+            endX[i] = startX[i] + dxs[i] * length;
+            endY[i] = startY[i] + dys[i] * length;
+
+            int first = firstBand(i);
+            int last = lastBand(i);
+            for (int band = first; band <= last; band++)
+            {
+                bandStart[band + 1]++;
+            }
+        }
+
+        //sort the individuals into the bands
+        for (int band = 0; band < bands; band++)
+        {
+            bandStart[band + 1] += bandStart[band];
+        }
+        for (int i = 0; i < size; i++)
+        {
+            int first = firstBand(i);
+            int last = lastBand(i);
+            for (int band = first; band <= last; band++)
+            {
+                //bandStart[band] is moved on while filling, and ends at the start of the next band
+                bandEntries[bandStart[band]++] = i;
+            }
+        }
+        for (int band = bands; band > 0; band--)
+        {
+            bandStart[band] = bandStart[band - 1];
+        }
+        bandStart[0] = 0;
+
+        if (workerPool != null)
+        {
+            workerPool.run(bands, 1, rasterTask);
+        } else
+        {
+            rasterTask.run(0, bands);
+        }
+        return image;
+    }
+
+    /**
+     * @return The first band the line of an individual reaches into, clamped to the image.
+     */
+    private int firstBand(int i)
+    {
+        int top = (int) Math.floor(Math.min(startY[i], endY[i]));
+        return Math.max(0, Math.min(bands - 1, top / BAND_HEIGHT));
+    }
+
+    /**
+     * @return The last band the line of an individual reaches into, clamped to the image.
+     */
+    private int lastBand(int i)
+    {
+        int bottom = (int) Math.ceil(Math.max(startY[i], endY[i]));
+        return Math.max(0, Math.min(bands - 1, bottom / BAND_HEIGHT));
+    }
+
+    /**
+     * Clears a band and draws the lines of its individuals, clipped to its rows.
+     *
+     * @param band The band.
+     */
+    private void rasterize(int band)
+    {
+        int top = band * BAND_HEIGHT;
+        int bottom = Math.min(top + BAND_HEIGHT, height);
+        Arrays.fill(pixels, top * width, bottom * width, background);
+
+        for (int k = bandStart[band]; k < bandStart[band + 1]; k++)
+        {
+            int i = bandEntries[k];
+            float x = startX[i];
+            float y = startY[i];
+            float dx = endX[i] - x;
+            float dy = endY[i] - y;
+
+            //one pixel per step along the longer axis
+            int steps = (int) Math.ceil(Math.max(Math.abs(dx), Math.abs(dy)));
+            if (steps > 0)
+            {
+                dx /= steps;
+                dy /= steps;
+            }
+            for (int s = 0; s <= steps; s++)
+            {
+                int px = Math.round(x);
+                int py = Math.round(y);
+                if (py >= top && py < bottom && px >= 0 && px < width)
+                {
+                    pixels[py * width + px] = foreground;
+                }
+                x += dx;
+                y += dy;
+            }
+        }
+    }
+
+}
@@ -2,6 +2,10 @@ package de.mlux1.swarmsim.ui;
 
 import de.mlux1.swarmsim.Main;
 import de.mlux1.swarmsim.logic.AppState;
+import de.mlux1.swarmsim.logic.event.IndividualsKilledEvent;
+import de.mlux1.swarmsim.logic.event.SimulationListener;
+import de.mlux1.swarmsim.logic.index.NeighborIndex;
+import de.mlux1.swarmsim.logic.kernel.NeighbourKernel;
 import de.mlux1.swarmsim.logic.strategy.escape.EscapeStrategy;
 
 import javax.swing.*;
@@ -9,6 +13,7 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.util.concurrent.Executor;
 
 /**
  * @author mlux
@@ -21,6 +26,16 @@ public class UIController extends MouseAdapter implements ActionListener
 
     private static UIController instance; //singleton
 
+    //delivers events on the event dispatch thread
+    private static final Executor EVENT_DISPATCH_EXECUTOR = new Executor()
+    {
+        @Override
+        public void execute(Runnable runnable)
+        {
+            SwingUtilities.invokeLater(runnable);
+        }
+    };
+
     static
     {
         instance = new UIController();
@@ -49,7 +64,25 @@ public class UIController extends MouseAdapter implements ActionListener
      */
     public void notifyIndividualsGotKilled()
     {
-        Main.getWindow().getSwarmSizeSlider().setValue(AppState.getInstance().getIndividuals().size());
+        Main.getWindow().getSwarmSizeSlider().setValue(AppState.getInstance().getSwarmSize());
+    }
+
+    /**
+     * Subscribes the controller to the kills of the predator, delivered on the event dispatch thread. No kill is left
+     * out, so the slider ends up at the size after the last one.
+     *
+     * @param appState The simulation to listen to.
+     */
+    public void subscribe(AppState appState)
+    {
+        appState.getEvents().subscribe(IndividualsKilledEvent.class, new SimulationListener<IndividualsKilledEvent>()
+        {
+            @Override
+            public void onEvent(IndividualsKilledEvent event)
+            {
+                notifyIndividualsGotKilled();
+            }
+        }, EVENT_DISPATCH_EXECUTOR, 1, 0);
     }
 
     /**
@@ -79,7 +112,13 @@ public class UIController extends MouseAdapter implements ActionListener
             AppState.getInstance().setCohesionPriority(value);
         } else if (MainWindow.TITLE_PREDATOR_SPEED.equals(title))
         {
-            AppState.getInstance().getPredator().setSpeed(value);
+            AppState.getInstance().setPredatorSpeed(value);
+        } else if (MainWindow.TITLE_PREDATOR_COUNT.equals(title))
+        {
+            AppState.getInstance().setPredatorCount(value);
+        } else if (MainWindow.TITLE_TICK_THREADS.equals(title))
+        {
+            AppState.getInstance().setTickThreads(value);
         }
     }
 
@@ -128,7 +167,7 @@ public class UIController extends MouseAdapter implements ActionListener
             JCheckBox cb = (JCheckBox) actionEvent.getSource();
             boolean active = cb.isSelected();
             AppState.getInstance().setPredatorActive(active);
-            Main.getWindow().setPredatorSpeedSliderEnabled(active);
+            Main.getWindow().setPredatorSlidersEnabled(active);
         }
 
         if (MainWindow.TITLE_PREDATOR_LETHAL.equals(cmd))
@@ -138,14 +177,31 @@ public class UIController extends MouseAdapter implements ActionListener
             AppState.getInstance().setPredatorLethal(lethal);
         }
 
+        if (MainWindow.TITLE_VECTOR_HEADINGS.equals(cmd))
+        {
+            JCheckBox cb = (JCheckBox) actionEvent.getSource();
+            AppState.getInstance().setVectorHeadings(cb.isSelected());
+        }
+
+        if (MainWindow.TITLE_PERFORMANCE.equals(cmd))
+        {
+            JCheckBox cb = (JCheckBox) actionEvent.getSource();
+            Main.getWindow().setPerformanceVisible(cb.isSelected());
+        }
+
         if ("comboBoxChanged".equals(cmd))
         {
-            @SuppressWarnings("unchecked")
-            JComboBox<EscapeStrategy> comboBox = (JComboBox<EscapeStrategy>) actionEvent.getSource();
-            EscapeStrategy ms = (EscapeStrategy) comboBox.getSelectedItem();
-            if (ms != null)
+            JComboBox<?> comboBox = (JComboBox<?>) actionEvent.getSource();
+            Object selected = comboBox.getSelectedItem();
+            if (selected instanceof EscapeStrategy)
+            {
+                AppState.getInstance().setEscapeStrategy((EscapeStrategy) selected);
+            } else if (selected instanceof NeighborIndex)
+            {
+                AppState.getInstance().setNeighborIndex((NeighborIndex) selected);
+            } else if (selected instanceof NeighbourKernel)
             {
-                AppState.getInstance().setEscapeStrategy(ms);
+                AppState.getInstance().setNeighbourKernel((NeighbourKernel) selected);
             }
         }
     }